@@ -2,6 +2,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.2.2"
     id("io.spring.dependency-management") version "1.1.4"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.example.angella"
@@ -17,6 +18,17 @@ configurations {
     }
 }
 
+// Генератор данных и нагрузочный прогон: отдельный набор исходников, в jar приложения не попадает
+sourceSets {
+    create("loadtest") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+configurations["loadtestImplementation"].extendsFrom(configurations.implementation.get())
+configurations["loadtestRuntimeOnly"].extendsFrom(configurations.runtimeOnly.get())
+
 repositories {
     mavenCentral()
 }
@@ -36,12 +48,19 @@ dependencies {
     implementation("org.webjars:jquery:3.6.0")
     implementation("org.thymeleaf.extras:thymeleaf-extras-springsecurity6:3.1.2.RELEASE")
     implementation("org.webjars:select2:4.0.13")
+    implementation("com.github.ben-manes.caffeine:caffeine")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
     compileOnly("org.projectlombok:lombok")
     runtimeOnly("org.postgresql:postgresql")
     annotationProcessor("org.projectlombok:lombok")
     compileOnly("org.mapstruct:mapstruct:1.5.5.Final")
     annotationProcessor("org.mapstruct:mapstruct-processor:1.5.5.Final")
     implementation("org.springframework.boot:spring-boot-starter-websocket")
+    // TCP-клиент для STOMP broker relay и встроенный брокер для app.websocket.broker.mode=EMBEDDED
+    implementation("org.springframework.boot:spring-boot-starter-reactor-netty")
+    implementation("org.apache.activemq:artemis-server")
+    implementation("org.apache.activemq:artemis-stomp-protocol")
     implementation("com.itextpdf:itext7-core:7.2.5")
     implementation("com.itextpdf:layout:7.2.5")
 
@@ -55,9 +74,50 @@ dependencies {
     testImplementation("org.testcontainers:junit-jupiter:1.19.7")
     testImplementation("org.testcontainers:postgresql:1.19.7")
 
+    jmh("org.springframework:spring-test")
+    jmh("com.h2database:h2")
 }
 
 tasks.withType<Test> {
     useJUnitPlatform()
+    // Число подписчиков в SlowConsumerWebSocketHandlerIT: ./gradlew test -PslowConsumer.subscribers=5000
+    findProperty("slowConsumer.subscribers")?.let { systemProperty("slowConsumer.subscribers", it) }
 }
 
+// ./gradlew jmh [-Pjmh.includes=EventMapper] [-Pjmh.profilers=gc]; результаты в build/reports/jmh/results.json
+jmh {
+    jmhVersion.set("1.37")
+    includes.set(listOfNotNull(findProperty("jmh.includes")?.toString()))
+    // gc - выделение памяти на операцию (gc.alloc.rate.norm)
+    profilers.set(listOfNotNull(findProperty("jmh.profilers")?.toString()))
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+}
+
+
+// Свойства -Ploadtest.* передаются как системные свойства, см. LoadTestSettings
+fun JavaExec.loadTestTask(mainClassName: String) {
+    group = "verification"
+    classpath = sourceSets["loadtest"].runtimeClasspath
+    mainClass.set(mainClassName)
+    systemProperties(project.properties.filterKeys { it.startsWith("loadtest.") })
+}
+
+// ./gradlew seedLoadTestData [-Ploadtest.users=2000 -Ploadtest.events=5000 -Ploadtest.seed=42]
+tasks.register<JavaExec>("seedLoadTestData") {
+    description = "Fills the database with a reproducible large dataset for load testing"
+    loadTestTask("com.example.angella.eventsapi.loadtest.LoadTestDataGenerator")
+}
+
+// ./gradlew loadTest [-Ploadtest.httpUsers=50 -Ploadtest.stompUsers=50 -Ploadtest.duration=PT60S];
+// результаты в build/reports/loadtest/results.json
+tasks.register<JavaExec>("loadTest") {
+    description = "Runs the HTTP and STOMP load test against a running application"
+    loadTestTask("com.example.angella.eventsapi.loadtest.LoadTestRunner")
+    if (!project.hasProperty("loadtest.resultsFile")) {
+        systemProperty("loadtest.resultsFile", layout.buildDirectory.file("reports/loadtest/results.json").get().asFile.path)
+    }
+}
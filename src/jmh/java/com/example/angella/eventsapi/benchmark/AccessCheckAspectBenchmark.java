@@ -0,0 +1,65 @@
+package com.example.angella.eventsapi.benchmark;
+
+import com.example.angella.eventsapi.aop.Access;
+import com.example.angella.eventsapi.aop.AccessCheckAspect;
+import com.example.angella.eventsapi.aop.AccessCheckType;
+import com.example.angella.eventsapi.service.checker.AccessCheckerService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы самого аспекта проверки доступа (без обращения к БД в проверяющем сервисе).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AccessCheckAspectBenchmark {
+
+    private AccessCheckAspect aspect;
+    private Access access;
+
+    @Setup(Level.Trial)
+    public void setUp() throws NoSuchMethodException {
+        AccessCheckerService participantChecker = new AccessCheckerService() {
+            @Override
+            public boolean check(HttpServletRequest request, Access accessible) {
+                return request.getParameter("eventId") != null;
+            }
+
+            @Override
+            public AccessCheckType getType() {
+                return AccessCheckType.PARTICIPANT;
+            }
+        };
+        aspect = new AccessCheckAspect(Map.of(AccessCheckType.PARTICIPANT, participantChecker));
+        access = AccessCheckAspectBenchmark.class
+                .getDeclaredMethod("annotatedAction")
+                .getAnnotation(Access.class);
+
+        // Состояние Scope.Thread: Setup выполняется в потоке бенчмарка, ThreadLocal виден в check
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/chat");
+        request.setParameter("eventId", "1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public void check() {
+        // JoinPoint используется только при отказе в доступе
+        aspect.check(null, access);
+    }
+
+    @Access(checkBy = AccessCheckType.PARTICIPANT)
+    private void annotatedAction() {
+    }
+}
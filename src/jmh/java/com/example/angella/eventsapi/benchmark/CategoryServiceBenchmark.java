@@ -0,0 +1,81 @@
+package com.example.angella.eventsapi.benchmark;
+
+import com.example.angella.eventsapi.entity.Category;
+import com.example.angella.eventsapi.repository.CategoryRepository;
+import com.example.angella.eventsapi.service.CategoryService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * CategoryService.upsertCategories на репозитории в памяти: измеряется логика сервиса, а не БД.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CategoryServiceBenchmark {
+
+    @Param({"4", "16"})
+    private int existing;
+
+    @Param({"0", "4"})
+    private int created;
+
+    private CategoryService categoryService;
+    private Set<Category> request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EventFixtures fixtures = new EventFixtures(42, 1);
+        categoryService = new CategoryService(inMemoryRepository(fixtures.getCategories()), Duration.ofMinutes(10));
+        request = fixtures.categoryRequest(existing, created);
+    }
+
+    @Benchmark
+    public Set<Category> upsertCategories() {
+        return categoryService.upsertCategories(request);
+    }
+
+    // Реализуются только методы, которые вызывает upsertCategories; сохранённое не накапливается
+    @SuppressWarnings("unchecked")
+    private static CategoryRepository inMemoryRepository(List<Category> stored) {
+        Map<String, Category> byName = stored.stream()
+                .collect(Collectors.toMap(Category::getName, Function.identity()));
+        AtomicLong ids = new AtomicLong(10_000);
+
+        return (CategoryRepository) Proxy.newProxyInstance(
+                CategoryRepository.class.getClassLoader(),
+                new Class<?>[]{CategoryRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAllByNameIn" -> ((Collection<String>) args[0]).stream()
+                            .map(byName::get)
+                            .filter(Objects::nonNull)
+                            .toList();
+                    case "saveAll" -> {
+                        List<Category> saved = new ArrayList<>();
+                        for (Category category : (Iterable<Category>) args[0]) {
+                            Category copy = new Category();
+                            copy.setId(ids.incrementAndGet());
+                            copy.setName(category.getName());
+                            saved.add(copy);
+                        }
+                        yield saved;
+                    }
+                    case "toString" -> "InMemoryCategoryRepository";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.angella.eventsapi.benchmark;
+
+import com.example.angella.eventsapi.entity.Category;
+import com.example.angella.eventsapi.entity.Event;
+import com.example.angella.eventsapi.entity.Location;
+import com.example.angella.eventsapi.entity.Role;
+import com.example.angella.eventsapi.entity.User;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Генератор графов сущностей в памяти для бенчмарков.
+ * Фиксированный seed даёт одинаковые данные от запуска к запуску.
+ */
+public final class EventFixtures {
+
+    private static final String[] CITIES = {"Москва", "Санкт-Петербург", "Казань", "Новосибирск", "Екатеринбург"};
+    private static final String[] CATEGORY_NAMES = {
+            "Музыка", "Спорт", "Кино", "Театр", "Выставка", "Лекция", "Мастер-класс", "Фестиваль",
+            "Конференция", "Квиз", "Настольные игры", "Йога", "Бег", "Фотография", "Кулинария", "Танцы"
+    };
+
+    private final Random random;
+    private final List<Category> categories = new ArrayList<>();
+    private final List<User> users = new ArrayList<>();
+    private long nextId = 1;
+
+    public EventFixtures(long seed, int userPoolSize) {
+        this.random = new Random(seed);
+
+        for (String name : CATEGORY_NAMES) {
+            Category category = new Category();
+            category.setId(nextId++);
+            category.setName(name);
+            categories.add(category);
+        }
+
+        for (int i = 0; i < userPoolSize; i++) {
+            users.add(user(i));
+        }
+    }
+
+    public List<Event> events(int count, int participantsPerEvent, int categoriesPerEvent) {
+        List<Event> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            events.add(event(i, participantsPerEvent, categoriesPerEvent));
+        }
+        return events;
+    }
+
+    public Event event(int index, int participantsPerEvent, int categoriesPerEvent) {
+        Event event = new Event();
+        event.setId(nextId++);
+        event.setName("Мероприятие " + index);
+        event.setDescription("Описание мероприятия " + index + ". ".repeat(20));
+        Instant start = Instant.now().plus(random.nextInt(90 * 24), ChronoUnit.HOURS);
+        event.setStartTime(start);
+        event.setEndTime(start.plus(2 + random.nextInt(6), ChronoUnit.HOURS));
+
+        Location location = new Location();
+        location.setId(nextId++);
+        location.setCity(CITIES[random.nextInt(CITIES.length)]);
+        location.setStreet("Улица " + random.nextInt(200));
+        event.setLocation(location);
+
+        User creator = users.get(random.nextInt(users.size()));
+        event.setCreator(creator);
+
+        Set<Category> eventCategories = new HashSet<>();
+        while (eventCategories.size() < Math.min(categoriesPerEvent, categories.size())) {
+            eventCategories.add(categories.get(random.nextInt(categories.size())));
+        }
+        event.setCategories(eventCategories);
+
+        event.addParticipant(creator);
+        while (event.getParticipants().size() < Math.min(participantsPerEvent, users.size())) {
+            event.addParticipant(users.get(random.nextInt(users.size())));
+        }
+        return event;
+    }
+
+    public Set<Category> categoryRequest(int existing, int created) {
+        Set<Category> request = new HashSet<>();
+        for (int i = 0; i < existing; i++) {
+            request.add(detachedCategory(CATEGORY_NAMES[i % CATEGORY_NAMES.length]));
+        }
+        for (int i = 0; i < created; i++) {
+            request.add(detachedCategory("Новая категория " + i));
+        }
+        return request;
+    }
+
+    public List<Category> getCategories() {
+        return categories;
+    }
+
+    private static Category detachedCategory(String name) {
+        Category category = new Category();
+        category.setName(name);
+        return category;
+    }
+
+    private User user(int index) {
+        User user = new User();
+        user.setId(nextId++);
+        user.setUsername("user" + index);
+        user.setEmail("user" + index + "@example.com");
+        user.setPassword("{noop}password");
+        user.setFirstName("Имя" + index);
+        user.setLastName("Фамилия" + index);
+        user.addRole(Role.ROLE_USER);
+        if (index % 50 == 0) {
+            user.addRole(Role.ROLE_ADMIN);
+        }
+        return user;
+    }
+}
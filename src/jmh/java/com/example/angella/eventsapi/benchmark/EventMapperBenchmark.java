@@ -0,0 +1,56 @@
+package com.example.angella.eventsapi.benchmark;
+
+import com.example.angella.eventsapi.entity.Event;
+import com.example.angella.eventsapi.mapper.EventMapper;
+import com.example.angella.eventsapi.web.dto.EventDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразование сущностей в DTO: одно событие и страница событий.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventMapperBenchmark {
+
+    @Param({"50", "200"})
+    private int participants;
+
+    @Param({"20", "500"})
+    private int pageSize;
+
+    private AnnotationConfigApplicationContext context;
+    private EventMapper eventMapper;
+    private Event event;
+    private List<Event> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Реализации MapStruct - обычные Spring-компоненты без внешних зависимостей
+        context = new AnnotationConfigApplicationContext("com.example.angella.eventsapi.mapper");
+        eventMapper = context.getBean(EventMapper.class);
+
+        EventFixtures fixtures = new EventFixtures(42, Math.max(participants * 2, 500));
+        page = fixtures.events(pageSize, participants, 4);
+        event = page.get(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public EventDto toDto() {
+        return eventMapper.toDto(event);
+    }
+
+    @Benchmark
+    public List<EventDto> toDtoList() {
+        return eventMapper.toDtoList(page);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.angella.eventsapi.benchmark;
+
+import com.example.angella.eventsapi.entity.Category;
+import com.example.angella.eventsapi.entity.Event;
+import com.example.angella.eventsapi.entity.Location;
+import com.example.angella.eventsapi.entity.Role;
+import com.example.angella.eventsapi.entity.User;
+import com.example.angella.eventsapi.mapper.EventMapper;
+import com.example.angella.eventsapi.model.PageModel;
+import com.example.angella.eventsapi.repository.EventReadRepository;
+import com.example.angella.eventsapi.repository.EventRepository;
+import com.example.angella.eventsapi.service.EventReadService;
+import com.example.angella.eventsapi.web.dto.EventDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Страница GET /api/v1/public/events: сущности с маппером против проекций EventReadService.
+ * Выделение памяти на ответ видно с профилировщиком gc:
+ * ./gradlew jmh -Pjmh.includes=EventReadModel -Pjmh.profilers=gc (метрика gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EventReadModelBenchmark {
+
+    @Param({"1000"})
+    private int events;
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    @Param({"20"})
+    private int participantsPerEvent;
+
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private AnnotationConfigApplicationContext mapperContext;
+    private EventRepository eventRepository;
+    private EventMapper eventMapper;
+    private EventReadService eventReadService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:read-model-" + events + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+
+        Properties properties = new Properties();
+        properties.put("hibernate.hbm2ddl.auto", "create-drop");
+        properties.put("hibernate.default_batch_fetch_size", "20");
+
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("com.example.angella.eventsapi.entity");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaProperties(properties);
+        factoryBean.afterPropertiesSet();
+
+        entityManagerFactory = factoryBean.getObject();
+        entityManager = entityManagerFactory.createEntityManager();
+        populate();
+
+        mapperContext = new AnnotationConfigApplicationContext("com.example.angella.eventsapi.mapper");
+        eventMapper = mapperContext.getBean(EventMapper.class);
+
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        eventRepository = repositoryFactory.getRepository(EventRepository.class);
+        eventReadService = new EventReadService(repositoryFactory.getRepository(EventReadRepository.class),
+                eventMapper, new ObjectMapper());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mapperContext.close();
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    @Benchmark
+    public List<EventDto> entitiesWithMapper() {
+        // Как в запросе: новый контекст персистентности на каждый ответ
+        entityManager.clear();
+        return eventMapper.toDtoList(eventRepository.findAll(
+                Specification.where(null), PageRequest.of(0, pageSize, Sort.by("id"))).getContent());
+    }
+
+    @Benchmark
+    public List<EventDto> projections() {
+        entityManager.clear();
+        return eventReadService.findPage(new PageModel(0, pageSize)).getContent();
+    }
+
+    private void populate() {
+        Random random = new Random(42);
+        entityManager.getTransaction().begin();
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < Math.max(participantsPerEvent * 5, 200); i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword("password");
+            user.setFirstName("Имя" + i);
+            user.setLastName("Фамилия" + i);
+            user.addRole(Role.ROLE_USER);
+            entityManager.persist(user);
+            users.add(user);
+        }
+
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            Category category = new Category();
+            category.setName("Категория " + i);
+            entityManager.persist(category);
+            categories.add(category);
+        }
+
+        for (int i = 0; i < events; i++) {
+            Location location = new Location();
+            location.setCity("Город " + (i % 20));
+            location.setStreet("Улица " + i);
+            entityManager.persist(location);
+
+            Event event = new Event();
+            event.setName("Мероприятие " + i);
+            event.setDescription("Описание мероприятия " + i);
+            Instant start = Instant.now().plus(random.nextInt(90 * 24), ChronoUnit.HOURS);
+            event.setStartTime(start);
+            event.setEndTime(start.plus(3, ChronoUnit.HOURS));
+            event.setLocation(location);
+            event.setCreator(users.get(random.nextInt(users.size())));
+
+            Set<Category> eventCategories = new HashSet<>();
+            while (eventCategories.size() < 3) {
+                eventCategories.add(categories.get(random.nextInt(categories.size())));
+            }
+            event.setCategories(eventCategories);
+            while (event.getParticipants().size() < participantsPerEvent) {
+                event.addParticipant(users.get(random.nextInt(users.size())));
+            }
+            entityManager.persist(event);
+        }
+
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+    }
+}
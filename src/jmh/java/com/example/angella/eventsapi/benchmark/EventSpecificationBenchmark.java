@@ -0,0 +1,93 @@
+package com.example.angella.eventsapi.benchmark;
+
+import com.example.angella.eventsapi.entity.Event;
+import com.example.angella.eventsapi.model.EventFilterModel;
+import com.example.angella.eventsapi.repository.specification.EventSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.time.LocalDate;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Построение спецификации фильтра событий и её Criteria-предиката.
+ * Hibernate поднимается на H2 в памяти только ради метамодели, запросы не выполняются.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventSpecificationBenchmark {
+
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private EventFilterModel fullFilter;
+    private EventFilterModel emptyFilter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+
+        Properties properties = new Properties();
+        properties.put("hibernate.hbm2ddl.auto", "none");
+
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("com.example.angella.eventsapi.entity");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaProperties(properties);
+        factoryBean.afterPropertiesSet();
+
+        entityManagerFactory = factoryBean.getObject();
+        entityManager = entityManagerFactory.createEntityManager();
+
+        fullFilter = EventFilterModel.builder()
+                .search("концерт")
+                .upcomingOnly(true)
+                .city("Москва")
+                .street("Тверская")
+                .categoryIds(Set.of(1L, 2L, 3L))
+                .startTime(LocalDate.now())
+                .build();
+        emptyFilter = new EventFilterModel();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    @Benchmark
+    public Specification<Event> withFilter() {
+        return EventSpecification.withFilter(fullFilter);
+    }
+
+    @Benchmark
+    public Predicate toPredicateFullFilter() {
+        return toPredicate(fullFilter);
+    }
+
+    @Benchmark
+    public Predicate toPredicateEmptyFilter() {
+        return toPredicate(emptyFilter);
+    }
+
+    private Predicate toPredicate(EventFilterModel filter) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Event> query = criteriaBuilder.createQuery(Event.class);
+        Root<Event> root = query.from(Event.class);
+        return EventSpecification.withFilter(filter).toPredicate(root, query, criteriaBuilder);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.angella.eventsapi.benchmark;
+
+import com.example.angella.eventsapi.entity.Event;
+import com.example.angella.eventsapi.entity.Location;
+import com.example.angella.eventsapi.entity.Role;
+import com.example.angella.eventsapi.entity.User;
+import com.example.angella.eventsapi.repository.EventRepository;
+import com.example.angella.eventsapi.service.PdfReportService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * PDF-отчет администратора с разделом по мероприятиям: запись в поток ответа против сборки в byte[].
+ * Форк запускается с -Xmx128m, а данные лежат в файловой H2 с ограниченным кэшем, поэтому куча
+ * занята только самим отчетом. Потоковая запись должна проходить на 20000 событий в той же куче,
+ * что и на 1000, а gc.alloc.rate.norm - расти линейно, без скачков на сборку документа целиком:
+ * ./gradlew jmh -Pjmh.includes=PdfReportService -Pjmh.profilers=gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx128m")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class PdfReportServiceBenchmark {
+
+    @Param({"1000", "20000"})
+    private int events;
+
+    private Path databaseDirectory;
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private PdfReportService pdfReportService;
+    private Map<String, Object> stats;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        databaseDirectory = Files.createTempDirectory("pdf-report-benchmark");
+        JdbcDataSource dataSource = new JdbcDataSource();
+        // Кэш H2 ограничен 8 МБ: события не занимают кучу, которую меряет бенчмарк
+        dataSource.setURL("jdbc:h2:file:" + databaseDirectory.resolve("events")
+                + ";MODE=PostgreSQL;CACHE_SIZE=8192");
+
+        Properties properties = new Properties();
+        properties.put("hibernate.hbm2ddl.auto", "create-drop");
+        properties.put("hibernate.jdbc.batch_size", "100");
+
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("com.example.angella.eventsapi.entity");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaProperties(properties);
+        factoryBean.afterPropertiesSet();
+
+        entityManagerFactory = factoryBean.getObject();
+        entityManager = entityManagerFactory.createEntityManager();
+        populate();
+
+        EventRepository eventRepository = new JpaRepositoryFactory(entityManager).getRepository(EventRepository.class);
+        pdfReportService = new PdfReportService(eventRepository);
+        stats = stats();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        entityManager.close();
+        entityManagerFactory.close();
+        try (Stream<Path> files = Files.walk(databaseDirectory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void streamToResponse() {
+        // Как AdminController: документ уходит в поток ответа по мере готовности страниц
+        entityManager.clear();
+        pdfReportService.writeStatisticsReport(stats, true, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public int bufferInMemory() {
+        // Прежняя схема: весь документ в byte[] до отправки
+        entityManager.clear();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        pdfReportService.writeStatisticsReport(stats, true, outputStream);
+        return outputStream.toByteArray().length;
+    }
+
+    private void populate() {
+        Random random = new Random(42);
+        entityManager.getTransaction().begin();
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword("password");
+            user.addRole(Role.ROLE_USER);
+            entityManager.persist(user);
+            users.add(user);
+        }
+
+        for (int i = 0; i < events; i++) {
+            Location location = new Location();
+            location.setCity("Город " + (i % 20));
+            location.setStreet("Улица " + i);
+            entityManager.persist(location);
+
+            Event event = new Event();
+            event.setName("Мероприятие " + i);
+            event.setDescription("Описание мероприятия " + i);
+            Instant start = Instant.now().plus(random.nextInt(90 * 24), ChronoUnit.HOURS);
+            event.setStartTime(start);
+            event.setEndTime(start.plus(3, ChronoUnit.HOURS));
+            event.setLocation(location);
+            event.setCreator(users.get(random.nextInt(users.size())));
+            while (event.getParticipants().size() < 5) {
+                event.addParticipant(users.get(random.nextInt(users.size())));
+            }
+            entityManager.persist(event);
+
+            // Контекст персистентности не держит все события до конца заполнения
+            if (i % 500 == 499) {
+                entityManager.flush();
+                entityManager.clear();
+                users.replaceAll(user -> entityManager.getReference(User.class, user.getId()));
+            }
+        }
+
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+    }
+
+    // Сводка той же формы, что StatisticsService.getDetailedStatistics; числа на отчет не влияют
+    private Map<String, Object> stats() {
+        return Map.of(
+                "platformOverview", Map.of("totalUsers", 200, "totalEvents", events, "activeEvents", events,
+                        "totalCategories", 0, "averageParticipants", 5),
+                "userActivity", Map.of("totalComments", 0, "totalChatMessages", 0,
+                        "totalTasksCreated", 0, "totalChecklistItems", 0),
+                "eventStatistics", Map.of("totalEvents", events, "upcomingEvents", events, "averageParticipants", 5),
+                "completionRates", Map.of("tasksCompleted", 0, "checklistItemsCompleted", 0),
+                "popularCategories", Map.of("categories", List.of())
+        );
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.angella.eventsapi.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Накапливает задержки по операциям и считает перцентили по всем образцам.
+ * Прогон длится минуты, поэтому хранить сырые значения дешевле и точнее гистограммы.
+ */
+public class LatencyRecorder {
+
+    private final Map<String, Samples> operations = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+
+    public void start() {
+        recording = true;
+    }
+
+    public void stop() {
+        recording = false;
+    }
+
+    public void record(String operation, long latencyNanos, boolean success) {
+        // Прогрев не попадает в результаты
+        if (!recording) return;
+        operations.computeIfAbsent(operation, key -> new Samples()).add(latencyNanos, success);
+    }
+
+    public Map<String, Summary> summarize(double seconds) {
+        Map<String, Summary> result = new LinkedHashMap<>();
+        operations.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue().summarize(seconds)));
+        return result;
+    }
+
+    public record Summary(long count, long errors, double throughput,
+                          double p50Millis, double p90Millis, double p99Millis, double maxMillis) {
+    }
+
+    private static final class Samples {
+
+        private final AtomicLong errors = new AtomicLong();
+        private long[] values = new long[1024];
+        private int size;
+
+        synchronized void add(long latencyNanos, boolean success) {
+            if (!success) {
+                errors.incrementAndGet();
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = latencyNanos;
+        }
+
+        synchronized Summary summarize(double seconds) {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return new Summary(
+                    size,
+                    errors.get(),
+                    seconds > 0 ? size / seconds : 0,
+                    percentile(sorted, 0.50),
+                    percentile(sorted, 0.90),
+                    percentile(sorted, 0.99),
+                    size == 0 ? 0 : sorted[size - 1] / 1_000_000.0
+            );
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) return 0;
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.angella.eventsapi.loadtest;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+
+/**
+ * Заполняет Postgres воспроизводимым набором данных для нагрузочного теста.
+ * Схему должно заранее создать приложение (Liquibase), генератор только добавляет строки.
+ * <p>
+ * Внешние ключи распределяются детерминированной арифметикой по номеру строки,
+ * случайны только времена и длины текстов (random() после setseed), поэтому
+ * одинаковые параметры дают одинаковый граф данных.
+ * <p>
+ * Пользователи создаются как load_user_N с паролем из loadtest.password.
+ * Первые loadtest.chatUsers пользователей - участники «горячего» события
+ * «Load event 1», в котором лежит loadtest.hotEventMessages сообщений.
+ */
+public class LoadTestDataGenerator {
+
+    private static final String USER_PREFIX = "load_user_";
+
+    private final LoadTestSettings settings;
+
+    public LoadTestDataGenerator(LoadTestSettings settings) {
+        this.settings = settings;
+    }
+
+    public static void main(String[] args) throws SQLException {
+        new LoadTestDataGenerator(LoadTestSettings.fromSystemProperties()).generate();
+    }
+
+    public void generate() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(
+                settings.jdbcUrl(), settings.jdbcUser(), settings.jdbcPassword())) {
+            connection.setAutoCommit(false);
+
+            if (alreadySeeded(connection)) {
+                System.out.println("Load test dataset is already present (" + USER_PREFIX + "1 exists), skipping");
+                return;
+            }
+
+            long started = System.currentTimeMillis();
+            String passwordHash = new BCryptPasswordEncoder().encode(settings.password());
+
+            // setseed принимает значение в диапазоне [-1, 1]
+            execute(connection, "SELECT setseed(?)", new Random(settings.seed()).nextDouble() * 2 - 1);
+
+            step(connection, "users", """
+                    INSERT INTO usr (created_at, updated_at, email, first_name, last_name, password, username)
+                    SELECT now(), now(), 'load_user_' || i || '@example.com', 'Load', 'User ' || i, ?, 'load_user_' || i
+                    FROM generate_series(1, ?) AS g(i)
+                    """, passwordHash, settings.users());
+            execute(connection, """
+                    CREATE TEMP TABLE load_users ON COMMIT DROP AS
+                    SELECT id, row_number() OVER (ORDER BY id) AS rn FROM usr WHERE username LIKE 'load\\_user\\_%'
+                    """);
+            step(connection, "user roles", """
+                    INSERT INTO user_roles (user_id, roles) SELECT id, 'ROLE_USER' FROM load_users
+                    """);
+
+            step(connection, "locations", """
+                    INSERT INTO location (created_at, updated_at, city, street)
+                    SELECT now(), now(),
+                           (ARRAY['Москва','Санкт-Петербург','Казань','Новосибирск','Екатеринбург','Самара'])[1 + i % 6],
+                           'Нагрузочная улица ' || i
+                    FROM generate_series(1, ?) AS g(i)
+                    """, settings.locations());
+            execute(connection, """
+                    CREATE TEMP TABLE load_locations ON COMMIT DROP AS
+                    SELECT id, row_number() OVER (ORDER BY id) AS rn FROM location WHERE street LIKE 'Нагрузочная улица %'
+                    """);
+
+            step(connection, "events", """
+                    INSERT INTO event (created_at, updated_at, name, description, start_time, end_time, location_id, creator_id)
+                    SELECT now(), now(), 'Load event ' || g.i, repeat('Описание нагрузочного события. ', 1 + (random() * 20)::int),
+                           t.start_time, t.start_time + interval '3 hours', l.id, u.id
+                    FROM generate_series(1, ?) AS g(i)
+                    CROSS JOIN LATERAL (SELECT now() + (random() * 210 - 30) * interval '1 day' AS start_time) t
+                    JOIN load_locations l ON l.rn = 1 + (g.i::bigint * 7919) % ?
+                    JOIN load_users u ON u.rn = 1 + (g.i::bigint * 104729) % ?
+                    """, settings.events(), settings.locations(), settings.users());
+            execute(connection, """
+                    CREATE TEMP TABLE load_events ON COMMIT DROP AS
+                    SELECT id, creator_id, row_number() OVER (ORDER BY id) AS rn FROM event WHERE name LIKE 'Load event %'
+                    """);
+
+            step(connection, "participants", """
+                    INSERT INTO events_participants (event_id, user_id)
+                    SELECT DISTINCT e.id, u.id
+                    FROM load_events e
+                    CROSS JOIN generate_series(0, ? - 1) AS k(n)
+                    JOIN load_users u ON u.rn = 1 + (e.rn * 31 + k.n * 7919) % ?
+                    WHERE u.id <> e.creator_id
+                    UNION
+                    SELECT e.id, e.creator_id FROM load_events e
+                    UNION
+                    SELECT e.id, u.id FROM load_events e JOIN load_users u ON u.rn <= ? WHERE e.rn = 1
+                    """, settings.participantsPerEvent(), settings.users(), settings.chatUsers());
+
+            step(connection, "event categories", """
+                    INSERT INTO event_categories (event_id, category_id)
+                    SELECT DISTINCT e.id, c.id
+                    FROM load_events e
+                    CROSS JOIN generate_series(0, 2) AS k(n)
+                    JOIN (SELECT id, row_number() OVER (ORDER BY id) AS rn, count(*) OVER () AS total FROM category) c
+                      ON c.rn = 1 + (e.rn + k.n * 3) % c.total
+                    WHERE k.n < 1 + e.rn % 3
+                    """);
+
+            step(connection, "comments", """
+                    INSERT INTO comment (created_at, updated_at, text, event_id, user_id)
+                    SELECT now() - random() * interval '30 days', now(), 'Комментарий ' || k.n, e.id, u.id
+                    FROM load_events e
+                    CROSS JOIN generate_series(1, ?) AS k(n)
+                    JOIN load_users u ON u.rn = 1 + (e.rn * 13 + k.n * 7919) % ?
+                    """, settings.commentsPerEvent(), settings.users());
+
+            step(connection, "chat messages", """
+                    INSERT INTO chat_message (created_at, updated_at, content, edited, event_id, user_id)
+                    SELECT ts, ts, 'Сообщение ' || k.n || ' ' || repeat('текст ', 1 + (random() * 30)::int), false, e.id, u.id
+                    FROM load_events e
+                    CROSS JOIN LATERAL generate_series(1, CASE WHEN e.rn = 1 THEN ? ELSE ? END) AS k(n)
+                    CROSS JOIN LATERAL (SELECT now() - interval '30 days' + k.n * interval '1 second' AS ts) t
+                    JOIN load_users u ON u.rn = 1 + (e.rn * 17 + k.n * 7919) % ?
+                    """, settings.hotEventMessages(), settings.messagesPerEvent(), settings.users());
+
+            step(connection, "tasks", """
+                    INSERT INTO task (created_at, updated_at, description, completed, event_id, user_id, assigned_user_id)
+                    SELECT now(), now(), 'Задача ' || k.n, random() < 0.4, e.id, e.creator_id, u.id
+                    FROM load_events e
+                    CROSS JOIN generate_series(1, ?) AS k(n)
+                    JOIN load_users u ON u.rn = 1 + (e.rn * 19 + k.n * 7919) % ?
+                    """, settings.tasksPerEvent(), settings.users());
+
+            step(connection, "images", """
+                    INSERT INTO image (created_at, updated_at, filename, original_filename, content_type, size, file_path, user_id, event_id)
+                    SELECT now(), now() + k.n * interval '1 millisecond', 'load-' || e.id || '-' || k.n || '.jpg', 'photo.jpg',
+                           'image/jpeg', 150000, 'uploads/load-' || e.id || '-' || k.n || '.jpg', e.creator_id, e.id
+                    FROM load_events e
+                    CROSS JOIN generate_series(1, ?) AS k(n)
+                    """, settings.imagesPerEvent());
+
+            connection.commit();
+            execute(connection, "ANALYZE");
+            connection.commit();
+
+            System.out.printf("Load test dataset generated in %d s%n", (System.currentTimeMillis() - started) / 1000);
+        }
+    }
+
+    private boolean alreadySeeded(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM usr WHERE username = ?")) {
+            statement.setString(1, USER_PREFIX + "1");
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
+    private void step(Connection connection, String name, String sql, Object... parameters) throws SQLException {
+        long started = System.currentTimeMillis();
+        int rows = execute(connection, sql, parameters);
+        System.out.printf("  %-18s %,10d rows  %,7d ms%n", name, rows, System.currentTimeMillis() - started);
+    }
+
+    private int execute(Connection connection, String sql, Object... parameters) throws SQLException {
+        if (parameters.length == 0) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(sql);
+                return Math.max(statement.getUpdateCount(), 0);
+            }
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            statement.execute();
+            return Math.max(statement.getUpdateCount(), 0);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.angella.eventsapi.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.CookieManager;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Нагрузочный прогон против запущенного приложения.
+ * <p>
+ * HTTP-пользователи в цикле выполняют взвешенную смесь запросов к страницам
+ * и REST API, STOMP-пользователи подписываются на чат «горячего» события и
+ * отправляют в него сообщения. Для STOMP измеряется время от отправки до
+ * получения собственного сообщения из рассылки.
+ * <p>
+ * Каждый виртуальный пользователь входит под своей учётной записью
+ * load_user_N: приложение разрешает только одну сессию на пользователя.
+ */
+public class LoadTestRunner {
+
+    private static final Pattern CSRF_TOKEN = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+    private static final String[] CITIES = {"Москва", "Санкт-Петербург", "Казань", "Новосибирск", "Екатеринбург", "Самара"};
+
+    private final LoadTestSettings settings;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Operation> operations = new ArrayList<>();
+    // clientMessageId -> время отправки, общий для всех STOMP-клиентов
+    private final Map<String, Long> pendingMessages = new ConcurrentHashMap<>();
+    private final AtomicLong broadcastFrames = new AtomicLong();
+
+    private volatile boolean running = true;
+    private long hotEventId;
+
+    public LoadTestRunner(LoadTestSettings settings) {
+        this.settings = settings;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTestRunner(LoadTestSettings.fromSystemProperties()).run();
+    }
+
+    public void run() throws Exception {
+        if (settings.httpUsers() + settings.stompUsers() > settings.chatUsers()) {
+            throw new IllegalArgumentException("loadtest.httpUsers + loadtest.stompUsers must not exceed loadtest.chatUsers");
+        }
+
+        hotEventId = findHotEventId();
+        registerOperations();
+        System.out.printf("Hot event id %d, %d HTTP users, %d STOMP users, warmup %s, duration %s%n",
+                hotEventId, settings.httpUsers(), settings.stompUsers(), settings.warmup(), settings.duration());
+
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        List<StompSession> stompSessions = new ArrayList<>();
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+
+        for (int i = 0; i < settings.httpUsers(); i++) {
+            HttpClient client = login(userName(i + 1));
+            workers.submit(() -> httpLoop(client));
+        }
+        for (int i = 0; i < settings.stompUsers(); i++) {
+            HttpClient client = login(userName(settings.httpUsers() + i + 1));
+            StompSession session = connectStomp(stompClient, client);
+            stompSessions.add(session);
+            workers.submit(() -> stompLoop(session));
+        }
+
+        Thread.sleep(settings.warmup().toMillis());
+        recorder.start();
+        Instant measurementStart = Instant.now();
+        Thread.sleep(settings.duration().toMillis());
+        recorder.stop();
+        double seconds = Duration.between(measurementStart, Instant.now()).toMillis() / 1000.0;
+
+        running = false;
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+        stompSessions.forEach(StompSession::disconnect);
+        stompClient.stop();
+
+        report(recorder.summarize(seconds), seconds);
+    }
+
+    private void registerOperations() {
+        operations.add(new Operation("GET /", 2, client -> get(client, "/")));
+        operations.add(new Operation("GET /events", 3, client -> get(client, "/events?page=" + random(0, 20))));
+        operations.add(new Operation("GET /api/v1/public/events/filter", 4, client -> get(client,
+                "/api/v1/public/events/filter?page.number=" + random(0, 50) + "&page.size=20&city="
+                        + encode(CITIES[random(0, CITIES.length)]))));
+        operations.add(new Operation("GET /api/v1/chat/{eventId}", 2, client -> get(client,
+                "/api/v1/chat/" + hotEventId + "?number=" + random(0, 20) + "&size=50")));
+        operations.add(new Operation("GET /api/v1/chat/{eventId}/history", 2, client -> get(client,
+                "/api/v1/chat/" + hotEventId + "/history?limit=50")));
+    }
+
+    private void httpLoop(HttpClient client) {
+        int totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        while (running) {
+            int roll = random(0, totalWeight);
+            for (Operation operation : operations) {
+                roll -= operation.weight();
+                if (roll < 0) {
+                    execute(operation, client);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void execute(Operation operation, HttpClient client) {
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            success = operation.call().apply(client) < 400;
+        } catch (Exception e) {
+            success = false;
+        }
+        recorder.record(operation.name(), System.nanoTime() - start, success);
+    }
+
+    private int get(HttpClient client, String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(settings.baseUrl() + path)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpClient login(String username) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        String loginPage = client.send(
+                HttpRequest.newBuilder(URI.create(settings.baseUrl() + "/login")).GET().build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = CSRF_TOKEN.matcher(loginPage);
+        if (!matcher.find()) {
+            throw new IllegalStateException("CSRF token not found on the login page");
+        }
+
+        String form = "username=" + encode(username) + "&password=" + encode(settings.password())
+                + "&_csrf=" + encode(matcher.group(1));
+        HttpResponse<Void> response = client.send(
+                HttpRequest.newBuilder(URI.create(settings.baseUrl() + "/login"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(form))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.uri().getQuery() != null && response.uri().getQuery().contains("error")) {
+            throw new IllegalStateException("Login failed for " + username + ", was the dataset generated?");
+        }
+        return client;
+    }
+
+    private StompSession connectStomp(WebSocketStompClient stompClient, HttpClient client) throws Exception {
+        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+        CookieManager cookieManager = (CookieManager) client.cookieHandler().orElseThrow();
+        headers.add("Cookie", cookieManager.getCookieStore().getCookies().stream()
+                .map(HttpCookie::toString)
+                .collect(Collectors.joining("; ")));
+
+        String url = settings.baseUrl().replaceFirst("^http", "ws") + "/ws";
+        StompSession session = stompClient.connectAsync(url, headers, new StompSessionHandlerAdapter() {
+        }).get(10, TimeUnit.SECONDS);
+
+        session.subscribe("/topic/chat/" + hotEventId, new StompFrameHandler() {
+            @Override
+            @NonNull
+            public Type getPayloadType(@NonNull StompHeaders stompHeaders) {
+                return JsonNode.class;
+            }
+
+            @Override
+            public void handleFrame(@NonNull StompHeaders stompHeaders, Object payload) {
+                broadcastFrames.incrementAndGet();
+                JsonNode clientMessageId = ((JsonNode) payload).get("clientMessageId");
+                if (clientMessageId == null || clientMessageId.isNull()) return;
+
+                // Задержку учитывает только первый получатель, остальные копии - это рассылка
+                Long sentAt = pendingMessages.remove(clientMessageId.asText());
+                if (sentAt != null) {
+                    recorder.record("STOMP /app/chat/{eventId}/send", System.nanoTime() - sentAt, true);
+                }
+            }
+        });
+        return session;
+    }
+
+    private void stompLoop(StompSession session) {
+        while (running) {
+            String clientMessageId = UUID.randomUUID().toString();
+            pendingMessages.put(clientMessageId, System.nanoTime());
+            try {
+                session.send("/app/chat/" + hotEventId + "/send", Map.of(
+                        "content", "Нагрузочное сообщение " + clientMessageId,
+                        "clientMessageId", clientMessageId));
+                Thread.sleep(settings.stompSendInterval().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                pendingMessages.remove(clientMessageId);
+                recorder.record("STOMP /app/chat/{eventId}/send", 0, false);
+            }
+        }
+    }
+
+    private long findHotEventId() throws IOException, InterruptedException {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(settings.baseUrl()
+                        + "/api/v1/public/events/filter?name=" + encode("Load event 1"))).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        JsonNode data = objectMapper.readTree(response.body()).path("data");
+        if (data.isEmpty()) {
+            throw new IllegalStateException("Hot event not found, run seedLoadTestData first");
+        }
+        return data.get(0).path("id").asLong();
+    }
+
+    private void report(Map<String, LatencyRecorder.Summary> summaries, double seconds) throws IOException {
+        System.out.printf("%n%-40s %9s %7s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        summaries.forEach((name, s) -> System.out.printf("%-40s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                name, s.count(), s.errors(), s.throughput(), s.p50Millis(), s.p90Millis(), s.p99Millis(), s.maxMillis()));
+        System.out.printf("STOMP broadcast frames received: %d, unanswered sends: %d%n",
+                broadcastFrames.get(), pendingMessages.size());
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("startedAt", Instant.now().minusMillis((long) (seconds * 1000)).toString());
+        results.put("durationSeconds", seconds);
+        results.put("settings", Map.of(
+                "baseUrl", settings.baseUrl(),
+                "httpUsers", settings.httpUsers(),
+                "stompUsers", settings.stompUsers(),
+                "stompSendInterval", settings.stompSendInterval().toString()));
+        results.put("operations", summaries);
+        results.put("stompBroadcastFrames", broadcastFrames.get());
+        results.put("stompUnansweredSends", pendingMessages.size());
+
+        Path file = Path.of(settings.resultsFile());
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), results);
+        System.out.println("Results written to " + file.toAbsolutePath());
+    }
+
+    private static String userName(int index) {
+        return "load_user_" + index;
+    }
+
+    private static int random(int from, int to) {
+        return ThreadLocalRandom.current().nextInt(from, to);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface HttpCall {
+        int apply(HttpClient client) throws IOException, InterruptedException;
+    }
+
+    private record Operation(String name, int weight, HttpCall call) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.angella.eventsapi.loadtest;
+
+import java.time.Duration;
+
+/**
+ * Параметры генератора данных и нагрузочного прогона.
+ * Все значения читаются из системных свойств loadtest.*, которые Gradle
+ * передаёт из свойств проекта (-Ploadtest.users=10000 и т.п.).
+ */
+public record LoadTestSettings(
+        String jdbcUrl,
+        String jdbcUser,
+        String jdbcPassword,
+        long seed,
+        int users,
+        int locations,
+        int events,
+        int participantsPerEvent,
+        int commentsPerEvent,
+        int messagesPerEvent,
+        int hotEventMessages,
+        int tasksPerEvent,
+        int imagesPerEvent,
+        int chatUsers,
+        String password,
+        String baseUrl,
+        int httpUsers,
+        int stompUsers,
+        Duration duration,
+        Duration warmup,
+        Duration stompSendInterval,
+        String resultsFile
+) {
+
+    public static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                string("jdbcUrl", "jdbc:postgresql://localhost:5432/events_db?currentSchema=events_schema"),
+                string("jdbcUser", "postgres"),
+                string("jdbcPassword", "postgres"),
+                integer("seed", 42),
+                integer("users", 2000),
+                integer("locations", 500),
+                integer("events", 5000),
+                integer("participantsPerEvent", 50),
+                integer("commentsPerEvent", 5),
+                integer("messagesPerEvent", 20),
+                integer("hotEventMessages", 100_000),
+                integer("tasksPerEvent", 3),
+                integer("imagesPerEvent", 2),
+                integer("chatUsers", 200),
+                string("password", "loadtest"),
+                string("baseUrl", "http://localhost:8080"),
+                integer("httpUsers", 50),
+                integer("stompUsers", 50),
+                Duration.parse(string("duration", "PT60S")),
+                Duration.parse(string("warmup", "PT10S")),
+                Duration.parse(string("stompSendInterval", "PT0.5S")),
+                string("resultsFile", "build/reports/loadtest/results.json")
+        );
+    }
+
+    private static String string(String name, String defaultValue) {
+        String value = System.getProperty("loadtest." + name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    private static int integer(String name, int defaultValue) {
+        return Integer.parseInt(string(name, String.valueOf(defaultValue)));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.angella.eventsapi.aop;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Таймер app.service на каждый публичный метод сервисов с тегами class, method, exception.
+ * Вызовы репозиториев Spring Boot измеряет сам (spring.data.repository.invocations),
+ * вместе они показывают, какой метод сервиса порождает лишние запросы.
+ */
+@Component
+@Aspect
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.metrics.services.enabled", havingValue = "true", matchIfMissing = true)
+public class ServiceMetricsAspect {
+
+    public static final String METRIC_NAME = "app.service";
+
+    private final MeterRegistry meterRegistry;
+
+    // Таймер успешных вызовов ищется на каждый вызов, поэтому кешируем его по сигнатуре
+    private final Map<String, Timer> successTimers = new ConcurrentHashMap<>();
+
+    @Pointcut("within(com.example.angella.eventsapi.service..*) && execution(public * *(..))")
+    void serviceMethods() {
+    }
+
+    // Геттеры, которые опрашиваются самими метриками (см. MetricsConfiguration)
+    @Pointcut("execution(* com.example.angella.eventsapi.service.ChatIngestionService.get*()) "
+            + "|| execution(* com.example.angella.eventsapi.service.*.get*Stats())")
+    void metricsGetters() {
+    }
+
+    @Around("serviceMethods() && !metricsGetters()")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String className = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String methodName = joinPoint.getSignature().getName();
+        long start = System.nanoTime();
+
+        try {
+            Object result = joinPoint.proceed();
+            successTimers.computeIfAbsent(className + "." + methodName,
+                            key -> timer(className, methodName, "none"))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer(className, methodName, e.getClass().getSimpleName())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timer(String className, String methodName, String exception) {
+        return Timer.builder(METRIC_NAME)
+                .description("Service method execution time")
+                .tag("class", className)
+                .tag("method", methodName)
+                .tag("exception", exception)
+                .register(meterRegistry);
+    }
+}
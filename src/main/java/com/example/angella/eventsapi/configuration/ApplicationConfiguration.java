@@ -2,12 +2,13 @@ package com.example.angella.eventsapi.configuration;
 
 import com.example.angella.eventsapi.aop.AccessCheckType;
 import com.example.angella.eventsapi.service.checker.AccessCheckerService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.event.ApplicationEventMulticaster;
 import org.springframework.context.event.SimpleApplicationEventMulticaster;
-import org.springframework.core.task.SimpleAsyncTaskExecutor;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Map;
 import java.util.function.Function;
@@ -22,12 +23,27 @@ public class ApplicationConfiguration {
     }
 
     @Bean
-    public ApplicationEventMulticaster applicationEventMulticaster() {
-        SimpleApplicationEventMulticaster eventMulticaster = new SimpleApplicationEventMulticaster();
+    public EventTaskExecutor applicationEventExecutor(
+            @Value("${app.events.executor.mode:BOUNDED}") EventTaskExecutor.Mode mode,
+            @Value("${app.events.executor.pool-size:4}") int poolSize,
+            @Value("${app.events.executor.queue-capacity:1000}") int queueCapacity,
+            @Value("${app.events.executor.max-concurrency:200}") int maxConcurrency,
+            @Value("${app.events.executor.rejection-policy:CALLER_RUNS}") EventTaskExecutor.RejectionPolicy rejectionPolicy,
+            @Value("${app.events.executor.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        return switch (mode) {
+            case VIRTUAL -> EventTaskExecutor.virtual(maxConcurrency, rejectionPolicy, shutdownTimeout);
+            case BOUNDED -> EventTaskExecutor.bounded(poolSize, queueCapacity, rejectionPolicy, shutdownTimeout);
+        };
+    }
 
-        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+    @Bean
+    public ApplicationEventMulticaster applicationEventMulticaster(EventTaskExecutor applicationEventExecutor) {
+        SimpleApplicationEventMulticaster eventMulticaster = new SimpleApplicationEventMulticaster();
 
-        eventMulticaster.setTaskExecutor(executor);
+        eventMulticaster.setTaskExecutor(applicationEventExecutor);
+        // Ошибка слушателя не должна теряться молча в потоке исполнителя; исполнитель её логирует и считает,
+        // а ошибку синхронного слушателя в потоке публикации пробрасывает вызывающему коду
+        eventMulticaster.setErrorHandler(applicationEventExecutor);
         return eventMulticaster;
     }
-}
\ No newline at end of file
+}
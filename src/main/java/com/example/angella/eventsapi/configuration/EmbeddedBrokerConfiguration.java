@@ -0,0 +1,37 @@
+package com.example.angella.eventsapi.configuration;
+
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Встроенный STOMP-брокер (ActiveMQ Artemis) для app.websocket.broker.mode=EMBEDDED.
+ * Relay в WebSocketConfig подключается к нему по localhost так же, как к внешнему брокеру,
+ * поэтому сюда же можно направить relay других узлов. Состояние брокера только в памяти.
+ * <p>
+ * Брокер запускается при создании бина, то есть до старта relay (он стартует как SmartLifecycle),
+ * и останавливается после него.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.websocket.broker.mode", havingValue = "EMBEDDED")
+public class EmbeddedBrokerConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public EmbeddedActiveMQ embeddedStompBroker(
+            @Value("${app.websocket.broker.embedded-port:61613}") int port) throws Exception {
+        ConfigurationImpl configuration = new ConfigurationImpl();
+        configuration.setPersistenceEnabled(false);
+        configuration.setSecurityEnabled(false);
+        configuration.setJMXManagementEnabled(false);
+        // /topic/** - рассылка всем подписчикам, /queue/** - одному получателю, как у простого брокера
+        configuration.addAcceptorConfiguration("stomp", "tcp://localhost:" + port
+                + "?protocols=STOMP;multicastPrefix=/topic/;anycastPrefix=/queue/");
+
+        EmbeddedActiveMQ broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(configuration);
+        return broker;
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.angella.eventsapi.configuration;
+
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.util.ErrorHandler;
+import org.springframework.util.ReflectionUtils;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ограниченный исполнитель для асинхронных слушателей событий приложения.
+ * Одна задача мультикастера - вызов одного слушателя, поэтому время выполнения
+ * задачи и есть задержка слушателя.
+ * <p>
+ * Исключение слушателя перехватывает мультикастер и до задачи оно не доходит, поэтому
+ * исполнитель регистрируется и как его ErrorHandler: так ошибка попадает в счётчик failed.
+ * Слушатели, которые мультикастер вызывает прямо в потоке публикации (supportsAsyncExecution() == false),
+ * выполняются вне задачи исполнителя: их исключение пробрасывается вызывающему коду, как без ErrorHandler.
+ */
+@Slf4j
+public class EventTaskExecutor implements TaskExecutor, ErrorHandler, DisposableBean {
+
+    public enum Mode { VIRTUAL, BOUNDED }
+
+    public enum RejectionPolicy { CALLER_RUNS, DISCARD, ABORT }
+
+    private final ExecutorService delegate;
+    private final RejectionPolicy rejectionPolicy;
+    // Ограничение числа одновременно выполняемых и ожидающих задач
+    private final Semaphore permits;
+    private final Duration shutdownTimeout;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    // Подключается в MetricsConfiguration; до этого время задач не записывается
+    private volatile Timer listenerTimer;
+    // Ошибка слушателя в задаче, выполняемой текущим потоком; null - поток сейчас не в задаче
+    private final ThreadLocal<Boolean> taskFailed = new ThreadLocal<>();
+
+    private EventTaskExecutor(ExecutorService delegate, int maxInFlight,
+                              RejectionPolicy rejectionPolicy, Duration shutdownTimeout) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxInFlight);
+        this.rejectionPolicy = rejectionPolicy;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    /**
+     * Виртуальный поток на задачу, не больше maxConcurrency задач одновременно.
+     */
+    public static EventTaskExecutor virtual(int maxConcurrency, RejectionPolicy rejectionPolicy,
+                                            Duration shutdownTimeout) {
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("app-event-", 0).factory());
+        return new EventTaskExecutor(executor, maxConcurrency, rejectionPolicy, shutdownTimeout);
+    }
+
+    /**
+     * Фиксированный пул платформенных потоков с ограниченной очередью.
+     */
+    public static EventTaskExecutor bounded(int poolSize, int queueCapacity, RejectionPolicy rejectionPolicy,
+                                            Duration shutdownTimeout) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "app-event-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return new EventTaskExecutor(executor, poolSize + queueCapacity, rejectionPolicy, shutdownTimeout);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!permits.tryAcquire()) {
+            reject(task);
+            return;
+        }
+
+        pending.incrementAndGet();
+        try {
+            delegate.execute(() -> runInstrumented(task, true));
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            permits.release();
+            reject(task);
+        }
+    }
+
+    private void runInstrumented(Runnable task, boolean queued) {
+        if (queued) {
+            pending.decrementAndGet();
+        }
+        active.incrementAndGet();
+        // CALLER_RUNS может выполнить задачу внутри другой задачи в том же потоке
+        Boolean outerTaskFailed = taskFailed.get();
+        taskFailed.set(Boolean.FALSE);
+        long start = System.nanoTime();
+        try {
+            task.run();
+            if (taskFailed.get()) {
+                failed.incrementAndGet();
+            } else {
+                completed.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            throw e;
+        } finally {
+            if (outerTaskFailed == null) {
+                taskFailed.remove();
+            } else {
+                taskFailed.set(outerTaskFailed);
+            }
+            Timer timer = listenerTimer;
+            if (timer != null) {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            active.decrementAndGet();
+            if (queued) {
+                permits.release();
+            }
+        }
+    }
+
+    @Override
+    public void handleError(Throwable error) {
+        if (taskFailed.get() == null) {
+            // Синхронный слушатель в потоке публикации: ошибку увидит вызывающий код, в метрики она не входит
+            ReflectionUtils.rethrowRuntimeException(error);
+        }
+        log.error("Application event listener failed", error);
+        taskFailed.set(Boolean.TRUE);
+    }
+
+    private void reject(Runnable task) {
+        rejected.incrementAndGet();
+        switch (rejectionPolicy) {
+            // Замедляем публикующий поток вместо роста числа потоков
+            case CALLER_RUNS -> runInstrumented(task, false);
+            case DISCARD -> log.warn("Application event executor is saturated, listener call discarded");
+            case ABORT -> throw new RejectedExecutionException("Application event executor is saturated");
+        }
+    }
+
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    public int getQueueDepth() {
+        return pending.get();
+    }
+
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Таймер, в который пишется время выполнения каждой задачи, включая выполненные по CALLER_RUNS.
+     */
+    public void setListenerTimer(Timer listenerTimer) {
+        this.listenerTimer = listenerTimer;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        delegate.shutdown();
+        if (!delegate.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Application event executor did not finish in {}, {} listener calls left",
+                    shutdownTimeout, pending.get() + active.get());
+            delegate.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.angella.eventsapi.configuration;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Функции полнотекстового поиска PostgreSQL для JPQL и Criteria API.
+ * Оператора @@ в HQL нет, поэтому он оборачивается в функцию с шаблоном SQL.
+ * Запрос передается дважды: для русской и для английской конфигурации, результаты объединяются через ИЛИ.
+ * <p>
+ * fts_match(vector, query, query) - документ подходит под запрос;
+ * fts_rank(vector, query, query) - релевантность для сортировки.
+ * Регистрируется через META-INF/services.
+ */
+public class FullTextSearchFunctions implements FunctionContributor {
+
+    private static final String TS_QUERY = "(to_tsquery('russian', ?2) || to_tsquery('english', ?3))";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        functionContributions.getFunctionRegistry().registerPattern(
+                "fts_match", "(?1 @@ " + TS_QUERY + ")", types.resolve(StandardBasicTypes.BOOLEAN));
+        functionContributions.getFunctionRegistry().registerPattern(
+                "fts_rank", "ts_rank(?1, " + TS_QUERY + ")", types.resolve(StandardBasicTypes.FLOAT));
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.angella.eventsapi.configuration;
+
+import com.example.angella.eventsapi.security.UserPrincipalCache;
+import com.example.angella.eventsapi.service.CategoryService;
+import com.example.angella.eventsapi.service.ChatIngestionService;
+import com.example.angella.eventsapi.service.CityDirectoryService;
+import com.example.angella.eventsapi.service.EventAccessService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Привязка внутренних счётчиков приложения к Micrometer.
+ * Пул Hikari, HTTP-запросы и вызовы репозиториев Spring Boot измеряет сам.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public MeterBinder applicationEventExecutorMetrics(EventTaskExecutor applicationEventExecutor) {
+        return registry -> {
+            Gauge.builder("app.events.executor.active", applicationEventExecutor, EventTaskExecutor::getActiveCount)
+                    .description("Application event listeners running now")
+                    .register(registry);
+            Gauge.builder("app.events.executor.queued", applicationEventExecutor, EventTaskExecutor::getQueueDepth)
+                    .description("Application event listener calls waiting for a thread")
+                    .register(registry);
+            FunctionCounter.builder("app.events.executor.completed", applicationEventExecutor,
+                    EventTaskExecutor::getCompletedCount).register(registry);
+            FunctionCounter.builder("app.events.executor.failed", applicationEventExecutor,
+                    EventTaskExecutor::getFailedCount).register(registry);
+            FunctionCounter.builder("app.events.executor.rejected", applicationEventExecutor,
+                    EventTaskExecutor::getRejectedCount).register(registry);
+            // Перцентили и максимум считаются в скользящем окне, а не за всё время жизни процесса
+            applicationEventExecutor.setListenerTimer(Timer.builder("app.events.executor.latency")
+                    .description("Application event listener execution time")
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        };
+    }
+
+    @Bean
+    public MeterBinder chatIngestionMetrics(ChatIngestionService chatIngestionService) {
+        return registry -> {
+            Gauge.builder("app.chat.ingestion.queue", chatIngestionService, ChatIngestionService::getQueueDepth)
+                    .description("Chat messages accepted but not yet written to the database")
+                    .register(registry);
+            FunctionCounter.builder("app.chat.ingestion.enqueued", chatIngestionService,
+                    ChatIngestionService::getEnqueuedCount).register(registry);
+            FunctionCounter.builder("app.chat.ingestion.persisted", chatIngestionService,
+                    ChatIngestionService::getPersistedCount).register(registry);
+            FunctionCounter.builder("app.chat.ingestion.rejected", chatIngestionService,
+                    ChatIngestionService::getRejectedCount).register(registry);
+            FunctionCounter.builder("app.chat.ingestion.dropped", chatIngestionService,
+                    ChatIngestionService::getDroppedCount).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder membershipCacheMetrics(EventAccessService eventAccessService) {
+        return registry -> {
+            bindCacheStats(registry, "app.cache.membership", "participants", eventAccessService::getParticipantCacheStats);
+            bindCacheStats(registry, "app.cache.membership", "creators", eventAccessService::getCreatorCacheStats);
+        };
+    }
+
+    @Bean
+    public MeterBinder principalCacheMetrics(UserPrincipalCache userPrincipalCache) {
+        return registry -> bindCacheStats(registry, "app.cache.principals", "principals", userPrincipalCache::getStats);
+    }
+
+    @Bean
+    public MeterBinder referenceListCacheMetrics(CategoryService categoryService,
+                                                 CityDirectoryService cityDirectoryService) {
+        return registry -> {
+            bindCacheStats(registry, "app.cache.reference", "categories", categoryService::getCacheStats);
+            bindCacheStats(registry, "app.cache.reference", "cities", cityDirectoryService::getCacheStats);
+        };
+    }
+
+    @Bean
+    public MeterBinder webSocketChannelMetrics(
+            @Qualifier("clientInboundChannelExecutor") ThreadPoolTaskExecutor inboundExecutor,
+            @Qualifier("clientOutboundChannelExecutor") ThreadPoolTaskExecutor outboundExecutor,
+            @Qualifier("brokerChannelExecutor") ThreadPoolTaskExecutor brokerExecutor) {
+        return registry -> Map.of("inbound", inboundExecutor, "outbound", outboundExecutor, "broker", brokerExecutor)
+                .forEach((channel, executor) -> {
+                    channelGauge(registry, "app.websocket.channel.queued", channel, executor,
+                            pool -> pool.getQueue().size());
+                    channelGauge(registry, "app.websocket.channel.active", channel, executor,
+                            ThreadPoolExecutor::getActiveCount);
+                    channelGauge(registry, "app.websocket.channel.pool", channel, executor,
+                            ThreadPoolExecutor::getPoolSize);
+                });
+    }
+
+    private static void bindCacheStats(MeterRegistry registry, String prefix, String cache,
+                                       Supplier<CacheStats> stats) {
+        FunctionCounter.builder(prefix + ".gets", stats, s -> s.get().hitCount())
+                .tag("cache", cache).tag("result", "hit").register(registry);
+        FunctionCounter.builder(prefix + ".gets", stats, s -> s.get().missCount())
+                .tag("cache", cache).tag("result", "miss").register(registry);
+        FunctionCounter.builder(prefix + ".evictions", stats, s -> s.get().evictionCount())
+                .tag("cache", cache).register(registry);
+    }
+
+    private static void channelGauge(MeterRegistry registry, String name, String channel,
+                                     ThreadPoolTaskExecutor executor, ToIntFunction<ThreadPoolExecutor> value) {
+        Gauge.builder(name, executor, e -> {
+                    // До инициализации пула ThreadPoolTaskExecutor бросает IllegalStateException
+                    try {
+                        return value.applyAsInt(e.getThreadPoolExecutor());
+                    } catch (IllegalStateException notInitialized) {
+                        return 0;
+                    }
+                })
+                .tag("channel", channel)
+                .register(registry);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.angella.eventsapi.configuration;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class QueryCountConfiguration {
+
+    // Инспектор подключён всегда: без открытой записи QueryCounter он сводится к чтению ThreadLocal
+    @Bean
+    public HibernatePropertiesCustomizer queryCountInspectorCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCountInspector());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.query-count.log-requests", havingValue = "true")
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(
+            @Value("${app.query-count.warn-threshold:30}") int warnThreshold,
+            @Value("${app.query-count.repeat-threshold:5}") int repeatThreshold) {
+        FilterRegistrationBean<QueryCountFilter> registration =
+                new FilterRegistrationBean<>(new QueryCountFilter(warnThreshold, repeatThreshold));
+        // Снаружи Spring Security, чтобы учесть и загрузку пользователя при входе
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+}
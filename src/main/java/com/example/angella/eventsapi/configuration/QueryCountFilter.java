@@ -0,0 +1,55 @@
+package com.example.angella.eventsapi.configuration;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Логирует число SQL-запросов на каждый HTTP-запрос. При превышении порога
+ * или повторах одного запроса пишет предупреждение с текстом подозрительного SQL.
+ * Включается в профиле dev через app.query-count.log-requests.
+ */
+@Slf4j
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final int warnThreshold;
+    private final int repeatThreshold;
+
+    public QueryCountFilter(int warnThreshold, int repeatThreshold) {
+        this.warnThreshold = warnThreshold;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        QueryCounter.Recording recording = QueryCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            recording.close();
+            report(request.getMethod() + " " + request.getRequestURI(), recording);
+        }
+    }
+
+    private void report(String requestLine, QueryCounter.Recording recording) {
+        if (recording.getCount() == 0) return;
+
+        Map<String, Integer> repeated = recording.getRepeatedStatements(repeatThreshold);
+        if (recording.getCount() <= warnThreshold && repeated.isEmpty()) {
+            log.info("{}: {} SQL statement(s)", requestLine, recording.getCount());
+            return;
+        }
+
+        log.warn("{}: {} SQL statement(s), warn threshold is {}", requestLine, recording.getCount(), warnThreshold);
+        repeated.forEach((sql, times) -> log.warn("{}: possible N+1, executed {} times: {}", requestLine, times, sql));
+    }
+}
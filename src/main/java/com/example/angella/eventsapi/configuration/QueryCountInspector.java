@@ -0,0 +1,16 @@
+package com.example.angella.eventsapi.configuration;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Передаёт каждый подготовленный Hibernate запрос в {@link QueryCounter}, сам SQL не меняет.
+ * Запросы мимо Hibernate (JdbcTemplate, Liquibase) здесь не видны.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryCounter.record(sql);
+        return sql;
+    }
+}
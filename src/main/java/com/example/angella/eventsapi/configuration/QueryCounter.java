@@ -0,0 +1,100 @@
+package com.example.angella.eventsapi.configuration;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Счётчик SQL-запросов текущего потока. Запросы видит {@link QueryCountInspector},
+ * учитываются они только внутри открытой записи {@link #start()}, вне её счётчик ничего не делает.
+ * <p>
+ * Повторы одного и того же SQL считаются отдельно: десяток одинаковых запросов
+ * за один HTTP-запрос почти всегда означает N+1.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    /**
+     * Открывает запись в текущем потоке. Вложенные записи поддерживаются,
+     * запрос учитывается во всех открытых записях.
+     */
+    public static Recording start() {
+        Recording recording = new Recording(CURRENT.get());
+        CURRENT.set(recording);
+        return recording;
+    }
+
+    static void record(String sql) {
+        Recording recording = CURRENT.get();
+        if (recording != null) {
+            recording.add(sql);
+        }
+    }
+
+    public static final class Recording implements AutoCloseable {
+
+        private final Recording parent;
+        private final Map<String, Integer> statements = new LinkedHashMap<>();
+        private int count;
+        private boolean closed;
+
+        private Recording(Recording parent) {
+            this.parent = parent;
+        }
+
+        private void add(String sql) {
+            if (closed) return;
+            count++;
+            statements.merge(sql, 1, Integer::sum);
+            if (parent != null) {
+                parent.add(sql);
+            }
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Текст запроса -> сколько раз он выполнен, в порядке первого выполнения.
+         */
+        public Map<String, Integer> getStatements() {
+            return Collections.unmodifiableMap(statements);
+        }
+
+        /**
+         * Запросы, выполненные не меньше threshold раз.
+         */
+        public Map<String, Integer> getRepeatedStatements(int threshold) {
+            return statements.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= threshold)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
+                            (left, right) -> left, LinkedHashMap::new));
+        }
+
+        @Override
+        public void close() {
+            if (closed) return;
+            closed = true;
+            if (CURRENT.get() == this) {
+                if (parent == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(parent);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return statements.entrySet().stream()
+                    .map(entry -> entry.getValue() + "x " + entry.getKey())
+                    .collect(Collectors.joining("\n", count + " statement(s):\n", ""));
+        }
+    }
+}
@@ -51,6 +51,11 @@ public class SecurityConfiguration {
                                 // Публичные API endpoints
                                 .requestMatchers("/api/v1/public/**").permitAll()
 
+                                // Проверка живости и сбор метрик Prometheus без входа в систему,
+                                // остальные actuator endpoints - только администраторам
+                                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+                                .requestMatchers("/actuator/**").hasRole("ADMIN")
+
                                 // Chrome DevTools специфичный путь
                                 .requestMatchers("/.well-known/**").permitAll()
 
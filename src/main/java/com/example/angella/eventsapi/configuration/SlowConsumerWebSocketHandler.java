@@ -0,0 +1,285 @@
+package com.example.angella.eventsapi.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SubProtocolWebSocketHandler с политикой для медленных клиентов.
+ * <p>
+ * Каждая сессия пишет через свой буфер, который разбирает отдельный виртуальный поток. Поток
+ * clientOutboundChannel только кладёт кадр в буфер и уходит: при setPreservePublishOrder следующий кадр
+ * сессии ждёт, пока обработан предыдущий, и запись в сокет на потоке канала копила бы кадры медленного
+ * клиента в очереди Spring мимо любых лимитов. Когда в буфере уже есть хвост и новый кадр переполнит его:
+ * <ul>
+ *     <li>DROP - новые кадры MESSAGE для этой сессии отбрасываются, служебные кадры (RECEIPT, ERROR)
+ *     по-прежнему ставятся в очередь; каждый отброшенный кадр считается в app.websocket.frames.dropped;</li>
+ *     <li>DISCONNECT - сессия закрывается, как в Spring по умолчанию.</li>
+ * </ul>
+ * При DROP клиент узнаёт о пропуске и может перечитать историю: каждый кадр MESSAGE несёт заголовок
+ * message-seq со сквозным номером в сессии (отброшенные тоже получают номер), а когда буфер опустел
+ * после отбрасывания, уходит кадр RECEIPT с receipt-id:message-gap, числом отброшенных кадров (dropped)
+ * и номером последнего из них (message-seq) - на случай, если пропущен хвост и следующего MESSAGE нет.
+ * <p>
+ * Запись, зависшая дольше send-time-limit, закрывает сессию при любой политике. Это проверяет сторож,
+ * раз в {@link #WATCHDOG_PERIOD} обходящий сессии, поэтому зависание замечается и без новых кадров.
+ */
+@Slf4j
+public class SlowConsumerWebSocketHandler extends SubProtocolWebSocketHandler implements DisposableBean {
+
+    public enum OverflowPolicy { DROP, DISCONNECT }
+
+    static final Duration WATCHDOG_PERIOD = Duration.ofSeconds(1);
+    static final String SEQUENCE_HEADER = "message-seq";
+    static final String GAP_RECEIPT_ID = "message-gap";
+
+    private static final byte[] MESSAGE_FRAME = "MESSAGE\n".getBytes(StandardCharsets.UTF_8);
+
+    private final OverflowPolicy overflowPolicy;
+    private final WebSocketMetrics webSocketMetrics;
+    private final Executor sendExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("websocket-send-", 0).factory());
+    private final Map<String, SlowConsumerSession> sessions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("websocket-send-watchdog").daemon().factory());
+
+    public SlowConsumerWebSocketHandler(MessageChannel clientInboundChannel,
+                                        SubscribableChannel clientOutboundChannel,
+                                        OverflowPolicy overflowPolicy,
+                                        WebSocketMetrics webSocketMetrics) {
+        super(clientInboundChannel, clientOutboundChannel);
+        this.overflowPolicy = overflowPolicy;
+        this.webSocketMetrics = webSocketMetrics;
+        watchdog.scheduleWithFixedDelay(this::closeStalledSessions,
+                WATCHDOG_PERIOD.toMillis(), WATCHDOG_PERIOD.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected WebSocketSession decorateSession(WebSocketSession session) {
+        SlowConsumerSession decorated = new SlowConsumerSession(session, sendExecutor, getSendTimeLimit(),
+                getSendBufferSizeLimit(), overflowPolicy, webSocketMetrics);
+        sessions.put(session.getId(), decorated);
+        return decorated;
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        sessions.remove(session.getId());
+        super.afterConnectionClosed(session, closeStatus);
+    }
+
+    @Override
+    public void destroy() {
+        watchdog.shutdownNow();
+    }
+
+    private void closeStalledSessions() {
+        long now = System.currentTimeMillis();
+        for (SlowConsumerSession session : sessions.values()) {
+            try {
+                session.closeIfWriteStalled(now);
+            } catch (RuntimeException ex) {
+                // Исключение отменило бы все следующие запуски сторожа
+                log.warn("Failed to check WebSocket session {}", session.getId(), ex);
+            }
+        }
+    }
+
+    static boolean isMessageFrame(WebSocketMessage<?> message) {
+        if (message instanceof TextMessage text) {
+            return text.getPayload().startsWith("MESSAGE\n");
+        }
+        if (message instanceof BinaryMessage binary) {
+            ByteBuffer payload = binary.getPayload();
+            return payload.remaining() >= MESSAGE_FRAME.length
+                    && payload.slice(payload.position(), MESSAGE_FRAME.length).equals(ByteBuffer.wrap(MESSAGE_FRAME));
+        }
+        return false;
+    }
+
+    // Заголовок вставляется сразу после команды: порядок заголовков STOMP не важен, content-length не меняется
+    static WebSocketMessage<?> withSequence(WebSocketMessage<?> message, long sequence) {
+        String header = SEQUENCE_HEADER + ":" + sequence + "\n";
+        if (message instanceof TextMessage text) {
+            String payload = text.getPayload();
+            return new TextMessage("MESSAGE\n" + header + payload.substring(MESSAGE_FRAME.length), text.isLast());
+        }
+        BinaryMessage binary = (BinaryMessage) message;
+        ByteBuffer payload = binary.getPayload();
+        byte[] headerBytes = header.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer sequenced = ByteBuffer.allocate(payload.remaining() + headerBytes.length);
+        sequenced.put(MESSAGE_FRAME)
+                .put(headerBytes)
+                .put(payload.slice(payload.position() + MESSAGE_FRAME.length, payload.remaining() - MESSAGE_FRAME.length))
+                .flip();
+        return new BinaryMessage(sequenced, binary.isLast());
+    }
+
+    static TextMessage gapReceipt(long dropped, long lastDroppedSequence) {
+        return new TextMessage("RECEIPT\nreceipt-id:" + GAP_RECEIPT_ID + "\ndropped:" + dropped
+                + "\n" + SEQUENCE_HEADER + ":" + lastDroppedSequence + "\n\n\0");
+    }
+
+    static class SlowConsumerSession extends WebSocketSessionDecorator {
+
+        private final Executor sendExecutor;
+        private final int sendTimeLimit;
+        private final int bufferSizeLimit;
+        private final OverflowPolicy overflowPolicy;
+        private final WebSocketMetrics webSocketMetrics;
+
+        private final Queue<WebSocketMessage<?>> buffer = new ConcurrentLinkedQueue<>();
+        // Кадры в буфере и кадр, который пишется сейчас: он тоже ещё не ушёл клиенту
+        private final AtomicInteger bufferSize = new AtomicInteger();
+        private final AtomicBoolean flushing = new AtomicBoolean();
+        private volatile long writeStartTime;
+        private volatile boolean closing;
+        // Нумерация кадров MESSAGE и отброшенные с последнего сигнала о пропуске, только для DROP
+        private final AtomicLong messageSequence = new AtomicLong();
+        private final AtomicLong droppedSinceGap = new AtomicLong();
+        private volatile long lastDroppedSequence;
+
+        SlowConsumerSession(WebSocketSession session, Executor sendExecutor, int sendTimeLimit, int bufferSizeLimit,
+                            OverflowPolicy overflowPolicy, WebSocketMetrics webSocketMetrics) {
+            super(session);
+            this.sendExecutor = sendExecutor;
+            this.sendTimeLimit = sendTimeLimit;
+            this.bufferSizeLimit = bufferSizeLimit;
+            this.overflowPolicy = overflowPolicy;
+            this.webSocketMetrics = webSocketMetrics;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            if (closing) return;
+
+            boolean sequenced = overflowPolicy == OverflowPolicy.DROP && isMessageFrame(message);
+            long sequence = sequenced ? messageSequence.incrementAndGet() : 0;
+
+            // Отбрасываем только при накопившемся хвосте: одиночный большой кадр в свободную сессию уходит
+            int backlog = bufferSize.get();
+            if (backlog > 0 && backlog + message.getPayloadLength() > bufferSizeLimit) {
+                if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                    limitExceeded("Buffer size " + backlog + " bytes exceeded the allowed limit " + bufferSizeLimit);
+                }
+                if (sequenced) {
+                    lastDroppedSequence = sequence;
+                    droppedSinceGap.incrementAndGet();
+                    webSocketMetrics.frameDropped();
+                    // Буфер мог опустеть после проверки: сигнал о пропуске отправит только запись
+                    startFlush();
+                    return;
+                }
+            }
+            if (sequenced) {
+                message = withSequence(message, sequence);
+            }
+
+            bufferSize.addAndGet(message.getPayloadLength());
+            buffer.add(message);
+            startFlush();
+        }
+
+        @Override
+        public void close(CloseStatus status) throws IOException {
+            closing = true;
+            buffer.clear();
+            super.close(status);
+        }
+
+        /**
+         * Вызывается сторожем: запись, начатая раньше send-time-limit, закрывает сессию,
+         * даже если новых кадров для неё больше нет.
+         */
+        void closeIfWriteStalled(long now) {
+            long writeStarted = writeStartTime;
+            if (closing || writeStarted == 0 || now - writeStarted <= sendTimeLimit) {
+                return;
+            }
+            closing = true;
+            webSocketMetrics.slowConsumerDisconnected();
+            log.debug("Closing WebSocket session {}: send time exceeded the allowed limit {} ms", getId(), sendTimeLimit);
+            // Закрытие может ждать ту же блокировку сокета, что и зависшая запись: поток сторожа не занимаем
+            sendExecutor.execute(this::closeQuietly);
+        }
+
+        private void startFlush() {
+            if (flushing.compareAndSet(false, true)) {
+                sendExecutor.execute(this::flush);
+            }
+        }
+
+        private void flush() {
+            do {
+                WebSocketMessage<?> message;
+                while (!closing && (message = buffer.poll()) != null) {
+                    try {
+                        write(message);
+                    } finally {
+                        bufferSize.addAndGet(-message.getPayloadLength());
+                    }
+                }
+                // Буфер опустел: сообщаем о пропуске, пока клиент не ждёт кадров, которых не будет
+                long dropped = droppedSinceGap.getAndSet(0);
+                if (dropped > 0 && !closing) {
+                    write(gapReceipt(dropped, lastDroppedSequence));
+                }
+                flushing.set(false);
+                // Кадр или отбрасывание могли случиться между последним poll и сбросом флага
+            } while (!closing && (!buffer.isEmpty() || droppedSinceGap.get() > 0)
+                    && flushing.compareAndSet(false, true));
+        }
+
+        private void write(WebSocketMessage<?> message) {
+            writeStartTime = System.currentTimeMillis();
+            try {
+                getDelegate().sendMessage(message);
+            } catch (IOException | RuntimeException ex) {
+                log.debug("Failed to send WebSocket message to session {}", getId(), ex);
+                closeQuietly();
+            } finally {
+                writeStartTime = 0;
+            }
+        }
+
+        private void limitExceeded(String reason) throws SessionLimitExceededException {
+            // SubProtocolWebSocketHandler закроет сессию со статусом SESSION_NOT_RELIABLE
+            closing = true;
+            webSocketMetrics.slowConsumerDisconnected();
+            throw new SessionLimitExceededException(reason, CloseStatus.SESSION_NOT_RELIABLE);
+        }
+
+        private void closeQuietly() {
+            try {
+                close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException ex) {
+                log.debug("Failed to close WebSocket session {}", getId(), ex);
+            }
+        }
+    }
+}
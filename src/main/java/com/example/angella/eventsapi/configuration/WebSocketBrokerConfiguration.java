@@ -0,0 +1,35 @@
+package com.example.angella.eventsapi.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.config.annotation.DelegatingWebSocketMessageBrokerConfiguration;
+
+/**
+ * Инфраструктура STOMP-брокера вместо @EnableWebSocketMessageBroker. Настройки по-прежнему
+ * берутся из {@link WebSocketConfig}; отличается только обработчик WebSocket-сессий,
+ * который применяет политику для медленных клиентов.
+ */
+@Configuration(proxyBeanMethods = false)
+public class WebSocketBrokerConfiguration extends DelegatingWebSocketMessageBrokerConfiguration {
+
+    private final WebSocketMetrics webSocketMetrics;
+    private final SlowConsumerWebSocketHandler.OverflowPolicy overflowPolicy;
+
+    public WebSocketBrokerConfiguration(
+            WebSocketMetrics webSocketMetrics,
+            @Value("${app.websocket.transport.overflow-policy:DROP}") SlowConsumerWebSocketHandler.OverflowPolicy overflowPolicy) {
+        this.webSocketMetrics = webSocketMetrics;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    @Bean
+    @Override
+    public WebSocketHandler subProtocolWebSocketHandler(AbstractSubscribableChannel clientInboundChannel,
+                                                        AbstractSubscribableChannel clientOutboundChannel) {
+        return new SlowConsumerWebSocketHandler(clientInboundChannel, clientOutboundChannel,
+                overflowPolicy, webSocketMetrics);
+    }
+}
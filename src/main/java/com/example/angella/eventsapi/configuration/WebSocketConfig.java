@@ -1,20 +1,149 @@
 package com.example.angella.eventsapi.configuration;
 
+import com.example.angella.eventsapi.security.StompAuthChannelInterceptor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
-import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+import java.time.Duration;
+
+/**
+ * STOMP поверх WebSocket. Режим брокера задаётся app.websocket.broker.mode:
+ * <ul>
+ *     <li>SIMPLE - брокер в памяти, подписчики видят только сообщения своего узла;</li>
+ *     <li>RELAY - внешний STOMP-брокер (RabbitMQ, ActiveMQ Artemis), несколько узлов приложения;</li>
+ *     <li>EMBEDDED - Artemis внутри этого узла ({@link EmbeddedBrokerConfiguration}), к нему
+ *     подключается relay этого и других узлов. Для разработки и тестов без внешнего брокера.</li>
+ * </ul>
+ * Инфраструктуру брокера поднимает {@link WebSocketBrokerConfiguration}.
+ */
 @Configuration
-@EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    public enum BrokerMode { SIMPLE, RELAY, EMBEDDED }
+
+    private static final String[] BROKER_DESTINATIONS = {"/topic", "/queue"};
+
+    private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+    private final WebSocketMetrics webSocketMetrics;
+    private final TaskScheduler messageBrokerTaskScheduler;
+
+    private final BrokerMode brokerMode;
+    private final String relayHost;
+    private final int relayPort;
+    private final String virtualHost;
+    private final String clientLogin;
+    private final String clientPasscode;
+    private final String systemLogin;
+    private final String systemPasscode;
+    private final Duration heartbeatSend;
+    private final Duration heartbeatReceive;
+
+    private final ChannelPool inboundPool;
+    private final boolean inboundVirtualThreads;
+    private final int inboundMaxConcurrency;
+    private final ChannelPool outboundPool;
+    private final ChannelPool brokerPool;
+
+    private final DataSize sendBufferSizeLimit;
+    private final Duration sendTimeLimit;
+    private final DataSize messageSizeLimit;
+
+    public WebSocketConfig(StompAuthChannelInterceptor stompAuthChannelInterceptor,
+                           WebSocketMetrics webSocketMetrics,
+                           // Планировщик создаётся этой же конфигурацией брокера, поэтому ленивая ссылка
+                           @Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler messageBrokerTaskScheduler,
+                           @Value("${app.websocket.broker.mode:SIMPLE}") BrokerMode brokerMode,
+                           @Value("${app.websocket.broker.relay-host:localhost}") String relayHost,
+                           @Value("${app.websocket.broker.relay-port:61613}") int relayPort,
+                           @Value("${app.websocket.broker.embedded-port:61613}") int embeddedPort,
+                           @Value("${app.websocket.broker.virtual-host:}") String virtualHost,
+                           @Value("${app.websocket.broker.client-login:guest}") String clientLogin,
+                           @Value("${app.websocket.broker.client-passcode:guest}") String clientPasscode,
+                           @Value("${app.websocket.broker.system-login:guest}") String systemLogin,
+                           @Value("${app.websocket.broker.system-passcode:guest}") String systemPasscode,
+                           @Value("${app.websocket.broker.heartbeat-send:10s}") Duration heartbeatSend,
+                           @Value("${app.websocket.broker.heartbeat-receive:10s}") Duration heartbeatReceive,
+                           @Value("${app.websocket.channel.inbound.core-pool-size:16}") int inboundCoreSize,
+                           @Value("${app.websocket.channel.inbound.max-pool-size:16}") int inboundMaxSize,
+                           @Value("${app.websocket.channel.inbound.queue-capacity:10000}") int inboundQueueCapacity,
+                           @Value("${app.websocket.channel.inbound.virtual-threads:false}") boolean inboundVirtualThreads,
+                           @Value("${app.websocket.channel.inbound.max-concurrency:200}") int inboundMaxConcurrency,
+                           @Value("${app.websocket.channel.outbound.core-pool-size:8}") int outboundCoreSize,
+                           @Value("${app.websocket.channel.outbound.max-pool-size:8}") int outboundMaxSize,
+                           @Value("${app.websocket.channel.outbound.queue-capacity:100000}") int outboundQueueCapacity,
+                           @Value("${app.websocket.channel.broker.core-pool-size:0}") int brokerCoreSize,
+                           @Value("${app.websocket.channel.broker.max-pool-size:4}") int brokerMaxSize,
+                           @Value("${app.websocket.channel.broker.queue-capacity:10000}") int brokerQueueCapacity,
+                           @Value("${app.websocket.transport.send-buffer-size-limit:512KB}") DataSize sendBufferSizeLimit,
+                           @Value("${app.websocket.transport.send-time-limit:10s}") Duration sendTimeLimit,
+                           @Value("${app.websocket.transport.message-size-limit:64KB}") DataSize messageSizeLimit) {
+        this.stompAuthChannelInterceptor = stompAuthChannelInterceptor;
+        this.webSocketMetrics = webSocketMetrics;
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+        this.brokerMode = brokerMode;
+        // Встроенный брокер слушает только localhost этого узла
+        this.relayHost = brokerMode == BrokerMode.EMBEDDED ? "localhost" : relayHost;
+        this.relayPort = brokerMode == BrokerMode.EMBEDDED ? embeddedPort : relayPort;
+        this.virtualHost = virtualHost;
+        this.clientLogin = clientLogin;
+        this.clientPasscode = clientPasscode;
+        this.systemLogin = systemLogin;
+        this.systemPasscode = systemPasscode;
+        this.heartbeatSend = heartbeatSend;
+        this.heartbeatReceive = heartbeatReceive;
+        this.inboundPool = new ChannelPool(inboundCoreSize, inboundMaxSize, inboundQueueCapacity);
+        this.inboundVirtualThreads = inboundVirtualThreads;
+        this.inboundMaxConcurrency = inboundMaxConcurrency;
+        this.outboundPool = new ChannelPool(outboundCoreSize, outboundMaxSize, outboundQueueCapacity);
+        this.brokerPool = new ChannelPool(brokerCoreSize, brokerMaxSize, brokerQueueCapacity);
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.sendTimeLimit = sendTimeLimit;
+        this.messageSizeLimit = messageSizeLimit;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        if (brokerMode == BrokerMode.SIMPLE) {
+            config.enableSimpleBroker(BROKER_DESTINATIONS)
+                    .setHeartbeatValue(new long[]{heartbeatSend.toMillis(), heartbeatReceive.toMillis()})
+                    .setTaskScheduler(messageBrokerTaskScheduler);
+        } else {
+            StompBrokerRelayRegistration relay = config.enableStompBrokerRelay(BROKER_DESTINATIONS)
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(clientLogin)
+                    .setClientPasscode(clientPasscode)
+                    .setSystemLogin(systemLogin)
+                    .setSystemPasscode(systemPasscode)
+                    .setSystemHeartbeatSendInterval(heartbeatSend.toMillis())
+                    .setSystemHeartbeatReceiveInterval(heartbeatReceive.toMillis())
+                    // Сообщения на /user/** и реестр сессий пользователей расходятся по всем узлам
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+            if (!virtualHost.isBlank()) {
+                relay.setVirtualHost(virtualHost);
+            }
+        }
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
+        // Дельты задач и списка вещей применяются клиентом по порядку версий: пул на brokerChannel
+        // переставляет сообщения, поэтому по умолчанию канал синхронный (core-pool-size: 0)
+        if (brokerPool.coreSize() > 0) {
+            brokerPool.applyTo(config.configureBrokerChannel());
+        }
+        // Порядок отправки в одну сессию сохраняется и на пуле clientOutboundChannel
+        config.setPreservePublishOrder(true);
     }
 
     @Override
@@ -26,4 +155,45 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*");
     }
-}
\ No newline at end of file
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Сначала аутентификация: отклонённые подписки не попадают в метрики
+        registration.interceptors(stompAuthChannelInterceptor, webSocketMetrics);
+        if (!inboundVirtualThreads) {
+            inboundPool.applyTo(registration);
+            return;
+        }
+
+        // Обработчики кадров ходят в БД: ожидание на виртуальном потоке не занимает платформенный поток.
+        // Пул тот же ThreadPoolTaskExecutor, только число одновременных задач ограничено max-concurrency
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadFactory(Thread.ofVirtual().name("clientInboundChannel-", 0).factory());
+        registration.taskExecutor(executor)
+                .corePoolSize(inboundMaxConcurrency)
+                .maxPoolSize(inboundMaxConcurrency)
+                .queueCapacity(inboundPool.queueCapacity());
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        outboundPool.applyTo(registration);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit((int) sendBufferSizeLimit.toBytes())
+                .setSendTimeLimit((int) sendTimeLimit.toMillis())
+                .setMessageSizeLimit((int) messageSizeLimit.toBytes());
+    }
+
+    private record ChannelPool(int coreSize, int maxSize, int queueCapacity) {
+
+        void applyTo(ChannelRegistration registration) {
+            registration.taskExecutor()
+                    .corePoolSize(coreSize)
+                    .maxPoolSize(Math.max(coreSize, maxSize))
+                    .queueCapacity(queueCapacity);
+        }
+    }
+}
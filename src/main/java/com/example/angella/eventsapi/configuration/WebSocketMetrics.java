@@ -0,0 +1,164 @@
+package com.example.angella.eventsapi.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Считает активные STOMP-сессии и подписки на /topic/chat/{eventId}.
+ * <p>
+ * Работает как перехватчик входящего канала: preSend вызывается в потоке
+ * WebSocket-сессии до передачи в пул, поэтому кадры одной сессии приходят по порядку.
+ * При обрыве соединения Spring сам отправляет в канал DISCONNECT.
+ * Гейдж на событие существует, пока в его чате есть подписчики, так что число
+ * рядов ограничено активными чатами, а не всеми событиями.
+ * <p>
+ * Здесь же счётчики медленных клиентов из {@link SlowConsumerWebSocketHandler}:
+ * отброшенные кадры и сессии, закрытые по лимитам отправки.
+ */
+@Component
+public class WebSocketMetrics implements ChannelInterceptor {
+
+    private static final Pattern CHAT_TOPIC = Pattern.compile("^/topic/chat/(\\d+)$");
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final Counter droppedFrames;
+    private final Counter slowConsumerDisconnects;
+
+    // sessionId -> (subscriptionId -> eventId)
+    private final Map<String, Map<String, Long>> chatSubscriptions = new HashMap<>();
+    private final Map<Long, ChatTopicGauge> chatTopics = new HashMap<>();
+
+    public WebSocketMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("app.websocket.sessions", activeSessions, AtomicInteger::get)
+                .description("Active STOMP sessions")
+                .register(meterRegistry);
+        this.droppedFrames = Counter.builder("app.websocket.frames.dropped")
+                .description("MESSAGE frames dropped because the session send buffer was full")
+                .register(meterRegistry);
+        this.slowConsumerDisconnects = Counter.builder("app.websocket.sessions.slow.closed")
+                .description("Sessions closed for exceeding the send time or buffer limit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        if (type == null) return message;
+
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        switch (type) {
+            case CONNECT -> onConnect(sessionId);
+            case SUBSCRIBE -> onSubscribe(sessionId,
+                    SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders()),
+                    SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+            case UNSUBSCRIBE -> onUnsubscribe(sessionId,
+                    SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders()));
+            case DISCONNECT -> onDisconnect(sessionId);
+            default -> {
+                // MESSAGE, HEARTBEAT и остальные кадры на счётчики не влияют
+            }
+        }
+        return message;
+    }
+
+    public void frameDropped() {
+        droppedFrames.increment();
+    }
+
+    public void slowConsumerDisconnected() {
+        slowConsumerDisconnects.increment();
+    }
+
+    public long getDroppedFrames() {
+        return (long) droppedFrames.count();
+    }
+
+    public long getSlowConsumerDisconnects() {
+        return (long) slowConsumerDisconnects.count();
+    }
+
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    public synchronized int getChatSubscribers(Long eventId) {
+        ChatTopicGauge topic = chatTopics.get(eventId);
+        return topic == null ? 0 : topic.subscribers.get();
+    }
+
+    private synchronized void onConnect(String sessionId) {
+        if (sessionId != null && chatSubscriptions.putIfAbsent(sessionId, new HashMap<>()) == null) {
+            activeSessions.incrementAndGet();
+        }
+    }
+
+    private synchronized void onSubscribe(String sessionId, String subscriptionId, String destination) {
+        if (sessionId == null || subscriptionId == null || destination == null) return;
+
+        Matcher matcher = CHAT_TOPIC.matcher(destination);
+        if (!matcher.matches()) return;
+
+        Map<String, Long> subscriptions = chatSubscriptions.get(sessionId);
+        if (subscriptions == null) return; // Сессия уже закрыта
+        Long eventId = Long.valueOf(matcher.group(1));
+
+        if (subscriptions.putIfAbsent(subscriptionId, eventId) == null) {
+            chatTopics.computeIfAbsent(eventId, this::registerTopic).subscribers.incrementAndGet();
+        }
+    }
+
+    private synchronized void onUnsubscribe(String sessionId, String subscriptionId) {
+        Map<String, Long> subscriptions = sessionId == null ? null : chatSubscriptions.get(sessionId);
+        if (subscriptions == null || subscriptionId == null) return;
+
+        Long eventId = subscriptions.remove(subscriptionId);
+        if (eventId != null) {
+            release(eventId);
+        }
+    }
+
+    private synchronized void onDisconnect(String sessionId) {
+        // DISCONNECT может прийти дважды: от клиента и при закрытии соединения
+        Map<String, Long> subscriptions = sessionId == null ? null : chatSubscriptions.remove(sessionId);
+        if (subscriptions == null) return;
+
+        activeSessions.decrementAndGet();
+        subscriptions.values().forEach(this::release);
+    }
+
+    private void release(Long eventId) {
+        ChatTopicGauge topic = chatTopics.get(eventId);
+        if (topic != null && topic.subscribers.decrementAndGet() <= 0) {
+            chatTopics.remove(eventId);
+            meterRegistry.remove(topic.gauge);
+        }
+    }
+
+    private ChatTopicGauge registerTopic(Long eventId) {
+        AtomicInteger subscribers = new AtomicInteger();
+        Gauge gauge = Gauge.builder("app.websocket.chat.subscribers", subscribers, AtomicInteger::get)
+                .description("STOMP subscriptions to the chat topic of an event")
+                .tag("eventId", String.valueOf(eventId))
+                .register(meterRegistry);
+        return new ChatTopicGauge(subscribers, gauge);
+    }
+
+    private record ChatTopicGauge(AtomicInteger subscribers, Gauge gauge) {
+    }
+}
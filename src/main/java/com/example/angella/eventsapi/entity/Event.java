@@ -8,6 +8,34 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+// Планы загрузки по сценариям: каждый тянет только то, что показывает его потребитель.
+// Комментарии, сообщения чата и задачи в них не входят, они загружаются своими сервисами.
+@NamedEntityGraph(name = Event.REST_GRAPH, attributeNodes = {
+        @NamedAttributeNode("categories"),
+        @NamedAttributeNode("location"),
+        @NamedAttributeNode("creator")
+})
+@NamedEntityGraph(name = Event.REST_PAGE_GRAPH, attributeNodes = {
+        @NamedAttributeNode("location"),
+        @NamedAttributeNode("creator")
+})
+@NamedEntityGraph(name = Event.CARD_GRAPH, attributeNodes = {
+        @NamedAttributeNode("categories"),
+        @NamedAttributeNode("location"),
+        @NamedAttributeNode("creator"),
+        @NamedAttributeNode("participants")
+})
+@NamedEntityGraph(name = Event.DETAIL_GRAPH, attributeNodes = {
+        @NamedAttributeNode("categories"),
+        @NamedAttributeNode("location"),
+        @NamedAttributeNode("creator"),
+        @NamedAttributeNode(value = "participants", subgraph = "participants")
+}, subgraphs = @NamedSubgraph(name = "participants", attributeNodes = @NamedAttributeNode("avatar")))
+@NamedEntityGraph(name = Event.ADMIN_GRAPH, attributeNodes = {
+        @NamedAttributeNode("location"),
+        @NamedAttributeNode("creator"),
+        @NamedAttributeNode("participants")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @Setter
@@ -15,6 +43,18 @@ import java.util.Set;
 @ToString
 public class Event extends BaseEntity {
 
+    // REST EventDto: категории, место, создатель
+    public static final String REST_GRAPH = "Event.rest";
+    // Постраничный REST-фильтр: без коллекций, иначе Hibernate режет страницу в памяти (HHH90003004);
+    // категории догружаются пачками по default_batch_fetch_size
+    public static final String REST_PAGE_GRAPH = "Event.restPage";
+    // Карточки в списках страниц: плюс участники для счётчика
+    public static final String CARD_GRAPH = "Event.card";
+    // Страница мероприятия и комната чата: участники с аватарами для списка и проверки доступа
+    public static final String DETAIL_GRAPH = "Event.detail";
+    // Таблица мероприятий в админке
+    public static final String ADMIN_GRAPH = "Event.admin";
+
     @Column(nullable = false)
     private String name;
 
@@ -0,0 +1,29 @@
+package com.example.angella.eventsapi.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Поисковый документ мероприятия: колонка search_vector таблицы event, которую генерирует БД
+ * из названия и описания (changeSet add-event-search-vector). Вынесена в отдельную read-only сущность,
+ * чтобы tsvector не читался при каждой загрузке Event; используется только в условиях поиска.
+ */
+@Entity
+@Table(name = "event")
+@Immutable
+@Getter
+@NoArgsConstructor
+public class EventSearchDocument {
+
+    @Id
+    private Long id;
+
+    @Column(name = "search_vector", insertable = false, updatable = false)
+    private String searchVector;
+
+}
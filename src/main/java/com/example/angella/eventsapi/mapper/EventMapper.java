@@ -2,6 +2,7 @@ package com.example.angella.eventsapi.mapper;
 
 import com.example.angella.eventsapi.entity.Category;
 import com.example.angella.eventsapi.entity.Event;
+import com.example.angella.eventsapi.model.EventRow;
 import com.example.angella.eventsapi.web.dto.CreateEventRequest;
 import com.example.angella.eventsapi.web.dto.EventDto;
 import com.example.angella.eventsapi.web.dto.UpdateEventRequest;
@@ -38,6 +39,19 @@ public interface EventMapper {
 
     List<EventDto> toDtoList(List<Event> events);
 
+    // Категории и роли создателя приходят отдельными запросами, их заполняет EventReadService
+    @Mapping(target = "location.id", source = "locationId")
+    @Mapping(target = "location.city", source = "city")
+    @Mapping(target = "location.street", source = "street")
+    @Mapping(target = "creator.id", source = "creatorId")
+    @Mapping(target = "creator.username", source = "creatorUsername")
+    @Mapping(target = "creator.email", source = "creatorEmail")
+    @Mapping(target = "creator.firstName", source = "creatorFirstName")
+    @Mapping(target = "creator.lastName", source = "creatorLastName")
+    @Mapping(target = "creator.roles", ignore = true)
+    @Mapping(target = "categories", ignore = true)
+    EventDto toDto(EventRow row);
+
     @IterableMapping(qualifiedByName = "mapToCategory")
     Set<Category> mapToCategories(Set<String> categories);
 
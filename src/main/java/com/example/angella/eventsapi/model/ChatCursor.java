@@ -0,0 +1,44 @@
+package com.example.angella.eventsapi.model;
+
+import com.example.angella.eventsapi.exception.ClientException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Непрозрачный курсор истории чата: направление и id сообщения-границы,
+ * закодированные в base64url. Клиент передает его обратно без разбора.
+ */
+public record ChatCursor(Direction direction, long messageId) {
+
+    public enum Direction { BEFORE, AFTER }
+
+    public static ChatCursor before(long messageId) {
+        return new ChatCursor(Direction.BEFORE, messageId);
+    }
+
+    public static ChatCursor after(long messageId) {
+        return new ChatCursor(Direction.AFTER, messageId);
+    }
+
+    public String encode() {
+        String raw = (direction == Direction.BEFORE ? "b:" : "a:") + messageId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ChatCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            long messageId = Long.parseLong(raw.substring(2));
+            if (raw.startsWith("b:")) {
+                return before(messageId);
+            }
+            if (raw.startsWith("a:")) {
+                return after(messageId);
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            // Падаем в общее исключение ниже
+        }
+        throw new ClientException("Invalid chat cursor: " + cursor);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.angella.eventsapi.model;
+
+import com.example.angella.eventsapi.entity.ChatMessage;
+
+import java.util.List;
+
+/**
+ * Окно истории чата, сообщения от новых к старым.
+ * olderCursor == null означает, что более старых сообщений нет.
+ */
+public record ChatHistorySlice(List<ChatMessage> messages, ChatCursor olderCursor, ChatCursor newerCursor) {
+}
@@ -0,0 +1,4 @@
+package com.example.angella.eventsapi.model;
+
+public record CityPopularity(String city, Long eventCount) {
+}
@@ -0,0 +1,4 @@
+package com.example.angella.eventsapi.model;
+
+public record EventCategoryRow(Long eventId, Long categoryId, String categoryName) {
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Sort;
 
 import java.time.LocalDate;
 import java.util.Set;
@@ -12,7 +13,7 @@ import java.util.Set;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class EventFilterModel {
 
     @NotNull(message = "Page must be set!")
@@ -23,6 +24,11 @@ public class EventFilterModel {
 
     private String name;
 
+    // Полнотекстовый поиск по названию и описанию, слова ищутся по префиксу
+    private String search;
+
+    private Boolean upcomingOnly;
+
     private LocalDate startTime;
 
     private LocalDate endTime;
@@ -33,4 +39,7 @@ public class EventFilterModel {
 
     private Set<Long> categoryIds;
 
+    @Builder.Default
+    private Sort.Direction sortDirection = Sort.Direction.ASC;
+
 }
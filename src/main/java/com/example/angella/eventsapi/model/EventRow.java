@@ -0,0 +1,12 @@
+package com.example.angella.eventsapi.model;
+
+import java.time.Instant;
+
+/**
+ * Плоская строка события для REST-модели чтения: событие, место и создатель одним join.
+ */
+public record EventRow(Long id, String name, Instant startTime, Instant endTime, String description,
+                       Long locationId, String city, String street,
+                       Long creatorId, String creatorUsername, String creatorEmail,
+                       String creatorFirstName, String creatorLastName) {
+}
@@ -8,6 +8,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 @Data
 @NoArgsConstructor
@@ -29,4 +30,8 @@ public class PageModel {
         return PageRequest.of(number, size);
     }
 
+    public PageRequest toPageRequest(Sort sort) {
+        return PageRequest.of(number, size, sort);
+    }
+
 }
@@ -0,0 +1,51 @@
+package com.example.angella.eventsapi.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+
+@Value
+@Builder
+public class StatisticsSnapshot {
+
+    long totalUsers;
+    long totalEvents;
+    long upcomingEvents;
+    long totalCategories;
+    long totalParticipations;
+    long totalComments;
+    long totalChatMessages;
+    long eventsWithChats;
+    long totalTasks;
+    long completedTasks;
+    long totalChecklistItems;
+    long completedChecklistItems;
+    List<CategoryCount> popularCategories;
+    Instant generatedAt;
+
+    public int getAverageParticipantsPerEvent() {
+        return totalEvents == 0 ? 0 : (int) (totalParticipations / totalEvents); // Целочисленное среднее
+    }
+
+    public int getCompletedTasksPercentage() {
+        return percentage(completedTasks, totalTasks);
+    }
+
+    public int getCompletedChecklistItemsPercentage() {
+        return percentage(completedChecklistItems, totalChecklistItems);
+    }
+
+    public double getMessagesPerUser() {
+        if (totalUsers == 0) return 0.0;
+        return Math.round(((double) totalChatMessages / totalUsers) * 100.0) / 100.0;
+    }
+
+    private static int percentage(long part, long total) {
+        return total == 0 ? 0 : (int) ((part * 100) / total);
+    }
+
+    public record CategoryCount(String name, long eventCount) {
+    }
+}
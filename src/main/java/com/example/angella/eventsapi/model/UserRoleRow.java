@@ -0,0 +1,6 @@
+package com.example.angella.eventsapi.model;
+
+import com.example.angella.eventsapi.entity.Role;
+
+public record UserRoleRow(Long userId, Role role) {
+}
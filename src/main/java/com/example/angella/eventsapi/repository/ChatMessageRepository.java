@@ -3,11 +3,24 @@ package com.example.angella.eventsapi.repository;
 import com.example.angella.eventsapi.entity.ChatMessage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
     Page<ChatMessage> findAllByEventId(Long eventId, Pageable pageable);
     boolean existsByIdAndEventIdAndAuthorId(Long id, Long eventId, Long authorId);
 
     boolean existsByIdAndAuthorId(Long messageId, Long userId);
+
+    // Keyset-пагинация истории: без COUNT, стоимость страницы не зависит от глубины
+    @EntityGraph(attributePaths = {"author"})
+    List<ChatMessage> findByEventIdOrderByIdDesc(Long eventId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"author"})
+    List<ChatMessage> findByEventIdAndIdLessThanOrderByIdDesc(Long eventId, Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"author"})
+    List<ChatMessage> findByEventIdAndIdGreaterThanOrderByIdAsc(Long eventId, Long id, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.example.angella.eventsapi.repository;
+
+import com.example.angella.eventsapi.entity.Event;
+import com.example.angella.eventsapi.model.EventCategoryRow;
+import com.example.angella.eventsapi.model.EventRow;
+import com.example.angella.eventsapi.model.UserRoleRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Запросы модели чтения публичного REST API. Все методы возвращают проекции,
+ * управляемые сущности в контекст персистентности не попадают.
+ */
+public interface EventReadRepository extends Repository<Event, Long> {
+
+    String EVENT_ROW_SELECT = "SELECT new com.example.angella.eventsapi.model.EventRow(" +
+            "e.id, e.name, e.startTime, e.endTime, e.description, " +
+            "l.id, l.city, l.street, " +
+            "u.id, u.username, u.email, u.firstName, u.lastName) " +
+            "FROM Event e JOIN e.location l JOIN e.creator u ";
+
+    String CATEGORY_ROW_SELECT = "SELECT new com.example.angella.eventsapi.model.EventCategoryRow(" +
+            "e.id, c.id, c.name) FROM Event e JOIN e.categories c ";
+
+    // Размер выборки при потоковом экспорте: драйвер PostgreSQL читает курсором только внутри транзакции
+    String EXPORT_FETCH_SIZE = "500";
+
+    @Query(value = EVENT_ROW_SELECT + "ORDER BY e.id",
+            countQuery = "SELECT count(e) FROM Event e JOIN e.location JOIN e.creator")
+    Page<EventRow> findRows(Pageable pageable);
+
+    @Query(EVENT_ROW_SELECT + "ORDER BY e.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    Stream<EventRow> streamAllRows();
+
+    @Query(EVENT_ROW_SELECT + "WHERE e.id = :id")
+    Optional<EventRow> findRowById(@Param("id") Long id);
+
+    @Query(CATEGORY_ROW_SELECT + "WHERE e.id IN :eventIds")
+    List<EventCategoryRow> findCategoryRows(@Param("eventIds") Collection<Long> eventIds);
+
+    @Query("SELECT new com.example.angella.eventsapi.model.UserRoleRow(u.id, r) " +
+            "FROM User u JOIN u.roles r WHERE u.id IN :userIds")
+    List<UserRoleRow> findRoleRows(@Param("userIds") Collection<Long> userIds);
+}
@@ -2,6 +2,8 @@ package com.example.angella.eventsapi.repository;
 
 import com.example.angella.eventsapi.entity.Category;
 import com.example.angella.eventsapi.entity.Event;
+import com.example.angella.eventsapi.model.CityPopularity;
+import com.example.angella.eventsapi.web.dto.EventCardDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -19,35 +21,60 @@ import java.util.Set;
 
 public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event> {
 
-    @EntityGraph(attributePaths = {"creator", "categories", "description", "location","creator.roles", "participants"})
+    @EntityGraph(Event.DETAIL_GRAPH)
     @Query("SELECT e FROM Event e WHERE e.id = :id")
     Optional<Event> findByIdWithRelations(@Param("id") Long id);
 
     @Override
-    @EntityGraph(attributePaths = {"categories", "location", "description", "creator", "participants"})
+    @EntityGraph(Event.REST_PAGE_GRAPH)
     Page<Event> findAll(Specification<Event> spec, Pageable pageable);
 
     @Override
-    @EntityGraph(attributePaths = {"categories", "location", "description", "creator", "participants"})
+    @EntityGraph(Event.REST_GRAPH)
     List<Event> findAll();
 
     @Override
-    @EntityGraph(attributePaths = {"categories", "location", "description", "creator", "participants"})
+    @EntityGraph(Event.REST_GRAPH)
     Optional<Event> findById(Long id);
 
-    @EntityGraph(attributePaths = {"categories", "location", "description", "creator", "participants"})
+    @EntityGraph(Event.ADMIN_GRAPH)
     @Query("SELECT e FROM Event e ORDER BY e.startTime DESC")
-    List<Event> findAllOrderByStartTimeDesc();
-
-    @EntityGraph(attributePaths = {"categories", "location", "description", "creator", "participants"})
-    @Query("SELECT e FROM Event e ORDER BY e.startTime ASC")
-    List<Event> findAllOrderByStartTimeAsc();
-
-    @EntityGraph(attributePaths = {"categories", "location", "description", "creator", "participants"})
+    List<Event> findAllForAdmin();
+
+    // Подзапрос вместо join по участникам: граф должен загрузить всех участников, а не только найденного
+    @EntityGraph(Event.CARD_GRAPH)
+    @Query("SELECT e FROM Event e WHERE e.id IN " +
+            "(SELECT pe.id FROM Event pe JOIN pe.participants p WHERE p.id = :userId)")
+    List<Event> findAllByParticipantId(@Param("userId") Long userId);
+
+    @EntityGraph(Event.CARD_GRAPH)
+    @Query("SELECT e FROM Event e WHERE e.startTime > :currentTime AND e.id IN " +
+            "(SELECT pe.id FROM Event pe JOIN pe.participants p WHERE p.id = :userId)")
+    List<Event> findUpcomingByParticipantId(@Param("userId") Long userId, @Param("currentTime") Instant currentTime);
+
+    String EVENT_CARD_SELECT = "SELECT new com.example.angella.eventsapi.web.dto.EventCardDto(" +
+            "e.id, e.name, e.startTime, e.endTime, l.city, l.street, " +
+            "(SELECT MIN(c.name) FROM Category c JOIN c.events ce WHERE ce.id = e.id), " +
+            "(SELECT COUNT(p) FROM Event pe JOIN pe.participants p WHERE pe.id = e.id), " +
+            "(SELECT i.filename FROM Image i WHERE i.id = " +
+            "(SELECT MIN(i2.id) FROM Image i2 WHERE i2.event.id = e.id))) " +
+            "FROM Event e JOIN e.location l ";
+
+    @Query(EVENT_CARD_SELECT + "WHERE e.startTime > :currentTime ORDER BY e.startTime ASC")
+    List<EventCardDto> findUpcomingEventCards(@Param("currentTime") Instant currentTime, Pageable pageable);
+
+    @Query(EVENT_CARD_SELECT + "WHERE e.startTime > :currentTime ORDER BY e.startTime DESC")
+    List<EventCardDto> findLatestUpcomingEventCards(@Param("currentTime") Instant currentTime, Pageable pageable);
+
+    // Keyset-пагинация по id: страница не зависит от смещения и не требует COUNT
+    @Query(EVENT_CARD_SELECT + "WHERE e.id > :afterId ORDER BY e.id ASC")
+    List<EventCardDto> findEventCardsAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    @EntityGraph(Event.CARD_GRAPH)
     @Query("SELECT e FROM Event e WHERE e.startTime > :currentTime ORDER BY e.startTime ASC")
     List<Event> findUpcomingEvents(@Param("currentTime") Instant currentTime);
 
-    @EntityGraph(attributePaths = {"categories", "location", "description", "creator", "participants"})
+    @EntityGraph(Event.CARD_GRAPH)
     @Query("SELECT e FROM Event e JOIN e.categories c WHERE c IN :categories ORDER BY e.startTime")
     List<Event> findByCategoriesOrderByStartTime(@Param("categories") Set<Category> categories);
 
@@ -56,17 +83,11 @@ public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecific
     boolean existsByIdAndCreatorId(Long eventId, Long userId);
 
     //Города
-    @Query("SELECT DISTINCT l.city FROM Location l ORDER BY l.city")
-    List<String> findAllDistinctCities();
-
-    @Query("SELECT DISTINCT l.city FROM Location l WHERE LOWER(l.city) LIKE LOWER(CONCAT('%', :search, '%')) ORDER BY l.city")
-    List<String> findDistinctCitiesBySearch(@Param("search") String search);
-
-    @Query("SELECT e FROM Event e LEFT JOIN FETCH e.participants")
-    List<Event> findAllWithParticipantsCount();
-
-    @Query("SELECT c.name, COUNT(e) FROM Category c LEFT JOIN c.events e GROUP BY c.id, c.name ORDER BY COUNT(e) DESC")
-    List<Object[]> findMostPopularCategories(@Param("limit") int limit);
+    // Словарь автодополнения городов: город и число мероприятий в нём
+    @Query("SELECT new com.example.angella.eventsapi.model.CityPopularity(l.city, COUNT(e)) " +
+            "FROM Location l LEFT JOIN Event e ON e.location = l " +
+            "WHERE l.city IS NOT NULL GROUP BY l.city")
+    List<CityPopularity> findCityPopularity();
 
     @Query("SELECT COUNT(e) FROM Event e WHERE e.startTime > :currentTime")
     long countByStartTimeAfter(@Param("currentTime") Instant currentTime);
@@ -4,6 +4,7 @@ import com.example.angella.eventsapi.entity.Image;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +14,13 @@ public interface ImageRepository extends JpaRepository<Image, Long> {
 
     List<Image> findByEventId(Long eventId);
 
+    @Query("SELECT i FROM Image i WHERE i.event.id IN :eventIds ORDER BY i.id")
+    List<Image> findAllByEventIdIn(@Param("eventIds") Collection<Long> eventIds);
+
+    @Query("SELECT i FROM Image i WHERE i.event.id IN :eventIds AND i.id = " +
+            "(SELECT MIN(i2.id) FROM Image i2 WHERE i2.event.id = i.event.id)")
+    List<Image> findMainImagesByEventIdIn(@Param("eventIds") Collection<Long> eventIds);
+
     List<Image> findByChatMessageId(Long chatMessageId);
 
     Optional<Image> findByFilename(String filename);
@@ -0,0 +1,52 @@
+package com.example.angella.eventsapi.repository;
+
+import com.example.angella.eventsapi.entity.Event;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+
+public interface StatisticsRepository extends Repository<Event, Long> {
+
+    // Все счётчики дашборда одним запросом
+    @Query(value = """
+            SELECT (SELECT COUNT(*) FROM usr) AS "totalUsers",
+                   (SELECT COUNT(*) FROM event) AS "totalEvents",
+                   (SELECT COUNT(*) FROM event WHERE start_time > now()) AS "upcomingEvents",
+                   (SELECT COUNT(*) FROM category) AS "totalCategories",
+                   (SELECT COUNT(*) FROM events_participants) AS "totalParticipations",
+                   (SELECT COUNT(*) FROM comment) AS "totalComments",
+                   (SELECT COUNT(*) FROM chat_message) AS "totalChatMessages",
+                   (SELECT COUNT(DISTINCT event_id) FROM chat_message) AS "eventsWithChats",
+                   (SELECT COUNT(*) FROM task) AS "totalTasks",
+                   (SELECT COUNT(*) FROM task WHERE completed) AS "completedTasks",
+                   (SELECT COUNT(*) FROM checklist_item) AS "totalChecklistItems",
+                   (SELECT COUNT(*) FROM checklist_item WHERE completed) AS "completedChecklistItems"
+            """, nativeQuery = true)
+    CountersView aggregateCounters();
+
+    @Query("SELECT c.name AS name, COUNT(e) AS eventCount FROM Category c LEFT JOIN c.events e " +
+            "GROUP BY c.id, c.name ORDER BY COUNT(e) DESC, c.name")
+    List<CategoryCountView> findMostPopularCategories(Pageable pageable);
+
+    interface CountersView {
+        long getTotalUsers();
+        long getTotalEvents();
+        long getUpcomingEvents();
+        long getTotalCategories();
+        long getTotalParticipations();
+        long getTotalComments();
+        long getTotalChatMessages();
+        long getEventsWithChats();
+        long getTotalTasks();
+        long getCompletedTasks();
+        long getTotalChecklistItems();
+        long getCompletedChecklistItems();
+    }
+
+    interface CategoryCountView {
+        String getName();
+        long getEventCount();
+    }
+}
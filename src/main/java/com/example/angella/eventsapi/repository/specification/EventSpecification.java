@@ -2,23 +2,35 @@ package com.example.angella.eventsapi.repository.specification;
 
 import com.example.angella.eventsapi.entity.Category;
 import com.example.angella.eventsapi.entity.Event;
+import com.example.angella.eventsapi.entity.EventSearchDocument;
 import com.example.angella.eventsapi.model.EventFilterModel;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
-import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.CollectionUtils;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Locale;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 public interface EventSpecification {
 
+    int MAX_SEARCH_TERMS = 8;
+
     static Specification<Event> withFilter(EventFilterModel filterModel) {
         return Specification.where(isEquals("id", filterModel.getId()))
                 .and(isEquals("name", filterModel.getName()))
-                .and(isEquals("location", "city", filterModel.getCity()))
+                .and(matchesSearch(filterModel.getSearch(), filterModel.getSortDirection()))
+                .and(startsAfterNow(filterModel.getUpcomingOnly()))
+                .and(cityEqualsIgnoreCase(filterModel.getCity()))
                 .and(isEquals("location", "street", filterModel.getStreet()))
                 .and(inCategories(filterModel.getCategoryIds()))
                 .and(isEquals(filterModel.getStartTime(), "startTime"))
@@ -43,8 +55,8 @@ public interface EventSpecification {
 
             return criteriaBuilder.between(
                     root.get(fieldName),
-                    date.atStartOfDay(ZoneOffset.UTC),          // Начало дня (00:00:00 UTC)
-                    date.atTime(23, 59, 59).atZone(ZoneOffset.UTC)  // Конец дня (23:59:59 UTC)
+                    date.atStartOfDay(ZoneOffset.UTC).toInstant(),          // Начало дня (00:00:00 UTC)
+                    date.atTime(23, 59, 59).atZone(ZoneOffset.UTC).toInstant()  // Конец дня (23:59:59 UTC)
             );
         };
     }
@@ -59,19 +71,97 @@ public interface EventSpecification {
         };
     }
 
+    private static Specification<Event> cityEqualsIgnoreCase(String city) {
+        return (root, query, criteriaBuilder) -> {
+            if (city == null) {
+                return null;
+            }
+
+            // Город вводится вручную: "москва" и "Москва" - один и тот же город
+            return criteriaBuilder.equal(
+                    criteriaBuilder.lower(root.get("location").get("city")),
+                    city.toLowerCase(Locale.ROOT)
+            );
+        };
+    }
+
+    /**
+     * Полнотекстовый поиск по названию и описанию через search_vector (GIN-индекс).
+     * Каждое слово ищется как префикс, морфология русская и английская.
+     * Результаты упорядочены по релевантности, затем по дате начала; сортировка из Pageable,
+     * если задана, заменяет этот порядок.
+     */
+    private static Specification<Event> matchesSearch(String search, Sort.Direction direction) {
+        return (root, query, criteriaBuilder) -> {
+            String tsQuery = toPrefixTsQuery(search);
+            if (tsQuery == null) {
+                return null;
+            }
+
+            Root<EventSearchDocument> document = query.from(EventSearchDocument.class);
+            Expression<String> vector = document.get("searchVector");
+            Expression<String> queryText = criteriaBuilder.literal(tsQuery);
+
+            // В запросе COUNT сортировка не нужна и не допускается
+            if (!Long.class.equals(query.getResultType())) {
+                Expression<Float> rank = criteriaBuilder.function("fts_rank", Float.class, vector, queryText, queryText);
+                query.orderBy(
+                        criteriaBuilder.desc(rank),
+                        direction == Sort.Direction.DESC
+                                ? criteriaBuilder.desc(root.get("startTime"))
+                                : criteriaBuilder.asc(root.get("startTime"))
+                );
+            }
+
+            return criteriaBuilder.and(
+                    criteriaBuilder.equal(document.get("id"), root.get("id")),
+                    criteriaBuilder.isTrue(
+                            criteriaBuilder.function("fts_match", Boolean.class, vector, queryText, queryText))
+            );
+        };
+    }
+
+    /**
+     * "Рок концерты" -> "рок:* & концерты:*". Из запроса берутся только буквы и цифры,
+     * поэтому синтаксис tsquery из пользовательского ввода не проходит.
+     */
+    private static String toPrefixTsQuery(String search) {
+        if (search == null || search.isBlank()) {
+            return null;
+        }
+
+        String tsQuery = Arrays.stream(search.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .limit(MAX_SEARCH_TERMS)
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
+
+        return tsQuery.isEmpty() ? null : tsQuery;
+    }
+
+    private static Specification<Event> startsAfterNow(Boolean upcomingOnly) {
+        return (root, query, criteriaBuilder) -> {
+            if (!Boolean.TRUE.equals(upcomingOnly)) {
+                return null;
+            }
+
+            return criteriaBuilder.greaterThan(root.get("startTime"), Instant.now());
+        };
+    }
+
     private static Specification<Event> inCategories(Set<Long> categoryIds) {
         return (root, query, criteriaBuilder) -> {
             if (CollectionUtils.isEmpty(categoryIds)) {
                 return null;
             }
 
-            Join<Event, Category> categoryJoin = root.join("categories", JoinType.INNER);
-
-            Predicate[] predicates = categoryIds.stream()
-                    .map(categoryId -> criteriaBuilder.equal(categoryJoin.get("id"), categoryId))
-                    .toArray(Predicate[]::new);
+            // Подзапрос вместо join: без DISTINCT, который несовместим с сортировкой по релевантности
+            Subquery<Long> matching = query.subquery(Long.class);
+            Root<Event> event = matching.from(Event.class);
+            Join<Event, Category> categoryJoin = event.join("categories", JoinType.INNER);
+            matching.select(event.get("id")).where(categoryJoin.get("id").in(categoryIds));
 
-            return criteriaBuilder.or(predicates);
+            return root.get("id").in(matching);
         };
     }
 }
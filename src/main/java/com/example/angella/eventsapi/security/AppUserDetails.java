@@ -1,38 +1,52 @@
 package com.example.angella.eventsapi.security;
 
 import com.example.angella.eventsapi.entity.User;
-import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-@RequiredArgsConstructor
+/**
+ * Неизменяемый снимок пользователя для контекста безопасности: id, имя, хеш пароля и роли.
+ * Сущность User не хранится, поэтому объект можно держать в сессии и в {@link UserPrincipalCache}
+ * без ленивых коллекций и привязки к контексту персистентности.
+ */
 public class AppUserDetails implements UserDetails {
 
-    private final User user;
+    private final Long id;
+    private final String username;
+    private final String password;
+    private final Set<GrantedAuthority> authorities;
+
+    public AppUserDetails(User user) {
+        this.id = user.getId();
+        this.username = user.getUsername();
+        this.password = user.getPassword();
+        this.authorities = user.getRoles().stream()
+                .map(r -> new SimpleGrantedAuthority(r.name()))
+                .collect(Collectors.toUnmodifiableSet());
+    }
 
     public Long getId() {
-        return user.getId();
+        return id;
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return user.getRoles().stream()
-                .map(r -> new SimpleGrantedAuthority(r.name()))
-                .collect(Collectors.toSet());
+        return authorities;
     }
 
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return user.getUsername();
+        return username;
     }
 
     @Override
@@ -0,0 +1,117 @@
+package com.example.angella.eventsapi.security;
+
+import com.example.angella.eventsapi.exception.AccessDeniedException;
+import com.example.angella.eventsapi.service.EventAccessService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Аутентификация STOMP-сессии. На CONNECT пользователь из HTTP-рукопожатия разрешается один раз,
+ * его id кладётся в атрибуты WebSocket-сессии. SUBSCRIBE разрешён по белому списку: точные топики
+ * события /topic/{chat|tasks|checklist}/{id} - только его участникам (проверка через кэш
+ * EventAccessService), и личные очереди /user/queue/*. Остальные назначения, в том числе служебные
+ * топики relay-режима, отклоняются, как и символы шаблонов любого брокера (*, ?, {, #, >, .):
+ * простой брокер понимает подписку как Ant-шаблон, RabbitMQ и Artemis - как свои шаблоны,
+ * и /topic/# получал бы сообщения всех комнат.
+ * Кадры SEND читают id из атрибутов сессии и к БД за пользователем не ходят.
+ * <p>
+ * Регистрируется первым перехватчиком входящего канала: отклонённая подписка
+ * не доходит ни до брокера, ни до счётчиков WebSocketMetrics.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    public static final String USER_ID_ATTRIBUTE = "userId";
+
+    private static final Pattern EVENT_TOPIC = Pattern.compile("/topic/(?:chat|tasks|checklist)/(\\d+)");
+    private static final Pattern USER_QUEUE = Pattern.compile("/user/queue/[A-Za-z0-9-]+");
+    private static final String BROKER_WILDCARDS = "*?{}#>.";
+
+    private final UserDetailsServiceImpl userDetailsService;
+    private final EventAccessService eventAccessService;
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        if (type == SimpMessageType.CONNECT) {
+            onConnect(message);
+        } else if (type == SimpMessageType.SUBSCRIBE) {
+            onSubscribe(message);
+        }
+        return message;
+    }
+
+    /**
+     * id пользователя, сохранённый при CONNECT, или null для анонимной сессии.
+     */
+    public static Long getUserId(SimpMessageHeaderAccessor accessor) {
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        return attributes == null ? null : (Long) attributes.get(USER_ID_ATTRIBUTE);
+    }
+
+    private void onConnect(Message<?> message) {
+        Map<String, Object> attributes = SimpMessageHeaderAccessor.getSessionAttributes(message.getHeaders());
+        Principal user = SimpMessageHeaderAccessor.getUser(message.getHeaders());
+        if (attributes == null || user == null) return; // Анонимная сессия: чат ей недоступен
+
+        AppUserDetails details = resolve(user);
+        attributes.put(USER_ID_ATTRIBUTE, details.getId());
+    }
+
+    private void onSubscribe(Message<?> message) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null) {
+            throw new AccessDeniedException("Subscription destination is required");
+        }
+        if (hasBrokerWildcard(destination)) {
+            throw new AccessDeniedException("Subscription to destination patterns is not allowed");
+        }
+        // Личные очереди: UserDestinationMessageHandler сам подставляет в них id сессии
+        if (USER_QUEUE.matcher(destination).matches()) return;
+
+        // Всё остальное - только точный топик события; /topic/simp-user-registry и прочие служебные
+        // топики relay-режима, /queue/** и любые другие назначения отклоняются
+        Matcher eventTopic = EVENT_TOPIC.matcher(destination);
+        if (!eventTopic.matches()) {
+            throw new AccessDeniedException("Subscription to " + destination + " is not allowed");
+        }
+
+        Long userId = getUserId(SimpMessageHeaderAccessor.wrap(message));
+        if (userId == null) {
+            throw new AccessDeniedException("Only authenticated users can subscribe to event topics");
+        }
+
+        Long eventId = Long.valueOf(eventTopic.group(1));
+        if (!eventAccessService.hasParticipant(eventId, userId)) {
+            throw new AccessDeniedException("Only event participants can subscribe to event topics");
+        }
+    }
+
+    // Ant-шаблоны простого брокера (*, ?, {), # и > у RabbitMQ и Artemis, . как разделитель их сегментов
+    private static boolean hasBrokerWildcard(String destination) {
+        return destination.chars().anyMatch(c -> BROKER_WILDCARDS.indexOf(c) >= 0);
+    }
+
+    private AppUserDetails resolve(Principal user) {
+        // Пользователь уже загружен при аутентификации HTTP-сессии
+        if (user instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof AppUserDetails details) {
+            return details;
+        }
+        // Иное представление принципала: снимок пользователя из кэша, БД только при промахе
+        return userDetailsService.loadPrincipal(user.getName());
+    }
+}
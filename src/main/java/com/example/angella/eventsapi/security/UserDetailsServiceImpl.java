@@ -1,6 +1,5 @@
 package com.example.angella.eventsapi.security;
 
-import com.example.angella.eventsapi.entity.User;
 import com.example.angella.eventsapi.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,11 +13,17 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserService userService;
+    private final UserPrincipalCache userPrincipalCache;
 
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userService.findByUsername(username);
-        return new AppUserDetails(user); // передаем User в конструктор
+        return loadPrincipal(username);
+    }
+
+    // Снимок пользователя из кэша; из БД только при первом обращении или после сброса
+    @Transactional(readOnly = true)
+    public AppUserDetails loadPrincipal(String username) {
+        return userPrincipalCache.get(username, name -> new AppUserDetails(userService.findByUsername(name)));
     }
 }
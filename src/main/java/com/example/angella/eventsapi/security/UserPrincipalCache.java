@@ -0,0 +1,44 @@
+package com.example.angella.eventsapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import static com.example.angella.eventsapi.utils.TransactionUtils.evictNowAndAfterCompletion;
+
+/**
+ * Кэш {@link AppUserDetails} по имени пользователя. Через него идут вход по паролю, remember-me
+ * и разрешение имени из STOMP-сессии. UserService сбрасывает запись при смене ролей,
+ * изменении и удалении пользователя.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final Cache<String, AppUserDetails> principals;
+
+    public UserPrincipalCache(@Value("${app.cache.principals.max-size:10000}") long maxSize,
+                              @Value("${app.cache.principals.ttl:10m}") Duration ttl) {
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public AppUserDetails get(String username, Function<String, AppUserDetails> loader) {
+        return principals.get(username, loader);
+    }
+
+    public void evict(String username) {
+        evictNowAndAfterCompletion(() -> principals.invalidate(username));
+    }
+
+    public CacheStats getStats() {
+        return principals.stats();
+    }
+}
@@ -3,23 +3,40 @@ package com.example.angella.eventsapi.service;
 import com.example.angella.eventsapi.entity.Category;
 import com.example.angella.eventsapi.exception.EntityNotFoundException;
 import com.example.angella.eventsapi.repository.CategoryRepository;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.text.MessageFormat;
+import java.time.Duration;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static com.example.angella.eventsapi.utils.TransactionUtils.evictNowAndAfterCompletion;
+
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
 
+    // Список категорий выводится почти на каждой странице; меняется только при создании новых категорий
+    private final LoadingCache<Boolean, List<Category>> allCategories;
+
+    public CategoryService(CategoryRepository categoryRepository,
+                           @Value("${app.cache.categories.ttl:10m}") Duration ttl) {
+        this.categoryRepository = categoryRepository;
+        this.allCategories = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(key -> loadAll());
+    }
+
     public Category findById(Long id) {
         return categoryRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(
@@ -27,8 +44,16 @@ public class CategoryService {
                 ));
     }
 
+    /**
+     * Общий для всех запросов неизменяемый список. Категории в нём - копии без связи с мероприятиями,
+     * чтобы обращение к events не подгружало мероприятия в разделяемый объект.
+     */
     public List<Category> findAll() {
-        return categoryRepository.findAll();
+        return allCategories.get(Boolean.TRUE);
+    }
+
+    public CacheStats getCacheStats() {
+        return allCategories.stats();
     }
 
     public Set<Category> upsertCategories(Set<Category> categories) {
@@ -48,6 +73,7 @@ public class CategoryService {
         if (!categoriesForUpdate.isEmpty()) {
             log.info("Creating new categories: {}",
                     categoriesForUpdate.stream().map(Category::getName).collect(Collectors.toList()));
+            evictNowAndAfterCompletion(allCategories::invalidateAll);
         }
 
         return Stream.concat(existedCategories.stream(),
@@ -55,6 +81,17 @@ public class CategoryService {
                 .collect(Collectors.toSet());
     }
 
+    private List<Category> loadAll() {
+        return categoryRepository.findAll().stream()
+                .map(category -> {
+                    Category copy = new Category();
+                    copy.setId(category.getId());
+                    copy.setName(category.getName());
+                    return copy;
+                })
+                .toList();
+    }
+
     public Long getTotalCategoriesCount() {
         return categoryRepository.count();
     }
@@ -0,0 +1,384 @@
+package com.example.angella.eventsapi.service;
+
+import com.example.angella.eventsapi.exception.AccessDeniedException;
+import com.example.angella.eventsapi.exception.ServerException;
+import com.example.angella.eventsapi.mapper.ChatMessageMapper;
+import com.example.angella.eventsapi.web.dto.ChatMessageDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Приём сообщений чата из WebSocket.
+ * В режиме ASYNC сообщение сразу рассылается подписчикам, а в БД попадает
+ * через ограниченную очередь пакетными INSERT (write-behind). Id выдаётся заранее
+ * из блока, зарезервированного одним nextval (последовательность идёт с шагом INCREMENT BY),
+ * поэтому на горячем пути обращения к БД нет, пока блок не исчерпан. Узлы берут разные блоки,
+ * и между узлами порядок id в пределах блока может расходиться со временем отправки.
+ * В режиме SYNC сохраняется прежнее поведение: запись в БД до рассылки.
+ * <p>
+ * Очередь живёт в памяти узла: при падении или перезапуске процесса незаписанные сообщения
+ * теряются при любой {@link Durability}, доставка в БД - best effort.
+ */
+@Service
+@Slf4j
+public class ChatIngestionService {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO chat_message (id, content, edited, event_id, user_id, created_at, updated_at)
+            VALUES (?, ?, false, ?, ?, ?, ?)
+            """;
+
+    // Та же последовательность bigserial, что и при вставке через JPA: nextval резервирует
+    // блок [value, value + шаг), сам шаг читается из pg_sequence, а не дублируется в настройках
+    private static final String NEXT_ID_BLOCK_SQL = """
+            SELECT nextval(seq::regclass), (SELECT seqincrement FROM pg_sequence WHERE seqrelid = seq::regclass)
+            FROM pg_get_serial_sequence('chat_message', 'id') AS seq
+            """;
+
+    public enum Mode { SYNC, ASYNC }
+
+    public enum Backpressure { BLOCK, REJECT, CALLER_RUNS }
+
+    /**
+     * Что делать с пакетом, который не удалось записать. Оба режима держат сообщения только в памяти.
+     * <ul>
+     *     <li>BEST_EFFORT - пакет отбрасывается после первой неудачи;</li>
+     *     <li>RETRY_IN_MEMORY - до max-retries повторов, затем пакет возвращается в голову очереди
+     *     и ждёт следующего цикла записи.</li>
+     * </ul>
+     */
+    public enum Durability { BEST_EFFORT, RETRY_IN_MEMORY }
+
+    private final ChatService chatService;
+    private final EventAccessService eventAccessService;
+    private final ChatMessageMapper chatMessageMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Mode mode;
+    private final Backpressure backpressure;
+    private final Durability durability;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration offerTimeout;
+    private final int maxRetries;
+
+    private final BlockingDeque<PendingMessage> queue;
+    // Одновременно пишет только один поток: фоновый флашер либо явный flush()
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Semaphore signal = new Semaphore(0);
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Текущий блок id: [nextId, idBlockEnd)
+    private final Object idLock = new Object();
+    private long nextId;
+    private long idBlockEnd;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public ChatIngestionService(ChatService chatService,
+                                EventAccessService eventAccessService,
+                                ChatMessageMapper chatMessageMapper,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.chat.ingestion.mode:ASYNC}") Mode mode,
+                                @Value("${app.chat.ingestion.queue-capacity:10000}") int queueCapacity,
+                                @Value("${app.chat.ingestion.batch-size:200}") int batchSize,
+                                @Value("${app.chat.ingestion.flush-interval:200ms}") Duration flushInterval,
+                                @Value("${app.chat.ingestion.backpressure:BLOCK}") Backpressure backpressure,
+                                @Value("${app.chat.ingestion.offer-timeout:500ms}") Duration offerTimeout,
+                                @Value("${app.chat.ingestion.durability:RETRY_IN_MEMORY}") Durability durability,
+                                @Value("${app.chat.ingestion.max-retries:3}") int maxRetries) {
+        this.chatService = chatService;
+        this.eventAccessService = eventAccessService;
+        this.chatMessageMapper = chatMessageMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+        this.mode = mode;
+        this.queue = new LinkedBlockingDeque<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.backpressure = backpressure;
+        this.offerTimeout = offerTimeout;
+        this.durability = durability;
+        this.maxRetries = maxRetries;
+    }
+
+    @PostConstruct
+    void start() {
+        if (mode != Mode.ASYNC) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "chat-ingestion-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        flusher.interrupt();
+        flusher.join(flushInterval.multipliedBy(10).toMillis());
+        // Дописываем всё, что осталось в очереди на момент остановки
+        flush();
+        if (!queue.isEmpty()) {
+            log.error("Chat ingestion stopped with {} unsaved messages", queue.size());
+        }
+    }
+
+    /**
+     * Принимает сообщение от участника события и возвращает DTO для рассылки.
+     * В режиме ASYNC id в DTO уже присвоен, но строка появится в БД только после записи пакета.
+     */
+    public ChatMessageDto accept(Long eventId, Long userId, String username,
+                                 String content, String clientMessageId) {
+        if (mode == Mode.SYNC) {
+            ChatMessageDto dto = chatMessageMapper.toDto(chatService.createMessage(content, eventId, userId));
+            dto.setClientMessageId(clientMessageId);
+            return dto;
+        }
+
+        // Проверка членства из кэша, без обращения к БД на горячем пути
+        if (!eventAccessService.hasParticipant(eventId, userId)) {
+            throw new AccessDeniedException("Only event participants can post messages");
+        }
+
+        long id = nextId();
+        Instant now = Instant.now();
+        enqueue(new PendingMessage(id, eventId, userId, content, now));
+
+        ChatMessageDto dto = new ChatMessageDto();
+        dto.setId(id);
+        dto.setContent(content);
+        dto.setAuthor(username);
+        dto.setCreatedAt(now);
+        dto.setEdited(false);
+        dto.setImages(List.of());
+        dto.setClientMessageId(clientMessageId);
+        return dto;
+    }
+
+    /**
+     * Синхронно записывает все сообщения, находящиеся в очереди.
+     * Сообщения извлекаются из очереди только под блокировкой, поэтому после возврата
+     * все принятые ранее сообщения записаны, отброшены по правилам durability
+     * либо, если БД так и не ответила, снова лежат в голове очереди.
+     */
+    public void flush() {
+        int attempts = durability == Durability.RETRY_IN_MEMORY ? maxRetries + 1 : 1;
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            if (drainQueue()) {
+                return;
+            }
+            if (attempt < attempts) {
+                // Пауза вне блокировки: CALLER_RUNS и явный flush() не ждут, пока БД придёт в себя
+                pause(flushInterval.multipliedBy(attempt));
+            }
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.get();
+    }
+
+    public long getPersistedCount() {
+        return persisted.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // Возвращает false, если БД недоступна: недописанный пакет уже вернулся в голову очереди
+    private boolean drainQueue() {
+        flushLock.lock();
+        try {
+            List<PendingMessage> batch = new ArrayList<>();
+            while (queue.drainTo(batch, batchSize) > 0) {
+                if (!write(batch)) {
+                    requeue(batch);
+                    return false;
+                }
+                batch.clear();
+            }
+            return true;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private long nextId() {
+        synchronized (idLock) {
+            if (nextId >= idBlockEnd) {
+                // Один запрос к БД на блок; с шагом 1 (до миграции) блок вырождается в один id
+                long[] block = jdbcTemplate.queryForObject(NEXT_ID_BLOCK_SQL,
+                        (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)});
+                nextId = block[0];
+                idBlockEnd = block[0] + Math.max(1, block[1]);
+            }
+            return nextId++;
+        }
+    }
+
+    private void enqueue(PendingMessage message) {
+        boolean queued = switch (backpressure) {
+            case REJECT, CALLER_RUNS -> queue.offer(message);
+            case BLOCK -> offerWithTimeout(message);
+        };
+
+        if (queued) {
+            enqueued.incrementAndGet();
+            signal.release();
+            return;
+        }
+        // CALLER_RUNS: очередь заполнена - пишем в БД в потоке отправителя
+        if (backpressure == Backpressure.CALLER_RUNS && writeInline(message)) {
+            return;
+        }
+        rejected.incrementAndGet();
+        throw new ServerException("Chat is overloaded, please retry later");
+    }
+
+    // Под той же блокировкой, что и пакетная запись флашера; неудача не возвращает сообщение в очередь
+    private boolean writeInline(PendingMessage message) {
+        flushLock.lock();
+        try {
+            return write(List.of(message));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private boolean offerWithTimeout(PendingMessage message) {
+        try {
+            return queue.offer(message, offerTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void flushLoop() {
+        while (running) {
+            try {
+                // Просыпаемся по первому сообщению либо раз в flushInterval;
+                // всё, что накопилось за время предыдущей записи, уходит одним пакетом
+                signal.tryAcquire(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                signal.drainPermits();
+                flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error in chat ingestion flusher", e);
+            }
+        }
+    }
+
+    // Одна попытка записи. Возвращает false, если пакет не записан и его нужно повторить позже
+    private boolean write(List<PendingMessage> batch) {
+        try {
+            insertBatch(batch);
+            persisted.addAndGet(batch.size());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Повтор не поможет: пакет откатился целиком - пишем по одному, чтобы отсечь «битые» строки
+            // (например, сообщения в уже удалённое событие) и не потерять остальные
+            writeOneByOne(batch);
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Chat batch of {} messages failed: {}", batch.size(), e.getMessage());
+            if (durability == Durability.BEST_EFFORT) {
+                dropped.addAndGet(batch.size());
+                log.error("Dropped {} chat messages after failed batch insert", batch.size());
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private void writeOneByOne(List<PendingMessage> batch) {
+        for (PendingMessage message : batch) {
+            try {
+                insertBatch(List.of(message));
+                persisted.incrementAndGet();
+            } catch (RuntimeException e) {
+                dropped.incrementAndGet();
+                log.error("Dropped chat message for event {} from user {}: {}",
+                        message.eventId(), message.userId(), e.getMessage());
+            }
+        }
+    }
+
+    // Возвращаем пакет в голову очереди с сохранением порядка
+    private void requeue(List<PendingMessage> batch) {
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            if (!queue.offerFirst(batch.get(i))) {
+                dropped.incrementAndGet();
+                log.error("Chat queue is full, dropped message for event {}", batch.get(i).eventId());
+            }
+        }
+    }
+
+    private static void pause(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void insertBatch(List<PendingMessage> batch) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, message) -> {
+                    Timestamp createdAt = Timestamp.from(message.createdAt());
+                    ps.setLong(1, message.id());
+                    ps.setString(2, message.content());
+                    ps.setLong(3, message.eventId());
+                    ps.setLong(4, message.userId());
+                    ps.setTimestamp(5, createdAt);
+                    ps.setTimestamp(6, createdAt);
+                }));
+    }
+
+    private record PendingMessage(Long id, Long eventId, Long userId, String content, Instant createdAt) {
+    }
+}
@@ -6,6 +6,8 @@ import com.example.angella.eventsapi.entity.Image;
 import com.example.angella.eventsapi.entity.User;
 import com.example.angella.eventsapi.exception.AccessDeniedException;
 import com.example.angella.eventsapi.exception.EntityNotFoundException;
+import com.example.angella.eventsapi.model.ChatCursor;
+import com.example.angella.eventsapi.model.ChatHistorySlice;
 import com.example.angella.eventsapi.model.PageModel;
 import com.example.angella.eventsapi.repository.ChatMessageRepository;
 import com.example.angella.eventsapi.repository.EventRepository;
@@ -13,6 +15,7 @@ import com.example.angella.eventsapi.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,6 +24,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Service
@@ -29,10 +33,14 @@ import java.util.List;
 @Slf4j
 public class ChatService {
 
+    private static final int DEFAULT_HISTORY_LIMIT = 50;
+    private static final int MAX_HISTORY_LIMIT = 100;
+
     private final ChatMessageRepository chatMessageRepository;
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
     private final ImageService imageService;
+    private final EventAccessService eventAccessService;
 
     public Page<ChatMessage> getMessages(Long eventId, PageModel pageModel) {
         // Проверяем существование события
@@ -42,17 +50,56 @@ public class ChatService {
 
         return chatMessageRepository.findAllByEventId(
                 eventId,
-                pageModel == null ? Pageable.unpaged() : pageModel.toPageRequest()
+                pageModel == null ? new PageModel().toPageRequest() : pageModel.toPageRequest()
         );
     }
 
+    public ChatHistorySlice getMessageHistory(Long eventId, String cursor, Integer limit) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new EntityNotFoundException("Event not found");
+        }
+
+        int size = limit == null ? DEFAULT_HISTORY_LIMIT : Math.max(1, Math.min(limit, MAX_HISTORY_LIMIT));
+        // Берём на одну запись больше, чтобы узнать о следующей странице без COUNT
+        Pageable window = PageRequest.of(0, size + 1);
+        ChatCursor position = cursor == null || cursor.isBlank() ? null : ChatCursor.decode(cursor);
+
+        if (position != null && position.direction() == ChatCursor.Direction.AFTER) {
+            List<ChatMessage> newer = chatMessageRepository.findByEventIdAndIdGreaterThanOrderByIdAsc(
+                    eventId, position.messageId(), window);
+            List<ChatMessage> messages = new ArrayList<>(newer.subList(0, Math.min(size, newer.size())));
+            Collections.reverse(messages);
+
+            if (messages.isEmpty()) {
+                return new ChatHistorySlice(messages, ChatCursor.before(position.messageId() + 1), position);
+            }
+            return new ChatHistorySlice(messages,
+                    ChatCursor.before(messages.get(messages.size() - 1).getId()),
+                    ChatCursor.after(messages.get(0).getId()));
+        }
+
+        List<ChatMessage> older = position == null
+                ? chatMessageRepository.findByEventIdOrderByIdDesc(eventId, window)
+                : chatMessageRepository.findByEventIdAndIdLessThanOrderByIdDesc(eventId, position.messageId(), window);
+        boolean hasOlder = older.size() > size;
+        List<ChatMessage> messages = hasOlder ? older.subList(0, size) : older;
+
+        if (messages.isEmpty()) {
+            return new ChatHistorySlice(messages, null,
+                    position == null ? null : ChatCursor.after(position.messageId() - 1));
+        }
+        return new ChatHistorySlice(messages,
+                hasOlder ? ChatCursor.before(messages.get(messages.size() - 1).getId()) : null,
+                ChatCursor.after(messages.get(0).getId()));
+    }
+
     public ChatMessage createMessage(String content, Long eventId, Long userId) {
         Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new EntityNotFoundException(
                         MessageFormat.format("Event with id {0} not found!", eventId)
                 ));
 
-        if (!eventRepository.existsByIdAndParticipantsId(eventId, userId)) {
+        if (!eventAccessService.hasParticipant(eventId, userId)) {
             throw new AccessDeniedException("Only event participants can post messages");
         }
 
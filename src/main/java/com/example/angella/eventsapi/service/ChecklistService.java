@@ -5,9 +5,13 @@ import com.example.angella.eventsapi.entity.Event;
 import com.example.angella.eventsapi.entity.User;
 import com.example.angella.eventsapi.exception.AccessDeniedException;
 import com.example.angella.eventsapi.exception.EntityNotFoundException;
+import com.example.angella.eventsapi.mapper.ChecklistMapper;
 import com.example.angella.eventsapi.repository.ChecklistItemRepository;
 import com.example.angella.eventsapi.repository.EventRepository;
 import com.example.angella.eventsapi.repository.UserRepository;
+import com.example.angella.eventsapi.web.dto.ChecklistItemDto;
+import com.example.angella.eventsapi.web.dto.FeedChangeDto;
+import com.example.angella.eventsapi.web.dto.FeedSnapshotDto;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,11 +28,20 @@ public class ChecklistService {
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
     private final EventAccessService eventAccessService;
+    private final EventFeedPublisher eventFeedPublisher;
+    private final ChecklistMapper checklistMapper;
 
     public List<ChecklistItem> getChecklistForEvent(Long eventId) {
         return checklistItemRepository.findAllByEventId(eventId);
     }
 
+    // Полный список для клиента, который пропустил дельту; версия читается первой, см. EventFeedPublisher
+    @Transactional(readOnly = true)
+    public FeedSnapshotDto<ChecklistItemDto> getChecklistSnapshot(Long eventId) {
+        long version = eventFeedPublisher.currentVersion(EventFeedPublisher.Feed.CHECKLIST, eventId);
+        return new FeedSnapshotDto<>(version, checklistMapper.toDtoList(checklistItemRepository.findAllByEventId(eventId)));
+    }
+
     public ChecklistItem createItem(String name, String description, Integer quantity,
                                     Long eventId, Long userId, Long assignedUserId) {
         Event event = eventRepository.findById(eventId)
@@ -59,7 +72,9 @@ public class ChecklistService {
         item.setCreatedBy(user);
         item.setAssignedUser(assignedUser);
 
-        return checklistItemRepository.save(item);
+        ChecklistItem savedItem = checklistItemRepository.save(item);
+        publish(FeedChangeDto.Type.CREATED, savedItem);
+        return savedItem;
     }
 
     public ChecklistItem updateItem(Long itemId, String name, String description,
@@ -86,7 +101,9 @@ public class ChecklistService {
             item.setAssignedUser(assignedUser);
         }
 
-        return checklistItemRepository.save(item);
+        ChecklistItem savedItem = checklistItemRepository.save(item);
+        publish(FeedChangeDto.Type.UPDATED, savedItem);
+        return savedItem;
     }
 
     public void deleteItem(Long itemId, Long userId) {
@@ -98,6 +115,8 @@ public class ChecklistService {
         }
 
         checklistItemRepository.deleteById(itemId);
+        eventFeedPublisher.publish(EventFeedPublisher.Feed.CHECKLIST, item.getEvent().getId(),
+                FeedChangeDto.Type.DELETED, itemId, null);
     }
 
     public ChecklistItem toggleItemCompletion(Long itemId, Long userId) {
@@ -110,7 +129,9 @@ public class ChecklistService {
         }
 
         item.setCompleted(!item.isCompleted());
-        return checklistItemRepository.save(item);
+        ChecklistItem savedItem = checklistItemRepository.save(item);
+        publish(FeedChangeDto.Type.TOGGLED, savedItem);
+        return savedItem;
     }
 
     public boolean isItemCreator(Long itemId, Long userId) {
@@ -128,4 +149,9 @@ public class ChecklistService {
         if (total == 0) return 0;
         return (int) ((completed * 100) / total);
     }
-}
\ No newline at end of file
+
+    private void publish(FeedChangeDto.Type type, ChecklistItem item) {
+        eventFeedPublisher.publish(EventFeedPublisher.Feed.CHECKLIST, item.getEvent().getId(),
+                type, item.getId(), checklistMapper.toDto(item));
+    }
+}
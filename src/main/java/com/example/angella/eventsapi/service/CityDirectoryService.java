@@ -0,0 +1,127 @@
+package com.example.angella.eventsapi.service;
+
+import com.example.angella.eventsapi.repository.EventRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import static com.example.angella.eventsapi.utils.TransactionUtils.evictNowAndAfterCompletion;
+
+/**
+ * Словарь городов: список для фильтров и автодополнение. Города с числом мероприятий читаются одним запросом
+ * и хранятся в памяти, поиск по нажатию клавиши идет без обращения к БД.
+ * Словарь перечитывается после изменения мест мероприятий (после коммита) или по истечении refreshInterval.
+ * <p>
+ * Ранжирование: точное совпадение, начало названия, начало слова в названии, вхождение;
+ * внутри группы - по популярности. Готовые ответы кэшируются в пределах одной версии словаря.
+ */
+@Service
+@Slf4j
+@Transactional(readOnly = true)
+public class CityDirectoryService {
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+
+    private final EventRepository eventRepository;
+    private final long responseCacheSize;
+
+    // Один ключ - текущая версия словаря; Caffeine дает TTL, однократную загрузку и статистику
+    private final LoadingCache<Boolean, Directory> directory;
+
+    public CityDirectoryService(EventRepository eventRepository,
+                                @Value("${app.cities.refresh-interval:10m}") Duration refreshInterval,
+                                @Value("${app.cities.response-cache-size:1000}") long responseCacheSize) {
+        this.eventRepository = eventRepository;
+        this.responseCacheSize = responseCacheSize;
+        this.directory = Caffeine.newBuilder()
+                .expireAfterWrite(refreshInterval)
+                .recordStats()
+                .build(key -> load());
+    }
+
+    // Все города по алфавиту для выпадающих списков фильтров
+    public List<String> getAllCities() {
+        return directory.get(Boolean.TRUE).sortedNames();
+    }
+
+    public List<String> search(String query, Integer limit) {
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        String normalized = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+
+        Directory current = directory.get(Boolean.TRUE);
+        return current.responses().get(new SearchKey(normalized, size), key -> current.search(key.query(), key.limit()));
+    }
+
+    public void evict() {
+        evictNowAndAfterCompletion(directory::invalidateAll);
+    }
+
+    public CacheStats getCacheStats() {
+        return directory.stats();
+    }
+
+    private Directory load() {
+        List<City> cities = eventRepository.findCityPopularity().stream()
+                .map(row -> new City(row.city(), row.city().toLowerCase(Locale.ROOT), row.eventCount()))
+                .sorted(Comparator.comparingLong(City::eventCount).reversed().thenComparing(City::name))
+                .toList();
+        List<String> sortedNames = cities.stream().map(City::name).sorted().toList();
+        log.debug("City directory loaded: {} cities", cities.size());
+
+        // Новый кэш ответов на каждую версию словаря: ответ по старым данным в новую версию не попадет
+        Cache<SearchKey, List<String>> responses = Caffeine.newBuilder()
+                .maximumSize(responseCacheSize)
+                .build();
+        return new Directory(cities, sortedNames, responses);
+    }
+
+    private record City(String name, String normalizedName, long eventCount) {
+
+        int matchRank(String query) {
+            if (normalizedName.equals(query)) return 0;
+            if (normalizedName.startsWith(query)) return 1;
+
+            int index = normalizedName.indexOf(query);
+            if (index < 0) return -1;
+            // Начало второго слова: "Нижний Новгород", "Ростов-на-Дону"
+            for (; index >= 0; index = normalizedName.indexOf(query, index + 1)) {
+                if (!Character.isLetterOrDigit(normalizedName.charAt(index - 1))) return 2;
+            }
+            return 3;
+        }
+    }
+
+    private record Directory(List<City> cities, List<String> sortedNames, Cache<SearchKey, List<String>> responses) {
+
+        // Города уже упорядочены по популярности, поэтому внутри каждой группы порядок сохраняется
+        List<String> search(String query, int limit) {
+            if (query.isEmpty()) {
+                return cities.stream().limit(limit).map(City::name).toList();
+            }
+
+            List<List<String>> groups = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+            for (City city : cities) {
+                int rank = city.matchRank(query);
+                if (rank >= 0 && groups.get(rank).size() < limit) {
+                    groups.get(rank).add(city.name());
+                }
+            }
+            return groups.stream().flatMap(List::stream).limit(limit).toList();
+        }
+    }
+
+    private record SearchKey(String query, int limit) {
+    }
+}
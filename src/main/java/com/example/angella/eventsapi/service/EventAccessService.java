@@ -1,26 +1,97 @@
 package com.example.angella.eventsapi.service;
 
 import com.example.angella.eventsapi.repository.EventRepository;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.function.Predicate;
+
+import static com.example.angella.eventsapi.utils.TransactionUtils.evictNowAndAfterCompletion;
+
+/**
+ * Проверки членства и авторства с кэшем в памяти узла.
+ * <p>
+ * Кэшируются только положительные ответы: новый участник получает доступ сразу на всех узлах.
+ * Сброс при изменении участников локальный, поэтому на других узлах удалённый участник
+ * сохраняет доступ не дольше app.cache.membership.ttl - это допустимое окно устаревания.
+ */
 @Service
-@RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class EventAccessService {
 
     private final EventRepository eventRepository;
 
+    // Кэш положительных проверок: (eventId, userId) -> true; отказ каждый раз идёт в БД
+    private final Cache<MembershipKey, Boolean> participantCache;
+    private final Cache<MembershipKey, Boolean> creatorCache;
+
+    public EventAccessService(EventRepository eventRepository,
+                              @Value("${app.cache.membership.max-size:50000}") long maxSize,
+                              @Value("${app.cache.membership.ttl:30s}") Duration ttl) {
+        this.eventRepository = eventRepository;
+        this.participantCache = buildCache(maxSize, ttl);
+        this.creatorCache = buildCache(maxSize, ttl);
+    }
+
     public boolean isEventCreator(Long eventId, Long userId) {
-        return eventRepository.existsByIdAndCreatorId(eventId, userId);
+        return getPositive(creatorCache, new MembershipKey(eventId, userId),
+                key -> eventRepository.existsByIdAndCreatorId(key.eventId(), key.userId()));
     }
 
     public boolean hasParticipant(Long eventId, Long participantId) {
-        return eventRepository.existsByIdAndParticipantsId(eventId, participantId);
+        return getPositive(participantCache, new MembershipKey(eventId, participantId),
+                key -> eventRepository.existsByIdAndParticipantsId(key.eventId(), key.userId()));
     }
 
     public boolean canRemoveParticipant(Long eventId, Long currentUserId, Long participantId) {
         return isEventCreator(eventId, currentUserId) || currentUserId.equals(participantId);
     }
-}
\ No newline at end of file
+
+    public void evictMembership(Long eventId, Long userId) {
+        MembershipKey key = new MembershipKey(eventId, userId);
+        evictNowAndAfterCompletion(() -> participantCache.invalidate(key));
+    }
+
+    public void evictEvent(Long eventId) {
+        evictNowAndAfterCompletion(() -> {
+            participantCache.asMap().keySet().removeIf(key -> key.eventId().equals(eventId));
+            creatorCache.asMap().keySet().removeIf(key -> key.eventId().equals(eventId));
+        });
+    }
+
+    public CacheStats getParticipantCacheStats() {
+        return participantCache.stats();
+    }
+
+    public CacheStats getCreatorCacheStats() {
+        return creatorCache.stats();
+    }
+
+    private static boolean getPositive(Cache<MembershipKey, Boolean> cache, MembershipKey key,
+                                       Predicate<MembershipKey> loader) {
+        if (cache.getIfPresent(key) != null) {
+            return true;
+        }
+        boolean result = loader.test(key);
+        if (result) {
+            cache.put(key, Boolean.TRUE);
+        }
+        return result;
+    }
+
+    private static Cache<MembershipKey, Boolean> buildCache(long maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    private record MembershipKey(Long eventId, Long userId) {
+    }
+}
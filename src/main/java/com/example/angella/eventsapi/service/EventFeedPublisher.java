@@ -0,0 +1,81 @@
+package com.example.angella.eventsapi.service;
+
+import com.example.angella.eventsapi.web.dto.FeedChangeDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+import static com.example.angella.eventsapi.utils.TransactionUtils.runAfterCommit;
+
+/**
+ * Дельты лент мероприятия по WebSocket: вместо полного списка рассылается только изменённый элемент.
+ * <p>
+ * Версия ленты хранится в event_feed_version и увеличивается в транзакции изменения. Строка версии
+ * заблокирована до коммита, поэтому изменения одной ленты получают версии в порядке коммитов,
+ * в том числе на разных узлах. Рассылка идёт только после коммита: откаченное изменение клиенты не увидят.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class EventFeedPublisher {
+
+    public enum Feed {
+        TASKS("/topic/tasks/"),
+        CHECKLIST("/topic/checklist/");
+
+        private final String topicPrefix;
+
+        Feed(String topicPrefix) {
+            this.topicPrefix = topicPrefix;
+        }
+
+        public String destination(Long eventId) {
+            return topicPrefix + eventId;
+        }
+    }
+
+    private static final String NEXT_VERSION_SQL = """
+            INSERT INTO event_feed_version (event_id, feed, version) VALUES (?, ?, 1)
+            ON CONFLICT (event_id, feed) DO UPDATE SET version = event_feed_version.version + 1
+            RETURNING version
+            """;
+
+    private static final String CURRENT_VERSION_SQL =
+            "SELECT version FROM event_feed_version WHERE event_id = ? AND feed = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    /**
+     * Присваивает изменению следующую версию ленты и рассылает его после коммита.
+     * Элемент нужно передать уже в виде DTO: после коммита ленивые связи сущности недоступны.
+     */
+    public <T> void publish(Feed feed, Long eventId, FeedChangeDto.Type type, Long itemId, T item) {
+        Long version = jdbcTemplate.queryForObject(NEXT_VERSION_SQL, Long.class, eventId, feed.name());
+        FeedChangeDto<T> change = new FeedChangeDto<>(type, version, itemId, item);
+
+        runAfterCommit(() -> {
+            try {
+                messagingTemplate.convertAndSend(feed.destination(eventId), change);
+            } catch (MessagingException e) {
+                // Изменение уже зафиксировано; клиенты заметят пропуск версии и перечитают снимок
+                log.warn("Failed to publish {} change {} for event {}", feed, version, eventId, e);
+            }
+        });
+    }
+
+    /**
+     * Текущая версия ленты, 0 - изменений ещё не было. Для снимка читается до элементов:
+     * изменение, закоммиченное между двумя чтениями, придёт клиенту дельтой и применится повторно,
+     * а применение дельт идемпотентно (замена или удаление по id).
+     */
+    public long currentVersion(Feed feed, Long eventId) {
+        List<Long> versions = jdbcTemplate.queryForList(CURRENT_VERSION_SQL, Long.class, eventId, feed.name());
+        return versions.isEmpty() ? 0 : versions.get(0);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.angella.eventsapi.service;
+
+import com.example.angella.eventsapi.exception.EntityNotFoundException;
+import com.example.angella.eventsapi.mapper.EventMapper;
+import com.example.angella.eventsapi.model.EventCategoryRow;
+import com.example.angella.eventsapi.model.EventRow;
+import com.example.angella.eventsapi.model.PageModel;
+import com.example.angella.eventsapi.model.UserRoleRow;
+import com.example.angella.eventsapi.repository.EventReadRepository;
+import com.example.angella.eventsapi.web.dto.CategoryDto;
+import com.example.angella.eventsapi.web.dto.EventDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Модель чтения публичного REST API: EventDto собирается из проекций
+ * без загрузки сущностей, снимков для dirty checking и ленивых коллекций.
+ * Страница - три запроса (плюс COUNT): события, категории и роли создателей только для её событий.
+ * Полный каталог отдается только экспортом NDJSON, который читает строки курсором
+ * и собирает DTO пачками, не держа весь список в памяти.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class EventReadService {
+
+    private static final int DEFAULT_PAGE_SIZE = 10;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int EXPORT_BATCH_SIZE = 500;
+
+    private final EventReadRepository eventReadRepository;
+    private final EventMapper eventMapper;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Страница событий по id. Размер страницы ограничен {@link #MAX_PAGE_SIZE},
+     * больший размер молча урезается, как у истории чата.
+     */
+    public Page<EventDto> findPage(PageModel pageModel) {
+        int number = pageModel == null || pageModel.getNumber() == null ? 0 : Math.max(pageModel.getNumber(), 0);
+        int size = pageModel == null || pageModel.getSize() == null
+                ? DEFAULT_PAGE_SIZE
+                : Math.max(1, Math.min(pageModel.getSize(), MAX_PAGE_SIZE));
+
+        Page<EventRow> rows = eventReadRepository.findRows(PageRequest.of(number, size));
+        return new PageImpl<>(assemble(rows.getContent()), rows.getPageable(), rows.getTotalElements());
+    }
+
+    /**
+     * Пишет весь каталог в поток построчно в формате NDJSON (одно событие - одна строка JSON).
+     * Строки событий читаются курсором, категории и роли догружаются на каждую пачку,
+     * после пачки поток сбрасывается клиенту. Управляемых сущностей нет, поэтому
+     * контекст персистентности не растет и отсоединять нечего.
+     */
+    public void writeExport(OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(EventDto.class);
+        List<EventRow> batch = new ArrayList<>(EXPORT_BATCH_SIZE);
+
+        try (Stream<EventRow> rows = eventReadRepository.streamAllRows()) {
+            Iterator<EventRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == EXPORT_BATCH_SIZE || !iterator.hasNext()) {
+                    for (EventDto dto : assemble(batch)) {
+                        outputStream.write(writer.writeValueAsBytes(dto));
+                        outputStream.write('\n');
+                    }
+                    outputStream.flush();
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    public EventDto getById(Long eventId) {
+        EventRow row = eventReadRepository.findRowById(eventId).orElseThrow(() ->
+                new EntityNotFoundException(
+                        MessageFormat.format("Event with id {0} not found!", eventId)
+                ));
+        return assemble(List.of(row),
+                eventReadRepository.findCategoryRows(List.of(eventId)),
+                eventReadRepository.findRoleRows(List.of(row.creatorId()))).get(0);
+    }
+
+    private List<EventDto> assemble(List<EventRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> eventIds = rows.stream().map(EventRow::id).collect(Collectors.toSet());
+        Set<Long> creatorIds = rows.stream().map(EventRow::creatorId).collect(Collectors.toSet());
+        return assemble(rows, eventReadRepository.findCategoryRows(eventIds), eventReadRepository.findRoleRows(creatorIds));
+    }
+
+    private List<EventDto> assemble(List<EventRow> rows, List<EventCategoryRow> categoryRows,
+                                    List<UserRoleRow> roleRows) {
+        Map<Long, Set<CategoryDto>> categories = categoryRows.stream()
+                .collect(Collectors.groupingBy(EventCategoryRow::eventId,
+                        Collectors.mapping(row -> new CategoryDto(row.categoryId(), row.categoryName()),
+                                Collectors.toSet())));
+        Map<Long, Set<String>> roles = roleRows.stream()
+                .collect(Collectors.groupingBy(UserRoleRow::userId,
+                        Collectors.mapping(row -> row.role().name(), Collectors.toSet())));
+
+        return rows.stream()
+                .map(row -> {
+                    EventDto dto = eventMapper.toDto(row);
+                    dto.setCategories(categories.getOrDefault(row.id(), new HashSet<>()));
+                    dto.getCreator().setRoles(roles.getOrDefault(row.creatorId(), new HashSet<>()));
+                    return dto;
+                })
+                .toList();
+    }
+}
@@ -7,12 +7,15 @@ import com.example.angella.eventsapi.model.EventFilterModel;
 import com.example.angella.eventsapi.repository.EventRepository;
 import com.example.angella.eventsapi.repository.LocationRepository;
 import com.example.angella.eventsapi.repository.specification.EventSpecification;
+import com.example.angella.eventsapi.web.dto.EventCardDto;
 import com.example.angella.eventsapi.web.dto.UpdateEventRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,6 +25,7 @@ import java.text.MessageFormat;
 import java.time.Instant;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -30,6 +34,9 @@ import java.util.stream.Collectors;
 @Transactional
 @Slf4j
 public class EventService {
+
+    private static final int HOME_PAGE_EVENTS_LIMIT = 6;
+
     private final EventRepository eventRepository;
     private final CategoryService categoryService;
     private final LocationRepository locationRepository;
@@ -40,21 +47,60 @@ public class EventService {
     private final EventAccessService eventAccessService;
     private final TaskService taskService;
     private final ChecklistService checklistService;
+    private final CityDirectoryService cityDirectoryService;
 
+    // План Event.rest: ровно то, что отдаёт EventDto
     @Transactional(readOnly = true)
     public List<Event> findAll() {
-        List<Event> events = eventRepository.findAll();
-        events.forEach(this::initializeLazyCollections);
-        return events != null ? events : List.of(); // Защита от null
+        return eventRepository.findAll();
+    }
+
+    @Transactional(readOnly = true)
+    public List<Event> findAllForAdmin() {
+        List<Event> events = eventRepository.findAllForAdmin();
+        attachMainImages(events);
+        return events;
     }
 
     @Transactional(readOnly = true)
     public Page<Event> filter(EventFilterModel filterModel) {
+        // LIMIT/OFFSET в БД: граф страницы без коллекций
         Page<Event> page = eventRepository.findAll(
                 EventSpecification.withFilter(filterModel),
                 filterModel.getPage().toPageRequest()
         );
-        page.getContent().forEach(this::initializeLazyCollections);
+        // EventDto собирается вне транзакции: категории всей страницы догружаются здесь одним запросом
+        page.getContent().forEach(event -> event.getCategories().size());
+        return page;
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Event> searchUpcomingEvents(EventFilterModel filterModel) {
+        // Копия: фильтр вызывающего (модель формы на странице) не меняется
+        EventFilterModel upcomingFilter = filterModel.toBuilder()
+                .upcomingOnly(true)
+                .build();
+        Sort.Direction direction = upcomingFilter.getSortDirection() != null
+                ? upcomingFilter.getSortDirection()
+                : Sort.Direction.ASC;
+
+        // При поиске порядок задает спецификация: релевантность, затем дата начала
+        PageRequest pageRequest = StringUtils.isNotBlank(upcomingFilter.getSearch())
+                ? upcomingFilter.getPage().toPageRequest()
+                : upcomingFilter.getPage().toPageRequest(Sort.by(direction, "startTime"));
+
+        // findBy не применяет @EntityGraph с коллекциями, поэтому LIMIT/OFFSET выполняются в БД
+        Page<Event> page = eventRepository.findBy(
+                EventSpecification.withFilter(upcomingFilter),
+                query -> query.page(pageRequest)
+        );
+
+        page.getContent().forEach(event -> {
+            event.getParticipants().size();
+            event.getCategories().size();
+        });
+        attachMainImages(page.getContent());
+
         return page;
     }
 
@@ -64,7 +110,6 @@ public class EventService {
                 new EntityNotFoundException(
                         MessageFormat.format("Event with id {0} not found!", eventId)
                 ));
-        initializeLazyCollections(event);
 
         List<Image> images = imageService.getEventImages(eventId);
         event.setImages(images != null ? new HashSet<>(images) : new HashSet<>());
@@ -76,7 +121,6 @@ public class EventService {
     public Event getByIdWithRelations(Long id) {
         Event event = eventRepository.findByIdWithRelations(id)
                 .orElseThrow(() -> new EntityNotFoundException("Event not found"));
-        initializeLazyCollections(event);
 
         List<Image> images = imageService.getEventImages(id);
         event.setImages(images != null ? new HashSet<>(images) : new HashSet<>());
@@ -89,22 +133,9 @@ public class EventService {
         Event event = eventRepository.findByIdWithRelations(eventId)
                 .orElseThrow(() -> new EntityNotFoundException("Event not found"));
 
-        // Явная инициализация ленивых коллекций
-        if (event.getParticipants() != null) {
-            event.getParticipants().size();
-        }
-        if (event.getComments() != null) {
-            event.getComments().size();
-        }
-        if (event.getCategories() != null) {
-            event.getCategories().size();
-        }
-        if (event.getChatMessages() != null) {
-            event.getChatMessages().size();
-        }
-        if (event.getTasks() != null) {
-            event.getTasks().size();
-        }
+        // Участники и категории приходят по графу Event.detail, из коллекций страница показывает
+        // только комментарии. Сообщения чата и задачи загружают свои сервисы
+        event.getComments().size();
 
         List<Image> eventImages = imageService.getEventImages(eventId);
         event.setImages(eventImages != null ? new HashSet<>(eventImages) : new HashSet<>());
@@ -125,11 +156,12 @@ public class EventService {
             event.setCreator(creator);
             event.addParticipant(creator);
             Event savedEvent = eventRepository.save(event);
+            eventAccessService.evictEvent(savedEvent.getId());
+            cityDirectoryService.evict();
 
             // Создание дополнительных сущностей с обработкой ошибок
             createEventAdditionalEntities(savedEvent, creatorId);
 
-            initializeLazyCollections(savedEvent);
             return savedEvent;
         } catch (Exception e) {
             log.error("Failed to create event", e);
@@ -197,15 +229,14 @@ public class EventService {
                 return locationRepository.save(newLocation);
             });
             existingEvent.setLocation(location);
+            cityDirectoryService.evict();
         }
 
         if (StringUtils.isNotBlank(request.getDescription())) {
             existingEvent.setDescription(request.getDescription());
         }
 
-        Event updatedEvent = eventRepository.save(existingEvent);
-        initializeLazyCollections(updatedEvent);
-        return updatedEvent;
+        return eventRepository.save(existingEvent);
     }
 
     @Transactional
@@ -215,6 +246,7 @@ public class EventService {
         boolean isAdded = event.addParticipant(participant);
         if (isAdded) {
             eventRepository.save(event);
+            eventAccessService.evictMembership(eventId, participantId);
         }
         return isAdded;
     }
@@ -231,6 +263,7 @@ public class EventService {
         boolean isRemoved = event.removeParticipant(participant);
         if (isRemoved) {
             eventRepository.save(event);
+            eventAccessService.evictMembership(eventId, participantId);
         }
         return isRemoved;
     }
@@ -242,6 +275,8 @@ public class EventService {
             throw new AccessDeniedException("Only event creator can delete the event");
         }
         eventRepository.deleteById(id);
+        eventAccessService.evictEvent(id);
+        cityDirectoryService.evict();
     }
 
     public boolean hasParticipant(Long eventId, Long participantId) {
@@ -258,19 +293,12 @@ public class EventService {
             throw new EntityNotFoundException("Event not found");
         }
         eventRepository.deleteById(eventId);
+        eventAccessService.evictEvent(eventId);
+        cityDirectoryService.evict();
     }
 
-    @Transactional(readOnly = true)
     public List<String> getAllCities() {
-        return eventRepository.findAllDistinctCities();
-    }
-
-    @Transactional(readOnly = true)
-    public List<String> searchCities(String search) {
-        if (search == null || search.trim().isEmpty()) {
-            return getAllCities();
-        }
-        return eventRepository.findDistinctCitiesBySearch(search.trim());
+        return cityDirectoryService.getAllCities();
     }
 
     @Transactional(readOnly = true)
@@ -283,97 +311,36 @@ public class EventService {
 
     @Transactional(readOnly = true)
     public Image getMainEventImage(Long eventId) {
-        List<Image> images = imageService.getEventImages(eventId);
-        return images.isEmpty() ? null : images.get(0);
+        return imageService.getMainEventImages(List.of(eventId)).get(eventId);
     }
 
     @Transactional(readOnly = true)
     public List<Event> findAllWithImages() {
         List<Event> events = eventRepository.findAll();
-        events.forEach(event -> {
-            initializeLazyCollections(event);
-            List<Image> images = imageService.getEventImages(event.getId());
-            event.setImages(images != null ? new HashSet<>(images) : new HashSet<>());
-        });
+        attachImages(events);
         return events;
     }
 
     @Transactional(readOnly = true)
-    public List<Event> findFeaturedEvents() {
-        List<Event> events = eventRepository.findAllOrderByStartTimeDesc();
-
-        Instant now = Instant.now();
-        List<Event> futureEvents = events.stream()
-                .filter(event -> event.getStartTime().isAfter(now))
-                .collect(Collectors.toList());
-
-        futureEvents.forEach(event -> {
-            initializeLazyCollections(event);
-            List<Image> images = imageService.getEventImages(event.getId());
-            event.setImages(images != null ? new HashSet<>(images) : new HashSet<>());
-        });
-
-        return futureEvents.size() > 6 ? futureEvents.subList(0, 6) : futureEvents;
+    public List<EventCardDto> findFeaturedEvents() {
+        return eventRepository.findLatestUpcomingEventCards(Instant.now(), PageRequest.of(0, HOME_PAGE_EVENTS_LIMIT));
     }
 
     @Transactional(readOnly = true)
-    public List<Event> findUpcomingEvents() {
-        List<Event> events = eventRepository.findAllOrderByStartTimeAsc();
-
-        Instant now = Instant.now();
-        List<Event> futureEvents = events.stream()
-                .filter(event -> event.getStartTime().isAfter(now))
-                .collect(Collectors.toList());
-
-        futureEvents.forEach(event -> {
-            initializeLazyCollections(event);
-            List<Image> images = imageService.getEventImages(event.getId());
-            event.setImages(images != null ? new HashSet<>(images) : new HashSet<>());
-        });
-
-        return futureEvents.size() > 6 ? futureEvents.subList(0, 6) : futureEvents;
+    public List<EventCardDto> findUpcomingEvents() {
+        return eventRepository.findUpcomingEventCards(Instant.now(), PageRequest.of(0, HOME_PAGE_EVENTS_LIMIT));
     }
 
     @Transactional(readOnly = true)
     public List<Event> findUserEventsWithImages(Long userId) {
-        User user = userService.findById(userId);
-
-        List<Event> allEvents = eventRepository.findAll();
-        Instant now = Instant.now();
+        userService.findById(userId); // Проверка существования пользователя
 
-        List<Event> userEvents = allEvents.stream()
-                .filter(event -> event.getParticipants().stream()
-                        .anyMatch(participant -> participant.getId().equals(userId)))
-                .filter(event -> event.getStartTime().isAfter(now))
-                .collect(Collectors.toList());
-
-        userEvents.forEach(event -> {
-            initializeLazyCollections(event);
-            List<Image> images = imageService.getEventImages(event.getId());
-            event.setImages(images != null ? new HashSet<>(images) : new HashSet<>());
-        });
+        List<Event> userEvents = eventRepository.findUpcomingByParticipantId(userId, Instant.now());
+        attachMainImages(userEvents);
 
         return userEvents;
     }
 
-    @Transactional(readOnly = true)
-    public List<Event> findAllFutureEvents() {
-        List<Event> events = eventRepository.findAll();
-
-        Instant now = Instant.now();
-        List<Event> futureEvents = events.stream()
-                .filter(event -> event.getStartTime().isAfter(now))
-                .collect(Collectors.toList());
-
-        futureEvents.forEach(event -> {
-            initializeLazyCollections(event);
-            List<Image> images = imageService.getEventImages(event.getId());
-            event.setImages(images != null ? new HashSet<>(images) : new HashSet<>());
-        });
-
-        return futureEvents;
-    }
-
     public String getEventStatus(Event event) {
         Instant now = Instant.now();
         if (event.getStartTime().isAfter(now)) {
@@ -385,38 +352,25 @@ public class EventService {
         }
     }
 
-    private void initializeLazyCollections(Event event) {
-        if (event.getParticipants() != null) {
-            event.getParticipants().size();
-        }
-        if (event.getCategories() != null) {
-            event.getCategories().size();
-        }
-        if (event.getComments() != null) {
-            event.getComments().size();
-        }
-        if (event.getChatMessages() != null) {
-            event.getChatMessages().size();
-        }
-        if (event.getTasks() != null) {
-            event.getTasks().size();
-        }
+    private void attachMainImages(List<Event> events) {
+        Map<Long, Image> mainImages = imageService.getMainEventImages(
+                events.stream().map(Event::getId).toList());
+        events.forEach(event -> {
+            Image mainImage = mainImages.get(event.getId());
+            event.setImages(mainImage != null ? new HashSet<>(Set.of(mainImage)) : new HashSet<>());
+        });
+    }
+
+    private void attachImages(List<Event> events) {
+        Map<Long, List<Image>> images = imageService.getEventImages(
+                events.stream().map(Event::getId).toList());
+        events.forEach(event -> event.setImages(new HashSet<>(images.getOrDefault(event.getId(), List.of()))));
     }
 
     @Transactional(readOnly = true)
     public List<Event> findAllUserEvents(Long userId) {
-        List<Event> allEvents = eventRepository.findAll();
-
-        List<Event> userEvents = allEvents.stream()
-                .filter(event -> event.getParticipants().stream()
-                        .anyMatch(participant -> participant.getId().equals(userId)))
-                .collect(Collectors.toList());
-
-        userEvents.forEach(event -> {
-            initializeLazyCollections(event);
-            List<Image> images = imageService.getEventImages(event.getId());
-            event.setImages(images != null ? new HashSet<>(images) : new HashSet<>());
-        });
+        List<Event> userEvents = eventRepository.findAllByParticipantId(userId);
+        attachMainImages(userEvents);
 
         return userEvents;
     }
@@ -429,21 +383,4 @@ public class EventService {
         Instant now = Instant.now();
         return eventRepository.countByStartTimeAfter(now);
     }
-
-    public Integer getAverageParticipantsPerEvent() {
-        List<Event> events = eventRepository.findAllWithParticipantsCount();
-        if (events.isEmpty()) {
-            return 0;
-        }
-
-        int totalParticipants = events.stream()
-                .mapToInt(event -> event.getParticipants().size())
-                .sum();
-
-        return totalParticipants / events.size(); // Целочисленное среднее
-    }
-
-    public List<Object[]> getMostPopularCategories(int limit) {
-        return eventRepository.findMostPopularCategories(limit);
-    }
-}
\ No newline at end of file
+}
@@ -5,6 +5,8 @@ import com.example.angella.eventsapi.exception.AccessDeniedException;
 import com.example.angella.eventsapi.exception.EntityNotFoundException;
 import com.example.angella.eventsapi.repository.EventRepository;
 import com.example.angella.eventsapi.repository.ImageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -18,8 +20,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -34,6 +40,10 @@ public class ImageService {
 
     private final EventRepository eventRepository;
 
+    private final EventAccessService eventAccessService;
+
+    private final MeterRegistry meterRegistry;
+
     @Value("${app.upload.dir:uploads}")
     private String uploadDir;
 
@@ -66,7 +76,7 @@ public class ImageService {
                     .orElseThrow(() -> new EntityNotFoundException("Event not found"));
 
             // Проверяем права доступа - только участники события могут загружать изображения
-            if (!eventRepository.existsByIdAndParticipantsId(eventId, userId)) {
+            if (!eventAccessService.hasParticipant(eventId, userId)) {
                 throw new AccessDeniedException("Only event participants can upload images");
             }
 
@@ -150,12 +160,23 @@ public class ImageService {
         }
 
         Image savedImage = imageRepository.save(image);
+        recordUpload(file.getSize(), user != null ? "avatar" : event != null ? "event" : "chat");
         log.info("Image saved successfully: filename={}, id={}, path={}",
                 filename, savedImage.getId(), filePath.toString());
 
         return savedImage;
     }
 
+    // Объём загруженных файлов по назначению изображения
+    private void recordUpload(long bytes, String target) {
+        Counter.builder("app.images.upload")
+                .baseUnit("bytes")
+                .description("Bytes of uploaded images")
+                .tag("target", target)
+                .register(meterRegistry)
+                .increment(bytes);
+    }
+
     // УДАЛЕНИЕ ФАЙЛА ИЗОБРАЖЕНИЯ
     private void deleteImageFile(Image image) {
         try {
@@ -195,6 +216,24 @@ public class ImageService {
         return imageRepository.findByEventId(eventId);
     }
 
+    // ПАКЕТНОЕ ПОЛУЧЕНИЕ ИЗОБРАЖЕНИЙ ДЛЯ СПИСКА СОБЫТИЙ (один запрос вместо N)
+    public Map<Long, List<Image>> getEventImages(Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return Map.of();
+        }
+        return imageRepository.findAllByEventIdIn(eventIds).stream()
+                .collect(Collectors.groupingBy(image -> image.getEvent().getId()));
+    }
+
+    // ПАКЕТНОЕ ПОЛУЧЕНИЕ ТОЛЬКО ГЛАВНЫХ ИЗОБРАЖЕНИЙ (для карточек событий)
+    public Map<Long, Image> getMainEventImages(Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return Map.of();
+        }
+        return imageRepository.findMainImagesByEventIdIn(eventIds).stream()
+                .collect(Collectors.toMap(image -> image.getEvent().getId(), Function.identity()));
+    }
+
     // ПОЛУЧЕНИЕ ИЗОБРАЖЕНИЙ СООБЩЕНИЯ ЧАТА
     public List<Image> getChatMessageImages(Long chatMessageId) {
         return imageRepository.findByChatMessageId(chatMessageId);
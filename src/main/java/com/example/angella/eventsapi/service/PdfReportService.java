@@ -1,5 +1,7 @@
 package com.example.angella.eventsapi.service;
 
+import com.example.angella.eventsapi.repository.EventRepository;
+import com.example.angella.eventsapi.web.dto.EventCardDto;
 import com.itextpdf.io.image.ImageDataFactory;
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.pdf.PdfDocument;
@@ -9,44 +11,31 @@ import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.*;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
 
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class PdfReportService {
 
-    public byte[] generateStatisticsReport(Map<String, Object> stats) {
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-
-            // Инициализация PDF документа
-            PdfWriter writer = new PdfWriter(outputStream);
-            PdfDocument pdfDoc = new PdfDocument(writer);
-            Document document = new Document(pdfDoc);
-
-            // Установка отступов
-            document.setMargins(20, 20, 20, 20);
-
-            // Заголовок отчета
-            addTitlePage(document, stats);
-
-            // Основное содержание
-            addPlatformOverview(document, stats);
-            addUserActivity(document, stats);
-            addEventStatistics(document, stats);
-            addCompletionRates(document, stats);
-            addPopularCategories(document, stats);
+    private static final int EVENT_DETAILS_PAGE_SIZE = 200;
 
-            // Футер
-            addFooter(document);
+    private final EventRepository eventRepository;
 
-            document.close();
+    public byte[] generateStatisticsReport(Map<String, Object> stats) {
+        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            writeStatisticsReport(stats, false, outputStream);
 
             log.info("PDF report generated successfully, size: {} bytes", outputStream.size());
             return outputStream.toByteArray();
@@ -58,6 +47,42 @@ public class PdfReportService {
         }
     }
 
+    /**
+     * Пишет отчет напрямую в переданный поток, не буферизуя документ в памяти.
+     * Готовые страницы сразу сбрасываются в поток, раздел по мероприятиям
+     * читается страницами по id, поэтому расход памяти не растет с числом событий.
+     */
+    public void writeStatisticsReport(Map<String, Object> stats, boolean includeEventDetails,
+                                      OutputStream outputStream) {
+        // Инициализация PDF документа; поток ответа закрывает контейнер
+        PdfWriter writer = new PdfWriter(outputStream);
+        writer.setCloseStream(false);
+        PdfDocument pdfDoc = new PdfDocument(writer);
+        Document document = new Document(pdfDoc);
+
+        // Установка отступов
+        document.setMargins(20, 20, 20, 20);
+
+        // Заголовок отчета
+        addTitlePage(document, stats);
+
+        // Основное содержание
+        addPlatformOverview(document, stats);
+        addUserActivity(document, stats);
+        addEventStatistics(document, stats);
+        addCompletionRates(document, stats);
+        addPopularCategories(document, stats);
+
+        if (includeEventDetails) {
+            addEventDetails(document);
+        }
+
+        // Футер
+        addFooter(document);
+
+        document.close();
+    }
+
     private void addTitlePage(Document document, Map<String, Object> stats) {
         // Главный заголовок
         Paragraph title = new Paragraph("СТАТИСТИЧЕСКИЙ ОТЧЕТ")
@@ -255,6 +280,56 @@ public class PdfReportService {
         }
     }
 
+    private void addEventDetails(Document document) {
+        document.add(new AreaBreak());
+
+        Paragraph header = new Paragraph("МЕРОПРИЯТИЯ")
+                .setFontSize(16)
+                .setBold()
+                .setMarginBottom(15);
+        document.add(header);
+
+        // Таблица в режиме large table: строки выгружаются в документ после каждой страницы выборки
+        Table table = new Table(UnitValue.createPercentArray(new float[]{8, 37, 20, 20, 15}), true);
+        table.setWidth(UnitValue.createPercentValue(100));
+        table.addHeaderCell(createHeaderCell("ID"));
+        table.addHeaderCell(createHeaderCell("Название"));
+        table.addHeaderCell(createHeaderCell("Начало"));
+        table.addHeaderCell(createHeaderCell("Город"));
+        table.addHeaderCell(createHeaderCell("Участники"));
+        document.add(table);
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm")
+                .withZone(ZoneId.systemDefault());
+        long lastId = 0L;
+        long total = 0L;
+        List<EventCardDto> page;
+
+        do {
+            page = eventRepository.findEventCardsAfterId(lastId, PageRequest.of(0, EVENT_DETAILS_PAGE_SIZE));
+
+            for (EventCardDto event : page) {
+                table.addCell(new Cell().add(new Paragraph(event.getId().toString())).setPadding(3));
+                table.addCell(new Cell().add(new Paragraph(event.getName())).setPadding(3));
+                table.addCell(new Cell().add(new Paragraph(formatter.format(event.getStartTime()))).setPadding(3));
+                table.addCell(new Cell().add(new Paragraph(event.getCity())).setPadding(3));
+                table.addCell(new Cell().add(new Paragraph(String.valueOf(event.getParticipantsCount()))).setPadding(3));
+            }
+            table.flush();
+
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+                total += page.size();
+            }
+        } while (page.size() == EVENT_DETAILS_PAGE_SIZE);
+
+        table.complete();
+
+        if (total == 0) {
+            document.add(new Paragraph("Нет мероприятий").setItalic());
+        }
+    }
+
     private void addFooter(Document document) {
         document.add(new Paragraph("\n\n"));
 
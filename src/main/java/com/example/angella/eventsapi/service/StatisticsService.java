@@ -1,58 +1,116 @@
 package com.example.angella.eventsapi.service;
 
-import lombok.RequiredArgsConstructor;
+import com.example.angella.eventsapi.model.StatisticsSnapshot;
+import com.example.angella.eventsapi.repository.StatisticsRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
 public class StatisticsService {
 
-    private final UserService userService;
-    private final EventService eventService;
-    private final CategoryService categoryService;
-    private final CommentService commentService;
-    private final ChatService chatService;
-    private final TaskService taskService;
-    private final ChecklistService checklistService;
+    private static final int POPULAR_CATEGORIES_LIMIT = 10;
+    private static final int DASHBOARD_CATEGORIES_LIMIT = 5;
+
+    private final StatisticsRepository statisticsRepository;
+    private final Duration refreshInterval;
+
+    // Снимок метрик переиспользуется дашбордом и PDF-отчётом до истечения refreshInterval
+    private volatile StatisticsSnapshot snapshot;
+
+    public StatisticsService(StatisticsRepository statisticsRepository,
+                             @Value("${app.statistics.refresh-interval:1m}") Duration refreshInterval) {
+        this.statisticsRepository = statisticsRepository;
+        this.refreshInterval = refreshInterval;
+    }
+
+    public StatisticsSnapshot getSnapshot() {
+        StatisticsSnapshot current = snapshot;
+        if (current != null && current.getGeneratedAt().plus(refreshInterval).isAfter(Instant.now())) {
+            return current;
+        }
+
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || !current.getGeneratedAt().plus(refreshInterval).isAfter(Instant.now())) {
+                current = refreshSnapshot();
+            }
+            return current;
+        }
+    }
+
+    public synchronized StatisticsSnapshot refreshSnapshot() {
+        StatisticsRepository.CountersView counters = statisticsRepository.aggregateCounters();
+        List<StatisticsSnapshot.CategoryCount> categories = statisticsRepository
+                .findMostPopularCategories(PageRequest.of(0, POPULAR_CATEGORIES_LIMIT))
+                .stream()
+                .map(it -> new StatisticsSnapshot.CategoryCount(it.getName(), it.getEventCount()))
+                .toList();
+
+        snapshot = StatisticsSnapshot.builder()
+                .totalUsers(counters.getTotalUsers())
+                .totalEvents(counters.getTotalEvents())
+                .upcomingEvents(counters.getUpcomingEvents())
+                .totalCategories(counters.getTotalCategories())
+                .totalParticipations(counters.getTotalParticipations())
+                .totalComments(counters.getTotalComments())
+                .totalChatMessages(counters.getTotalChatMessages())
+                .eventsWithChats(counters.getEventsWithChats())
+                .totalTasks(counters.getTotalTasks())
+                .completedTasks(counters.getCompletedTasks())
+                .totalChecklistItems(counters.getTotalChecklistItems())
+                .completedChecklistItems(counters.getCompletedChecklistItems())
+                .popularCategories(categories)
+                .generatedAt(Instant.now())
+                .build();
+
+        log.info("Statistics snapshot refreshed");
+        return snapshot;
+    }
 
     public Map<String, Object> getAdminStatistics() {
         Map<String, Object> stats = new LinkedHashMap<>();
 
         try {
+            StatisticsSnapshot snapshot = getSnapshot();
+
             // Основная статистика
-            stats.put("totalUsers", userService.getTotalUsersCount());
-            stats.put("totalEvents", eventService.getTotalEventsCount());
-            stats.put("totalCategories", categoryService.getTotalCategoriesCount());
-            stats.put("upcomingEvents", eventService.getUpcomingEventsCount());
+            stats.put("totalUsers", snapshot.getTotalUsers());
+            stats.put("totalEvents", snapshot.getTotalEvents());
+            stats.put("totalCategories", snapshot.getTotalCategories());
+            stats.put("upcomingEvents", snapshot.getUpcomingEvents());
 
             // Активность
-            stats.put("averageParticipantsPerEvent", eventService.getAverageParticipantsPerEvent());
-            stats.put("totalComments", commentService.getTotalCommentsCount());
-            stats.put("totalChatMessages", chatService.getTotalMessagesCount());
-            stats.put("totalTasks", taskService.getTotalTasksCount());
-            stats.put("totalChecklistItems", checklistService.getTotalItemsCount());
+            stats.put("averageParticipantsPerEvent", snapshot.getAverageParticipantsPerEvent());
+            stats.put("totalComments", snapshot.getTotalComments());
+            stats.put("totalChatMessages", snapshot.getTotalChatMessages());
+            stats.put("totalTasks", snapshot.getTotalTasks());
+            stats.put("totalChecklistItems", snapshot.getTotalChecklistItems());
 
             // Проценты выполнения
-            stats.put("completedTasksPercentage", taskService.getCompletedTasksPercentage());
-            stats.put("completedChecklistItemsPercentage", checklistService.getCompletedItemsPercentage());
+            stats.put("completedTasksPercentage", snapshot.getCompletedTasksPercentage());
+            stats.put("completedChecklistItemsPercentage", snapshot.getCompletedChecklistItemsPercentage());
 
             // Популярные категории
-            stats.put("mostPopularCategories", formatPopularCategories(eventService.getMostPopularCategories(5)));
+            stats.put("mostPopularCategories", formatPopularCategories(snapshot.getPopularCategories().stream()
+                    .limit(DASHBOARD_CATEGORIES_LIMIT)
+                    .toList()));
 
             // Дополнительная статистика
-            stats.put("reportGeneratedAt", LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm")));
+            stats.put("reportGeneratedAt", formatGeneratedAt(snapshot));
             stats.put("platformUptime", calculatePlatformUptime());
 
-            log.info("Admin statistics generated successfully");
-
         } catch (Exception e) {
             log.error("Error generating admin statistics", e);
             setDefaultStatistics(stats);
@@ -65,13 +123,15 @@ public class StatisticsService {
         Map<String, Object> detailedStats = new LinkedHashMap<>();
 
         try {
+            StatisticsSnapshot snapshot = getSnapshot();
+
             // Основные метрики
-            detailedStats.put("platformOverview", getPlatformOverview());
-            detailedStats.put("userActivity", getUserActivityStats());
-            detailedStats.put("eventStatistics", getEventStatistics());
-            detailedStats.put("completionRates", getCompletionRates());
-            detailedStats.put("popularCategories", getPopularCategoriesDetailed());
-            detailedStats.put("reportMetadata", getReportMetadata());
+            detailedStats.put("platformOverview", getPlatformOverview(snapshot));
+            detailedStats.put("userActivity", getUserActivityStats(snapshot));
+            detailedStats.put("eventStatistics", getEventStatistics(snapshot));
+            detailedStats.put("completionRates", getCompletionRates(snapshot));
+            detailedStats.put("popularCategories", getPopularCategoriesDetailed(snapshot));
+            detailedStats.put("reportMetadata", getReportMetadata(snapshot));
 
         } catch (Exception e) {
             log.error("Error generating detailed statistics", e);
@@ -80,97 +140,82 @@ public class StatisticsService {
         return detailedStats;
     }
 
-    private Map<String, Object> getPlatformOverview() {
+    private Map<String, Object> getPlatformOverview(StatisticsSnapshot snapshot) {
         Map<String, Object> overview = new LinkedHashMap<>();
-        overview.put("totalUsers", userService.getTotalUsersCount());
-        overview.put("totalEvents", eventService.getTotalEventsCount());
-        overview.put("activeEvents", eventService.getUpcomingEventsCount());
-        overview.put("totalCategories", categoryService.getTotalCategoriesCount());
-        overview.put("averageParticipants", eventService.getAverageParticipantsPerEvent());
+        overview.put("totalUsers", snapshot.getTotalUsers());
+        overview.put("totalEvents", snapshot.getTotalEvents());
+        overview.put("activeEvents", snapshot.getUpcomingEvents());
+        overview.put("totalCategories", snapshot.getTotalCategories());
+        overview.put("averageParticipants", snapshot.getAverageParticipantsPerEvent());
         return overview;
     }
 
-    private Map<String, Object> getUserActivityStats() {
+    private Map<String, Object> getUserActivityStats(StatisticsSnapshot snapshot) {
         Map<String, Object> activity = new LinkedHashMap<>();
-        activity.put("totalComments", commentService.getTotalCommentsCount());
-        activity.put("totalChatMessages", chatService.getTotalMessagesCount());
-        activity.put("totalTasksCreated", taskService.getTotalTasksCount());
-        activity.put("totalChecklistItems", checklistService.getTotalItemsCount());
-        activity.put("messagesPerUser", calculateMessagesPerUser());
+        activity.put("totalComments", snapshot.getTotalComments());
+        activity.put("totalChatMessages", snapshot.getTotalChatMessages());
+        activity.put("totalTasksCreated", snapshot.getTotalTasks());
+        activity.put("totalChecklistItems", snapshot.getTotalChecklistItems());
+        activity.put("messagesPerUser", snapshot.getMessagesPerUser());
         return activity;
     }
 
-    private Map<String, Object> getEventStatistics() {
+    private Map<String, Object> getEventStatistics(StatisticsSnapshot snapshot) {
         Map<String, Object> events = new LinkedHashMap<>();
-        events.put("totalEvents", eventService.getTotalEventsCount());
-        events.put("upcomingEvents", eventService.getUpcomingEventsCount());
-        events.put("averageParticipants", eventService.getAverageParticipantsPerEvent());
-        events.put("eventsWithChats", calculateEventsWithChats());
+        events.put("totalEvents", snapshot.getTotalEvents());
+        events.put("upcomingEvents", snapshot.getUpcomingEvents());
+        events.put("averageParticipants", snapshot.getAverageParticipantsPerEvent());
+        events.put("eventsWithChats", snapshot.getEventsWithChats());
         return events;
     }
 
-    private Map<String, Object> getCompletionRates() {
+    private Map<String, Object> getCompletionRates(StatisticsSnapshot snapshot) {
         Map<String, Object> completion = new LinkedHashMap<>();
-        completion.put("tasksCompleted", taskService.getCompletedTasksPercentage());
-        completion.put("checklistItemsCompleted", checklistService.getCompletedItemsPercentage());
-        completion.put("overallCompletion", calculateOverallCompletion());
+        completion.put("tasksCompleted", snapshot.getCompletedTasksPercentage());
+        completion.put("checklistItemsCompleted", snapshot.getCompletedChecklistItemsPercentage());
+        completion.put("overallCompletion",
+                (snapshot.getCompletedTasksPercentage() + snapshot.getCompletedChecklistItemsPercentage()) / 2);
         return completion;
     }
 
-    private Map<String, Object> getPopularCategoriesDetailed() {
+    private Map<String, Object> getPopularCategoriesDetailed(StatisticsSnapshot snapshot) {
         Map<String, Object> categories = new LinkedHashMap<>();
-        List<Object[]> popularCategories = eventService.getMostPopularCategories(10);
 
         List<Map<String, Object>> formattedCategories = new ArrayList<>();
-        for (Object[] categoryData : popularCategories) {
+        for (StatisticsSnapshot.CategoryCount categoryData : snapshot.getPopularCategories()) {
             Map<String, Object> category = new HashMap<>();
-            category.put("name", categoryData[0]);
-            category.put("eventCount", categoryData[1]);
+            category.put("name", categoryData.name());
+            category.put("eventCount", categoryData.eventCount());
             formattedCategories.add(category);
         }
 
         categories.put("categories", formattedCategories);
-        categories.put("totalUniqueCategories", categoryService.getTotalCategoriesCount());
+        categories.put("totalUniqueCategories", snapshot.getTotalCategories());
         return categories;
     }
 
-    private Map<String, Object> getReportMetadata() {
+    private Map<String, Object> getReportMetadata(StatisticsSnapshot snapshot) {
         Map<String, Object> metadata = new LinkedHashMap<>();
-        metadata.put("generatedAt", LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm")));
+        metadata.put("generatedAt", formatGeneratedAt(snapshot));
         metadata.put("timePeriod", "Все время");
         metadata.put("dataFreshness", "Реальные данные");
         return metadata;
     }
 
-    private List<Map<String, Object>> formatPopularCategories(List<Object[]> categories) {
+    private List<Map<String, Object>> formatPopularCategories(List<StatisticsSnapshot.CategoryCount> categories) {
         List<Map<String, Object>> formatted = new ArrayList<>();
-        for (Object[] category : categories) {
+        for (StatisticsSnapshot.CategoryCount category : categories) {
             Map<String, Object> categoryMap = new HashMap<>();
-            categoryMap.put("name", category[0]);
-            categoryMap.put("count", category[1]);
+            categoryMap.put("name", category.name());
+            categoryMap.put("count", category.eventCount());
             formatted.add(categoryMap);
         }
         return formatted;
     }
 
-    private Double calculateMessagesPerUser() {
-        Long totalUsers = userService.getTotalUsersCount();
-        Long totalMessages = chatService.getTotalMessagesCount();
-        if (totalUsers == 0) return 0.0;
-        return Math.round((totalMessages.doubleValue() / totalUsers.doubleValue()) * 100.0) / 100.0;
-    }
-
-    private Long calculateEventsWithChats() {
-        // Упрощенная реализация - в реальном приложении нужно добавить соответствующий метод в EventService
-        Long totalEvents = eventService.getTotalEventsCount();
-        Long eventsWithMessages = chatService.getTotalMessagesCount() > 0 ? totalEvents / 2 : 0L;
-        return eventsWithMessages;
-    }
-
-    private Integer calculateOverallCompletion() {
-        int taskCompletion = taskService.getCompletedTasksPercentage();
-        int checklistCompletion = checklistService.getCompletedItemsPercentage();
-        return (taskCompletion + checklistCompletion) / 2;
+    private String formatGeneratedAt(StatisticsSnapshot snapshot) {
+        return LocalDateTime.ofInstant(snapshot.getGeneratedAt(), ZoneId.systemDefault())
+                .format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm"));
     }
 
     private String calculatePlatformUptime() {
@@ -5,9 +5,13 @@ import com.example.angella.eventsapi.entity.Event;
 import com.example.angella.eventsapi.entity.User;
 import com.example.angella.eventsapi.exception.AccessDeniedException;
 import com.example.angella.eventsapi.exception.EntityNotFoundException;
+import com.example.angella.eventsapi.mapper.TaskMapper;
 import com.example.angella.eventsapi.repository.EventRepository;
 import com.example.angella.eventsapi.repository.TaskRepository;
 import com.example.angella.eventsapi.repository.UserRepository;
+import com.example.angella.eventsapi.web.dto.FeedChangeDto;
+import com.example.angella.eventsapi.web.dto.FeedSnapshotDto;
+import com.example.angella.eventsapi.web.dto.TaskDto;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,11 +28,23 @@ public class TaskService {
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
     private final EventAccessService eventAccessService;
+    private final EventFeedPublisher eventFeedPublisher;
+    private final TaskMapper taskMapper;
 
     public List<Task> getTasksForEvent(Long eventId) {
         return taskRepository.findAllByEventId(eventId);
     }
 
+    // Полный список для клиента, который пропустил дельту; версия читается первой, см. EventFeedPublisher
+    @Transactional(readOnly = true)
+    public FeedSnapshotDto<TaskDto> getTaskSnapshot(Long eventId) {
+        long version = eventFeedPublisher.currentVersion(EventFeedPublisher.Feed.TASKS, eventId);
+        List<TaskDto> tasks = taskRepository.findAllByEventId(eventId).stream()
+                .map(taskMapper::toDto)
+                .toList();
+        return new FeedSnapshotDto<>(version, tasks);
+    }
+
     public Task createTask(String description, Long eventId, Long userId, Long assignedUserId) {
         Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new EntityNotFoundException("Event not found"));
@@ -57,7 +73,9 @@ public class TaskService {
         task.setAssignedUser(assignedUser);
         task.setCompleted(false);
 
-        return taskRepository.save(task);
+        Task savedTask = taskRepository.save(task);
+        publish(FeedChangeDto.Type.CREATED, savedTask);
+        return savedTask;
     }
 
     public Task updateTask(Long taskId, String newDescription, Boolean completed,
@@ -84,7 +102,24 @@ public class TaskService {
             task.setAssignedUser(assignedUser);
         }
 
-        return taskRepository.save(task);
+        Task savedTask = taskRepository.save(task);
+        publish(FeedChangeDto.Type.UPDATED, savedTask);
+        return savedTask;
+    }
+
+    public Task toggleTaskCompletion(Long taskId, Long userId) {
+        Task task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new EntityNotFoundException("Task not found"));
+
+        // Любой участник события может отмечать выполнение
+        if (!eventAccessService.hasParticipant(task.getEvent().getId(), userId)) {
+            throw new AccessDeniedException("Only event participants can toggle task completion");
+        }
+
+        task.setCompleted(!task.isCompleted());
+        Task savedTask = taskRepository.save(task);
+        publish(FeedChangeDto.Type.TOGGLED, savedTask);
+        return savedTask;
     }
 
     public void deleteTask(Long taskId, Long userId) {
@@ -98,6 +133,8 @@ public class TaskService {
         }
 
         taskRepository.deleteById(taskId);
+        eventFeedPublisher.publish(EventFeedPublisher.Feed.TASKS, task.getEvent().getId(),
+                FeedChangeDto.Type.DELETED, taskId, null);
     }
 
     public boolean isTaskCreator(Long taskId, Long userId) {
@@ -115,4 +152,9 @@ public class TaskService {
         if (total == 0) return 0;
         return (int) ((completed * 100) / total);
     }
-}
\ No newline at end of file
+
+    private void publish(FeedChangeDto.Type type, Task task) {
+        eventFeedPublisher.publish(EventFeedPublisher.Feed.TASKS, task.getEvent().getId(),
+                type, task.getId(), taskMapper.toDto(task));
+    }
+}
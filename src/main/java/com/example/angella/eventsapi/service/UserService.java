@@ -7,6 +7,7 @@ import com.example.angella.eventsapi.exception.EntityNotFoundException;
 import com.example.angella.eventsapi.exception.RegisterUserException;
 import com.example.angella.eventsapi.repository.ImageRepository;
 import com.example.angella.eventsapi.repository.UserRepository;
+import com.example.angella.eventsapi.security.UserPrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -24,6 +25,7 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserPrincipalCache userPrincipalCache;
 
     @Transactional
     public User registerUser(User user) {
@@ -40,6 +42,8 @@ public class UserService {
             user.addRole(Role.ROLE_USER);
         }
 
+        // Запись могла остаться от удалённого пользователя с тем же именем
+        userPrincipalCache.evict(user.getUsername());
         return userRepository.save(user);
     }
 
@@ -90,6 +94,7 @@ public class UserService {
         User user = findById(userId);
         user.addRole(Role.ROLE_ADMIN);
         userRepository.save(user);
+        userPrincipalCache.evict(user.getUsername());
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -97,6 +102,7 @@ public class UserService {
         User user = findById(userId);
         user.getRoles().remove(Role.ROLE_ADMIN);
         userRepository.save(user);
+        userPrincipalCache.evict(user.getUsername());
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -108,6 +114,7 @@ public class UserService {
 
             // Простое удаление - надеемся на каскады в БД
             userRepository.delete(user);
+            userPrincipalCache.evict(user.getUsername());
 
         } catch (Exception e) {
             System.err.println("Error deleting user: " + e.getMessage());
@@ -127,6 +134,7 @@ public class UserService {
             user.setLastName(lastName.trim());
         }
 
+        userPrincipalCache.evict(user.getUsername());
         return userRepository.save(user);
     }
 
@@ -29,6 +29,14 @@ public abstract class AbstractAccessCheckerService<T extends AbstractAccessCheck
         return converter.apply(Objects.requireNonNull(pathVariables.get(key)));
     }
 
+    // В отличие от getFromPathVariable не требует наличия переменной в шаблоне пути
+    @SuppressWarnings("unchecked")
+    protected <V> V findPathVariable(HttpServletRequest request, String key, Function<String, V> converter) {
+        var pathVariables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        var value = pathVariables == null ? null : pathVariables.get(key);
+        return value == null ? null : converter.apply(value);
+    }
+
     protected <V> V getFromRequestParams(HttpServletRequest request, String key, Function<String, V> converter) {
         var paramValue = request.getParameter(key);
         if (paramValue == null) {
@@ -21,6 +21,10 @@ public class ParticipantCheckerService extends AbstractAccessCheckerService<Part
     @Override
     protected ParticipantAccessData getAccessData(HttpServletRequest request) {
         var eventId = getFromRequestParams(request, "eventId", Long::valueOf);
+        if (eventId == null) {
+            // Эндпоинты вида /{eventId}/snapshot передают id события в пути
+            eventId = findPathVariable(request, "eventId", Long::valueOf);
+        }
         return new ParticipantAccessData(eventId, AuthUtils.getAuthenticatedUser().getId());
     }
 
@@ -3,6 +3,7 @@ package com.example.angella.eventsapi.utils;
 import com.example.angella.eventsapi.exception.ServerException;
 import com.example.angella.eventsapi.security.AppUserDetails;
 import lombok.experimental.UtilityClass;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -17,6 +18,14 @@ public class AuthUtils {
         throw new ServerException("UserDetails is not instanceof AppUserDetails");
     }
 
+    public static Long getCurrentUserId(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof AppUserDetails details) {
+            return details.getId();
+        }
+
+        throw new ServerException("Principal in authentication is not instanceof AppUserDetails");
+    }
+
     public static AppUserDetails getAuthenticatedUser() {
         var principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
@@ -0,0 +1,44 @@
+package com.example.angella.eventsapi.utils;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@UtilityClass
+public class TransactionUtils {
+
+    /**
+     * Сброс кэша сразу и повторно по завершении транзакции, как при коммите, так и при откате:
+     * иначе параллельный запрос успеет закэшировать состояние, которое видел до коммита.
+     * После отката сброс тоже нужен - кэш мог заполниться внутри транзакции её незафиксированными
+     * данными. Только для идемпотентных сбросов; действие лишь после коммита - {@link #runAfterCommit}.
+     */
+    public static void evictNowAndAfterCompletion(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Действие после коммита текущей транзакции, при откате не выполняется. Вне транзакции - сразу.
+     */
+    public static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+}
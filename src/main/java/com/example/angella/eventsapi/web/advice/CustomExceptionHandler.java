@@ -1,6 +1,7 @@
 package com.example.angella.eventsapi.web.advice;
 
 import com.example.angella.eventsapi.exception.AccessDeniedException;
+import com.example.angella.eventsapi.exception.ClientException;
 import com.example.angella.eventsapi.exception.EntityNotFoundException;
 import com.example.angella.eventsapi.web.dto.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
@@ -59,6 +60,18 @@ public class CustomExceptionHandler {
         }
     }
 
+    @ExceptionHandler(ClientException.class)
+    public ResponseEntity<ErrorResponse> handleClientError(ClientException ex) {
+        log.warn("Bad request: {}", ex.getMessage());
+
+        ErrorResponse error = ErrorResponse.builder()
+                .code("BAD_REQUEST")
+                .message(ex.getMessage())
+                .timestamp(LocalDateTime.now())
+                .build();
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationErrors(MethodArgumentNotValidException ex,
                                                                 HttpServletRequest request) {
@@ -4,19 +4,18 @@ import com.example.angella.eventsapi.entity.*;
 import com.example.angella.eventsapi.service.*;
 import com.example.angella.eventsapi.web.dto.ChecklistTemplateRequest;
 import com.example.angella.eventsapi.web.dto.TemplateItemRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -78,7 +77,7 @@ public class AdminController {
     @GetMapping("/events")
     public String eventManagement(Model model) {
         try {
-            List<Event> allEvents = eventService.findAll();
+            List<Event> allEvents = eventService.findAllForAdmin();
 
             // Безопасный расчет статистики
             long totalParticipants = allEvents.stream()
@@ -349,8 +348,8 @@ public class AdminController {
             Map<String, Object> stats = statisticsService.getAdminStatistics();
             model.addAttribute("stats", stats);
             model.addAttribute("reportDate", LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm")));
-            model.addAttribute("activeUsers", userService.getTotalUsersCount());
-            model.addAttribute("totalEvents", eventService.getTotalEventsCount());
+            model.addAttribute("activeUsers", stats.get("totalUsers"));
+            model.addAttribute("totalEvents", stats.get("totalEvents"));
 
             log.info("Report page loaded successfully");
 
@@ -371,26 +370,10 @@ public class AdminController {
 
     @GetMapping("/generate-pdf-report")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<InputStreamResource> generatePdfReport() {
-        try {
-            Map<String, Object> stats = statisticsService.getDetailedStatistics();
-            byte[] pdfBytes = pdfReportService.generateStatisticsReport(stats);
-
-            String filename = "platform-report-" +
-                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd-HH-mm")) + ".pdf";
-
-            InputStreamResource resource = new InputStreamResource(new ByteArrayInputStream(pdfBytes));
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .contentLength(pdfBytes.length)
-                    .body(resource);
-
-        } catch (Exception e) {
-            log.error("Error generating PDF report", e);
-            return ResponseEntity.internalServerError().build();
-        }
+    public void generatePdfReport(@RequestParam(defaultValue = "false") boolean eventDetails,
+                                  HttpServletResponse response) throws IOException {
+        writePdfReport(response, eventDetails,
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd-HH-mm")));
     }
 
     @PostMapping("/generate-custom-report")
@@ -447,25 +430,29 @@ public class AdminController {
 
     @GetMapping("/download-pdf-report")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<InputStreamResource> downloadPdfReport() {
-        try {
-            Map<String, Object> stats = statisticsService.getDetailedStatistics();
-            byte[] pdfBytes = pdfReportService.generateStatisticsReport(stats);
-
-            String filename = "platform-report-" +
-                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + ".pdf";
+    public void downloadPdfReport(@RequestParam(defaultValue = "false") boolean eventDetails,
+                                  HttpServletResponse response) throws IOException {
+        writePdfReport(response, eventDetails,
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
+    }
 
-            InputStreamResource resource = new InputStreamResource(new ByteArrayInputStream(pdfBytes));
+    // Документ пишется прямо в ответ без Content-Length, т.е. chunked-передачей
+    private void writePdfReport(HttpServletResponse response, boolean eventDetails,
+                                String dateSuffix) throws IOException {
+        Map<String, Object> stats = statisticsService.getDetailedStatistics();
+        String filename = "platform-report-" + dateSuffix + ".pdf";
 
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .contentLength(pdfBytes.length)
-                    .body(resource);
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename);
 
+        try {
+            pdfReportService.writeStatisticsReport(stats, eventDetails, response.getOutputStream());
         } catch (Exception e) {
             log.error("Error generating PDF report", e);
-            return ResponseEntity.internalServerError().build();
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
         }
     }
 }
\ No newline at end of file
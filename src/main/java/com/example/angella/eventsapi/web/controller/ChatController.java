@@ -8,6 +8,7 @@ import com.example.angella.eventsapi.service.ChatService;
 import com.example.angella.eventsapi.utils.AuthUtils;
 import com.example.angella.eventsapi.web.dto.ChatMessageDto;
 import com.example.angella.eventsapi.web.dto.CreateChatMessageRequest;
+import com.example.angella.eventsapi.web.dto.CursorPageResponse;
 import com.example.angella.eventsapi.web.dto.PageResponse;
 import com.example.angella.eventsapi.web.dto.UpdateChatMessageRequest;
 import jakarta.validation.Valid;
@@ -40,6 +41,20 @@ public class ChatController {
         ));
     }
 
+    @GetMapping("/{eventId}/history")
+    @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
+    public ResponseEntity<CursorPageResponse<ChatMessageDto>> getMessageHistory(
+            @PathVariable Long eventId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        var history = chatService.getMessageHistory(eventId, cursor, limit);
+        return ResponseEntity.ok(new CursorPageResponse<>(
+                history.olderCursor() == null ? null : history.olderCursor().encode(),
+                history.newerCursor() == null ? null : history.newerCursor().encode(),
+                history.messages().stream().map(chatMessageMapper::toDto).toList()
+        ));
+    }
+
     @PostMapping
     @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
     @Access(checkBy = AccessCheckType.PARTICIPANT)
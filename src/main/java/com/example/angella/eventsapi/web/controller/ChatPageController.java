@@ -1,14 +1,12 @@
 package com.example.angella.eventsapi.web.controller;
 
 import com.example.angella.eventsapi.entity.Event;
-import com.example.angella.eventsapi.entity.User;
+import com.example.angella.eventsapi.security.AppUserDetails;
 import com.example.angella.eventsapi.service.EventService;
 import com.example.angella.eventsapi.service.TaskService;
 import com.example.angella.eventsapi.service.ChecklistService;
-import com.example.angella.eventsapi.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -24,20 +22,17 @@ import java.util.stream.Collectors;
 public class ChatPageController {
 
     private final EventService eventService;
-    private final UserService userService;
     private final TaskService taskService;
     private final ChecklistService checklistService;
 
     @GetMapping
-    public String chatsPage(@AuthenticationPrincipal UserDetails userDetails, Model model) {
+    public String chatsPage(@AuthenticationPrincipal AppUserDetails user, Model model) {
         try {
-            if (userDetails == null) {
+            if (user == null) {
                 return "redirect:/login";
             }
 
-            User user = userService.findByUsername(userDetails.getUsername());
-
-            // Получаем ВСЕ мероприятия пользователя (будущие и прошедшие)
+            // Получаем ВСЕ мероприятия пользователя (будущие и прошедшие); id и имя - из принципала, без запроса в БД
             List<Event> allUserEvents = eventService.findAllUserEvents(user.getId());
 
             model.addAttribute("events", allUserEvents);
@@ -50,15 +45,14 @@ public class ChatPageController {
     }
 
     @GetMapping("/{eventId}")
-    public String chatRoom(@AuthenticationPrincipal UserDetails userDetails,
+    public String chatRoom(@AuthenticationPrincipal AppUserDetails user,
                            @PathVariable Long eventId,
                            Model model) {
         try {
-            if (userDetails == null) {
+            if (user == null) {
                 return "redirect:/login";
             }
 
-            User user = userService.findByUsername(userDetails.getUsername());
             Event event = eventService.getEventForDetailView(eventId);
 
             // Проверяем, что пользователь является участником события
@@ -1,81 +1,44 @@
 package com.example.angella.eventsapi.web.controller;
 
-import com.example.angella.eventsapi.entity.ChatMessage;
-import com.example.angella.eventsapi.entity.Task;
-import com.example.angella.eventsapi.entity.ChecklistItem;
-import com.example.angella.eventsapi.entity.User;
-import com.example.angella.eventsapi.exception.EntityNotFoundException;
-import com.example.angella.eventsapi.mapper.ChatMessageMapper;
-import com.example.angella.eventsapi.mapper.ChecklistMapper;
-import com.example.angella.eventsapi.mapper.TaskMapper;
-import com.example.angella.eventsapi.repository.UserRepository;
-import com.example.angella.eventsapi.service.ChatService;
-import com.example.angella.eventsapi.service.TaskService;
-import com.example.angella.eventsapi.service.ChecklistService;
+import com.example.angella.eventsapi.exception.AccessDeniedException;
+import com.example.angella.eventsapi.security.StompAuthChannelInterceptor;
+import com.example.angella.eventsapi.service.ChatIngestionService;
 import com.example.angella.eventsapi.web.dto.ChatMessageDto;
-import com.example.angella.eventsapi.web.dto.ChecklistItemDto;
-import com.example.angella.eventsapi.web.dto.TaskDto;
+import com.example.angella.eventsapi.web.dto.CreateChatMessageRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @Controller
 @RequiredArgsConstructor
 public class ChatWebSocketController {
 
     private final SimpMessagingTemplate messagingTemplate;
-    private final ChatService chatService;
-    private final TaskService taskService;
-    private final ChecklistService checklistService;
-    private final ChatMessageMapper chatMessageMapper;
-    private final TaskMapper taskMapper;
-    private final ChecklistMapper checklistMapper;
-    private final UserRepository userRepository;
-
-    private Long getUserId(Principal principal) {
-        if (principal == null) return null;
-
-        String username = principal.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new EntityNotFoundException("User not found: " + username));
-        return user.getId();
-    }
+    private final ChatIngestionService chatIngestionService;
 
     @MessageMapping("/chat/{eventId}/send")
-    @SendTo("/topic/chat/{eventId}")
-    public ChatMessageDto sendMessage(@DestinationVariable Long eventId,
-                                      @Payload ChatMessage message,
-                                      Principal principal) {
-        // Сохраняем сообщение в БД
-        ChatMessage savedMessage = chatService.createMessage(
-                message.getContent(), eventId, getUserId(principal)
+    public void sendMessage(@DestinationVariable Long eventId,
+                            @Payload @Valid CreateChatMessageRequest request,
+                            SimpMessageHeaderAccessor headerAccessor,
+                            Principal principal) {
+        // id пользователя разрешён один раз при CONNECT, см. StompAuthChannelInterceptor
+        Long userId = StompAuthChannelInterceptor.getUserId(headerAccessor);
+        if (principal == null || userId == null) {
+            throw new AccessDeniedException("Only authenticated users can post messages");
+        }
+
+        // Рассылаем сразу, запись в БД идёт через очередь ChatIngestionService
+        ChatMessageDto message = chatIngestionService.accept(
+                eventId, userId, principal.getName(),
+                request.getContent(), request.getClientMessageId()
         );
-        return chatMessageMapper.toDto(savedMessage);
-    }
-
-    @MessageMapping("/tasks/{eventId}/update")
-    @SendTo("/topic/tasks/{eventId}")
-    public List<TaskDto> updateTasks(@DestinationVariable Long eventId) {
-        List<Task> tasks = taskService.getTasksForEvent(eventId);
-        return tasks.stream()
-                .map(taskMapper::toDto)
-                .collect(Collectors.toList());
-    }
-
-    @MessageMapping("/checklist/{eventId}/update")
-    @SendTo("/topic/checklist/{eventId}")
-    public List<ChecklistItemDto> updateChecklist(@DestinationVariable Long eventId) {
-        List<ChecklistItem> checklist = checklistService.getChecklistForEvent(eventId);
-        return checklist.stream()
-                .map(checklistMapper::toDto)
-                .collect(Collectors.toList());
+        messagingTemplate.convertAndSend("/topic/chat/" + eventId, message);
     }
 }
\ No newline at end of file
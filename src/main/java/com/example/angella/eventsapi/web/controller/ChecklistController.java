@@ -7,6 +7,7 @@ import com.example.angella.eventsapi.service.ChecklistService;
 import com.example.angella.eventsapi.utils.AuthUtils;
 import com.example.angella.eventsapi.web.dto.ChecklistItemDto;
 import com.example.angella.eventsapi.web.dto.CreateChecklistItemRequest;
+import com.example.angella.eventsapi.web.dto.FeedSnapshotDto;
 import com.example.angella.eventsapi.web.dto.UpdateChecklistItemRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -34,6 +35,14 @@ public class ChecklistController {
         return ResponseEntity.ok(checklistMapper.toDtoList(items));
     }
 
+    // Снимок с версией ленты: клиент перечитывает его при пропуске версии в /topic/checklist/{eventId}
+    @GetMapping("/{eventId}/snapshot")
+    @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
+    @Access(checkBy = AccessCheckType.PARTICIPANT)
+    public ResponseEntity<FeedSnapshotDto<ChecklistItemDto>> getChecklistSnapshot(@PathVariable Long eventId) {
+        return ResponseEntity.ok(checklistService.getChecklistSnapshot(eventId));
+    }
+
     @PostMapping
     @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
     @Access(checkBy = AccessCheckType.PARTICIPANT)
@@ -1,5 +1,6 @@
 package com.example.angella.eventsapi.web.controller;
 
+import com.example.angella.eventsapi.service.CityDirectoryService;
 import com.example.angella.eventsapi.service.EventService;
 import org.springframework.web.bind.annotation.RestController;
 import lombok.RequiredArgsConstructor;
@@ -14,14 +15,17 @@ import java.util.List;
 public class CityController {
 
     private final EventService eventService;
+    private final CityDirectoryService cityDirectoryService;
 
     @GetMapping
     public ResponseEntity<List<String>> getAllCities() {
         return ResponseEntity.ok(eventService.getAllCities());
     }
 
+    // Автодополнение: самые популярные города, подходящие под ввод; limit не больше 50
     @GetMapping("/search")
-    public ResponseEntity<List<String>> searchCities(@RequestParam(required = false) String query) {
-        return ResponseEntity.ok(eventService.searchCities(query));
+    public ResponseEntity<List<String>> searchCities(@RequestParam(required = false) String query,
+                                                     @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(cityDirectoryService.search(query, limit));
     }
-}
\ No newline at end of file
+}
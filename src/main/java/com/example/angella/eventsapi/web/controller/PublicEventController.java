@@ -2,17 +2,22 @@ package com.example.angella.eventsapi.web.controller;
 
 import com.example.angella.eventsapi.mapper.EventMapper;
 import com.example.angella.eventsapi.model.EventFilterModel;
+import com.example.angella.eventsapi.model.PageModel;
+import com.example.angella.eventsapi.service.EventReadService;
 import com.example.angella.eventsapi.service.EventService;
 import com.example.angella.eventsapi.web.dto.EventDto;
 import com.example.angella.eventsapi.web.dto.PageResponse;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/v1/public/events") // Изменено для согласованности
@@ -20,6 +25,7 @@ import java.util.List;
 public class PublicEventController {
 
     private final EventService eventService;
+    private final EventReadService eventReadService;
     private final EventMapper eventMapper;
 
     @GetMapping("/filter")
@@ -33,13 +39,30 @@ public class PublicEventController {
         ));
     }
 
+    // ?number=0&size=10, размер страницы не больше 100
     @GetMapping
-    public ResponseEntity<List<EventDto>> getEvents() {
-        return ResponseEntity.ok(eventMapper.toDtoList(eventService.findAll()));
+    public ResponseEntity<PageResponse<EventDto>> getEvents(PageModel pageModel) {
+        var page = eventReadService.findPage(pageModel);
+
+        return ResponseEntity.ok(new PageResponse<>(
+                page.getTotalElements(),
+                page.getTotalPages(),
+                page.getContent()
+        ));
+    }
+
+    // Весь каталог для зеркалирования: NDJSON пишется в ответ по мере чтения, chunked-передачей
+    @GetMapping("/export")
+    public void exportEvents(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=events.ndjson");
+
+        eventReadService.writeExport(response.getOutputStream());
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<EventDto> getEventById(@PathVariable Long id) {
-        return ResponseEntity.ok(eventMapper.toDto(eventService.getById(id)));
+        return ResponseEntity.ok(eventReadService.getById(id));
     }
-}
\ No newline at end of file
+}
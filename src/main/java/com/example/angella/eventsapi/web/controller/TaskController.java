@@ -6,6 +6,7 @@ import com.example.angella.eventsapi.mapper.TaskMapper;
 import com.example.angella.eventsapi.service.TaskService;
 import com.example.angella.eventsapi.utils.AuthUtils;
 import com.example.angella.eventsapi.web.dto.CreateTaskRequest;
+import com.example.angella.eventsapi.web.dto.FeedSnapshotDto;
 import com.example.angella.eventsapi.web.dto.TaskDto;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -37,6 +38,14 @@ public class TaskController {
         );
     }
 
+    // Снимок с версией ленты: клиент перечитывает его при пропуске версии в /topic/tasks/{eventId}
+    @GetMapping("/{eventId}/snapshot")
+    @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
+    @Access(checkBy = AccessCheckType.PARTICIPANT)
+    public ResponseEntity<FeedSnapshotDto<TaskDto>> getTaskSnapshot(@PathVariable Long eventId) {
+        return ResponseEntity.ok(taskService.getTaskSnapshot(eventId));
+    }
+
     @PostMapping
     @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
     @Access(checkBy = AccessCheckType.PARTICIPANT)
@@ -71,6 +80,15 @@ public class TaskController {
         return ResponseEntity.ok(taskMapper.toDto(updatedTask));
     }
 
+    @PatchMapping("/{taskId}/toggle")
+    @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
+    public ResponseEntity<TaskDto> toggleTask(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable Long taskId) {
+        var toggledTask = taskService.toggleTaskCompletion(taskId, AuthUtils.getCurrentUserId(userDetails));
+        return ResponseEntity.ok(taskMapper.toDto(toggledTask));
+    }
+
     @DeleteMapping("/{taskId}")
     @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
     public ResponseEntity<Void> deleteTask(
@@ -3,16 +3,21 @@ package com.example.angella.eventsapi.web.controller;
 import com.example.angella.eventsapi.entity.Event;
 import com.example.angella.eventsapi.entity.Image;
 import com.example.angella.eventsapi.entity.User;
-import com.example.angella.eventsapi.exception.EntityNotFoundException;
 import com.example.angella.eventsapi.mapper.EventMapper;
+import com.example.angella.eventsapi.model.EventFilterModel;
+import com.example.angella.eventsapi.model.PageModel;
+import com.example.angella.eventsapi.model.StatisticsSnapshot;
 import com.example.angella.eventsapi.repository.EventRepository;
 import com.example.angella.eventsapi.service.*;
+import com.example.angella.eventsapi.utils.AuthUtils;
 import com.example.angella.eventsapi.web.dto.CreateEventRequest;
 import com.example.angella.eventsapi.web.dto.UpdateEventRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import com.example.angella.eventsapi.web.dto.UpdateUserRequest;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -29,6 +34,8 @@ import org.springframework.web.multipart.MultipartFile;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -46,6 +53,9 @@ public class WebController {
     private final ChecklistService checklistService;
     private final CommentService commentService;
     private final ImageService imageService;
+    private final StatisticsService statisticsService;
+
+    private static final int EVENTS_PAGE_SIZE = 12;
 
     @GetMapping("/")
     public String home(Model model, Authentication authentication) {
@@ -53,11 +63,12 @@ public class WebController {
             // Получаем ближайшие мероприятия (только будущие)
             var featuredEvents = eventService.findUpcomingEvents();
 
-            // Подготавливаем статистику
+            // Счётчики из снимка статистики (COUNT-запросы раз в refresh-interval) и словаря городов
+            StatisticsSnapshot snapshot = statisticsService.getSnapshot();
             Map<String, Long> stats = new HashMap<>();
-            stats.put("eventsCount", (long) eventService.findAll().size());
-            stats.put("usersCount", (long) userService.findAllUsers().size());
-            stats.put("categoriesCount", (long) categoryService.findAll().size());
+            stats.put("eventsCount", snapshot.getTotalEvents());
+            stats.put("usersCount", snapshot.getTotalUsers());
+            stats.put("categoriesCount", snapshot.getTotalCategories());
             stats.put("citiesCount", (long) eventService.getAllCities().size());
 
             model.addAttribute("featuredEvents", featuredEvents);
@@ -82,41 +93,26 @@ public class WebController {
                          @RequestParam(required = false) Long categoryId,
                          @RequestParam(required = false) String city,
                          @RequestParam(required = false) String date,
-                         @RequestParam(required = false, defaultValue = "newest") String sort) {
+                         @RequestParam(required = false, defaultValue = "newest") String sort,
+                         @RequestParam(required = false, defaultValue = "0") int page) {
         try {
-            // Получаем только будущие мероприятия
-            List<Event> events = eventService.findAllFutureEvents();
-
-            // Применяем фильтры
-            if (search != null && !search.isEmpty()) {
-                events = events.stream()
-                        .filter(event -> event.getName().toLowerCase().contains(search.toLowerCase()))
-                        .collect(Collectors.toList());
-            }
-
-            if (categoryId != null) {
-                events = events.stream()
-                        .filter(event -> event.getCategories().stream()
-                                .anyMatch(category -> category.getId().equals(categoryId)))
-                        .collect(Collectors.toList());
-            }
-
-            if (city != null && !city.isEmpty()) {
-                events = events.stream()
-                        .filter(event -> event.getLocation().getCity().equalsIgnoreCase(city))
-                        .collect(Collectors.toList());
-            }
-
-            if ("oldest".equals(sort)) {
-                events.sort(Comparator.comparing(Event::getStartTime).reversed()); // "Сначала дальние"
-            } else {
-                events.sort(Comparator.comparing(Event::getStartTime)); // "Сначала ближние" (по умолчанию)
-            }
+            // Фильтрация, сортировка и пагинация выполняются в БД, только будущие мероприятия
+            EventFilterModel filterModel = EventFilterModel.builder()
+                    .page(new PageModel(Math.max(page, 0), EVENTS_PAGE_SIZE))
+                    .search(search)
+                    .categoryIds(categoryId != null ? Set.of(categoryId) : null)
+                    .city(city != null && !city.isEmpty() ? city : null)
+                    .startTime(parseDate(date))
+                    .sortDirection("oldest".equals(sort) ? Sort.Direction.DESC : Sort.Direction.ASC)
+                    .build();
+
+            Page<Event> eventsPage = eventService.searchUpcomingEvents(filterModel);
 
             // Получаем список уникальных городов для фильтра
             List<String> cities = eventService.getAllCities();
 
-            model.addAttribute("events", events);
+            model.addAttribute("events", eventsPage.getContent());
+            model.addAttribute("eventsPage", eventsPage);
             model.addAttribute("categories", categoryService.findAll());
             model.addAttribute("cities", cities);
             model.addAttribute("searchTerm", search);
@@ -129,10 +125,23 @@ public class WebController {
         } catch (Exception e) {
             log.error("Error loading events page", e);
             model.addAttribute("error", "Не удалось загрузить список мероприятий");
+            model.addAttribute("events", List.of());
             return "events/list";
         }
     }
 
+    private LocalDate parseDate(String date) {
+        if (date == null || date.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            log.warn("Invalid date filter value: {}", date);
+            return null;
+        }
+    }
+
     @GetMapping("/my-events")
     public String myEvents(Model model, Authentication authentication) {
         if (authentication == null) {
@@ -140,8 +149,7 @@ public class WebController {
         }
 
         try {
-            User user = userService.findByUsername(authentication.getName());
-            List<Event> events = eventService.findUserEventsWithImages(user.getId());
+            List<Event> events = eventService.findUserEventsWithImages(AuthUtils.getCurrentUserId(authentication));
 
             // Сортируем по дате (новые сначала)
             events.sort(Comparator.comparing(Event::getStartTime).reversed());
@@ -189,9 +197,8 @@ public class WebController {
         }
 
         try {
-            User user = userService.findByUsername(authentication.getName());
             // Инициализируем коллекции
-            User userWithEvents = userService.findByIdWithEvents(user.getId());
+            User userWithEvents = userService.findByIdWithEvents(AuthUtils.getCurrentUserId(authentication));
             model.addAttribute("user", userWithEvents);
             model.addAttribute("updateRequest", new UpdateUserRequest());
             return "auth/profile";
@@ -210,9 +217,8 @@ public class WebController {
             RedirectAttributes redirectAttributes) {
 
         try {
-            User user = userService.findByUsername(userDetails.getUsername());
             User updatedUser = userService.updateUser(
-                    user.getId(),
+                    AuthUtils.getCurrentUserId(userDetails),
                     updateRequest.getFirstName(),
                     updateRequest.getLastName()
             );
@@ -223,7 +229,7 @@ public class WebController {
         } catch (Exception e) {
             log.error("Error updating profile", e);
             model.addAttribute("error", "Ошибка при обновлении профиля: " + e.getMessage());
-            User user = userService.findByUsername(userDetails.getUsername());
+            User user = userService.findByIdWithEvents(AuthUtils.getCurrentUserId(userDetails));
             model.addAttribute("user", user);
             return "auth/profile";
         }
@@ -236,7 +242,7 @@ public class WebController {
             RedirectAttributes redirectAttributes) {
 
         try {
-            User user = userService.findByUsername(userDetails.getUsername());
+            Long userId = AuthUtils.getCurrentUserId(userDetails);
 
             if (avatarFile.isEmpty()) {
                 redirectAttributes.addFlashAttribute("error", "Файл не выбран");
@@ -260,7 +266,7 @@ public class WebController {
             }
 
             // Загружаем аватар через ImageService
-            String imageUrl = imageService.uploadAvatar(avatarFile, user.getId());
+            String imageUrl = imageService.uploadAvatar(avatarFile, userId);
 
             redirectAttributes.addFlashAttribute("success", "Аватар успешно обновлен");
             return "redirect:/profile";
@@ -312,23 +318,23 @@ public class WebController {
                 return "redirect:/login";
             }
 
-            User user = userService.findByUsername(authentication.getName());
+            Long userId = AuthUtils.getCurrentUserId(authentication);
 
             // Устанавливаем категории из параметра
             if (categories != null && !categories.isEmpty()) {
                 request.setCategories(new HashSet<>(categories));
             }
 
-            request.setCreatorId(user.getId());
+            request.setCreatorId(userId);
 
             Event event = eventMapper.toEntity(request);
-            Event savedEvent = eventService.create(event, user.getId());
+            Event savedEvent = eventService.create(event, userId);
 
             // ИСПРАВЛЕНИЕ: Правильная обработка изображения
             if (eventImage != null && !eventImage.isEmpty()) {
                 try {
                     // Сохраняем изображение и связываем с событием
-                    String imageUrl = imageService.uploadEventImage(eventImage, savedEvent.getId(), user.getId());
+                    String imageUrl = imageService.uploadEventImage(eventImage, savedEvent.getId(), userId);
                     log.info("Image uploaded successfully: {}", imageUrl);
                 } catch (Exception e) {
                     log.error("Failed to upload event image: {}", e.getMessage());
@@ -356,9 +362,10 @@ public class WebController {
             boolean isCreator = false;
 
             if (userDetails != null) {
-                User currentUser = userService.findByUsername(userDetails.getUsername());
-                isParticipant = event.getParticipants().contains(currentUser);
-                isCreator = event.getCreator().getId().equals(currentUser.getId());
+                Long currentUserId = AuthUtils.getCurrentUserId(userDetails);
+                isParticipant = event.getParticipants().stream()
+                        .anyMatch(participant -> participant.getId().equals(currentUserId));
+                isCreator = event.getCreator().getId().equals(currentUserId);
             }
 
             // Получаем изображения мероприятия
@@ -386,8 +393,7 @@ public class WebController {
             return "redirect:/login";
         }
 
-        User user = userService.findByUsername(userDetails.getUsername());
-        eventService.addParticipant(id, user.getId());
+        eventService.addParticipant(id, AuthUtils.getCurrentUserId(userDetails));
 
         return "redirect:/event/details/" + id + "?joined=true";
     }
@@ -399,8 +405,7 @@ public class WebController {
             return "redirect:/login";
         }
 
-        User user = userService.findByUsername(userDetails.getUsername());
-        eventService.removeParticipant(id, user.getId());
+        eventService.removeParticipant(id, AuthUtils.getCurrentUserId(userDetails));
 
         return "redirect:/event/details/" + id + "?left=true";
     }
@@ -414,14 +419,10 @@ public class WebController {
             boolean isCreator = false;
 
             if (userDetails != null) {
-                try {
-                    User currentUser = userService.findByUsername(userDetails.getUsername());
-                    isParticipant = event.getParticipants().stream()
-                            .anyMatch(participant -> participant.getId().equals(currentUser.getId()));
-                    isCreator = event.getCreator().getId().equals(currentUser.getId());
-                } catch (EntityNotFoundException e) {
-                    log.warn("User not found: {}", userDetails.getUsername());
-                }
+                Long currentUserId = AuthUtils.getCurrentUserId(userDetails);
+                isParticipant = event.getParticipants().stream()
+                        .anyMatch(participant -> participant.getId().equals(currentUserId));
+                isCreator = event.getCreator().getId().equals(currentUserId);
             }
 
             // Получаем изображения мероприятия через сервис
@@ -456,21 +457,21 @@ public class WebController {
         }
 
         try {
-            User user = userService.findByUsername(authentication.getName());
+            Long userId = AuthUtils.getCurrentUserId(authentication);
             Event existingEvent = eventService.getById(id);
 
             // Проверяем, что пользователь - создатель мероприятия
-            if (!existingEvent.getCreator().getId().equals(user.getId())) {
+            if (!existingEvent.getCreator().getId().equals(userId)) {
                 return "redirect:/event/details/" + id + "?error=access_denied";
             }
 
             // Обновляем событие
-            Event updatedEvent = eventService.updateEvent(id, request, user.getId());
+            Event updatedEvent = eventService.updateEvent(id, request, userId);
 
             // Обработка загрузки нового изображения
             if (eventImage != null && !eventImage.isEmpty()) {
                 try {
-                    String imageUrl = imageService.uploadEventImage(eventImage, id, user.getId());
+                    String imageUrl = imageService.uploadEventImage(eventImage, id, userId);
                     log.info("Event image updated successfully: {}", imageUrl);
                 } catch (Exception e) {
                     log.error("Failed to update event image: {}", e.getMessage());
@@ -498,11 +499,11 @@ public class WebController {
         }
 
         try {
-            User user = userService.findByUsername(authentication.getName());
+            Long userId = AuthUtils.getCurrentUserId(authentication);
             Event event = eventService.getById(id);
 
             // Проверяем, что пользователь - создатель мероприятия
-            if (!event.getCreator().getId().equals(user.getId())) {
+            if (!event.getCreator().getId().equals(userId)) {
                 return "redirect:/event/details/" + id + "?error=access_denied";
             }
 
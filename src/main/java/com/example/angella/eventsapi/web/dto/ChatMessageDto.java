@@ -17,4 +17,6 @@ public class ChatMessageDto {
     private Instant createdAt;
     private boolean edited;
     private List<ImageDto> images;
+    // Идентификатор, присвоенный клиентом при отправке через WebSocket
+    private String clientMessageId;
 }
\ No newline at end of file
@@ -9,4 +9,7 @@ public class CreateChatMessageRequest {
     @NotBlank(message = "Текст сообщения не может быть пустым!")
     @Size(max = 1000, message = "Максимальная длина сообщения — 1000 символов")
     private String content;
+
+    @Size(max = 64, message = "Максимальная длина clientMessageId — 64 символа")
+    private String clientMessageId;
 }
\ No newline at end of file
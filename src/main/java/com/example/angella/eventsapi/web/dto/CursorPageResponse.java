@@ -0,0 +1,22 @@
+package com.example.angella.eventsapi.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+    // Курсор для более старых элементов, null если их нет
+    private String nextCursor;
+
+    // Курсор для более новых элементов
+    private String prevCursor;
+
+    private List<T> data;
+
+}
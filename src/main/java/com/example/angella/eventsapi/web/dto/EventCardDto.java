@@ -0,0 +1,32 @@
+package com.example.angella.eventsapi.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventCardDto {
+
+    private Long id;
+
+    private String name;
+
+    private Instant startTime;
+
+    private Instant endTime;
+
+    private String city;
+
+    private String street;
+
+    private String categoryName;
+
+    private Long participantsCount;
+
+    private String mainImageFilename;
+
+}
@@ -0,0 +1,28 @@
+package com.example.angella.eventsapi.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Изменение одного элемента ленты мероприятия (задачи, список вещей), рассылается в /topic/...
+ * Версии ленты идут подряд: пропуск означает потерянное изменение, и клиент
+ * перечитывает снимок ({@link FeedSnapshotDto}).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedChangeDto<T> {
+
+    public enum Type { CREATED, UPDATED, DELETED, TOGGLED }
+
+    private Type type;
+
+    private Long version;
+
+    private Long id;
+
+    // Для DELETED не заполняется
+    private T item;
+
+}
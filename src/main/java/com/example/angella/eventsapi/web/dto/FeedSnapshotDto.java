@@ -0,0 +1,19 @@
+package com.example.angella.eventsapi.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedSnapshotDto<T> {
+
+    // Изменения с версией не больше этой уже учтены в items
+    private Long version;
+
+    private List<T> items;
+
+}
@@ -0,0 +1,70 @@
+package com.example.angella.eventsapi;
+
+import com.example.angella.eventsapi.configuration.QueryCounter;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки числа SQL-запросов, которые Hibernate выполняет внутри действия.
+ * Перед замером стоит сделать flush и clear контекста персистентности,
+ * иначе сущности из подготовки теста придут из кеша первого уровня.
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    public static QueryCounter.Recording recordQueries(Runnable action) {
+        try (QueryCounter.Recording recording = QueryCounter.start()) {
+            action.run();
+            return recording;
+        }
+    }
+
+    public static <T> T assertQueryCount(int expected, Supplier<T> action) {
+        try (QueryCounter.Recording recording = QueryCounter.start()) {
+            T result = action.get();
+            assertEquals(expected, recording.getCount(), recording::toString);
+            return result;
+        }
+    }
+
+    public static <T> T assertMaxQueryCount(int max, Supplier<T> action) {
+        try (QueryCounter.Recording recording = QueryCounter.start()) {
+            T result = action.get();
+            assertTrue(recording.getCount() <= max,
+                    () -> "Expected at most " + max + " statement(s), got " + recording);
+            return result;
+        }
+    }
+
+    /**
+     * Число запросов не должно зависеть от объёма данных: запускает оба действия
+     * и сравнивает счётчики. Так ловится N+1 без привязки к точному плану запросов.
+     */
+    public static void assertSameQueryCount(Runnable small, Runnable large) {
+        QueryCounter.Recording smallRecording = recordQueries(small);
+        QueryCounter.Recording largeRecording = recordQueries(large);
+        assertEquals(smallRecording.getCount(), largeRecording.getCount(),
+                () -> "Query count grows with data size\nsmall: " + smallRecording + "\nlarge: " + largeRecording);
+    }
+
+    /**
+     * Действие не должно читать перечисленные таблицы ни в FROM, ни в JOIN.
+     */
+    public static void assertTablesNotQueried(Runnable action, String... tables) {
+        QueryCounter.Recording recording = recordQueries(action);
+        for (String table : tables) {
+            Pattern usage = Pattern.compile("(?i)\\b(from|join)\\s+(\\w+\\.)?" + table + "\\b");
+            List<String> offending = recording.getStatements().keySet().stream()
+                    .filter(sql -> usage.matcher(sql).find())
+                    .toList();
+            assertTrue(offending.isEmpty(), () -> "Table " + table + " was queried:\n" + String.join("\n", offending));
+        }
+    }
+}
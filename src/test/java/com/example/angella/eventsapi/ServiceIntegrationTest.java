@@ -38,10 +38,12 @@ public abstract class ServiceIntegrationTest {
             @Autowired CategoryRepository categoryRepository,
             @Autowired ChatMessageRepository chatMessageRepository,
             @Autowired CommentRepository commentRepository,
-            @Autowired TaskRepository taskRepository
+            @Autowired TaskRepository taskRepository,
+            @Autowired ChecklistItemRepository checklistItemRepository
     ) {
         // Очистка в правильном порядке (сначала дочерние сущности)
         taskRepository.deleteAll();
+        checklistItemRepository.deleteAll();
         chatMessageRepository.deleteAll();
         commentRepository.deleteAll();
         eventRepository.deleteAll();
@@ -0,0 +1,244 @@
+package com.example.angella.eventsapi.configuration;
+
+import com.example.angella.eventsapi.ServiceIntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.event.ApplicationEventMulticaster;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventTaskExecutorIT extends ServiceIntegrationTest {
+
+    @Autowired
+    private EventTaskExecutor applicationEventExecutor;
+    @Autowired
+    private ApplicationEventMulticaster applicationEventMulticaster;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Задачи висят на защёлке, пока тест не отпустит исполнитель
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<EventTaskExecutor> executors = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        for (EventTaskExecutor executor : executors) {
+            executor.destroy();
+        }
+    }
+
+    @Test
+    void bounded_ShouldDiscardWhenPoolAndQueueAreFull() throws Exception {
+        // Тест перегрузки: 1 поток + очередь на 1 задачу, третья задача отбрасывается
+        EventTaskExecutor executor = bounded(EventTaskExecutor.RejectionPolicy.DISCARD);
+        CountDownLatch started = saturate(executor);
+        CountDownLatch discardedRan = new CountDownLatch(1);
+
+        executor.execute(discardedRan::countDown);
+
+        assertEquals(1, executor.getRejectedCount());
+        assertEquals(1, executor.getActiveCount());
+        assertEquals(1, executor.getQueueDepth());
+        assertEquals(0, started.getCount());
+
+        release.countDown();
+        awaitValue(2, executor::getCompletedCount);
+        assertEquals(1, discardedRan.getCount());
+        assertEquals(0, executor.getFailedCount());
+    }
+
+    @Test
+    void bounded_ShouldAbortOrRunInCallerWhenSaturated() throws Exception {
+        // Тест политик ABORT и CALLER_RUNS при заполненном пуле
+        EventTaskExecutor aborting = bounded(EventTaskExecutor.RejectionPolicy.ABORT);
+        saturate(aborting);
+        assertThrows(RejectedExecutionException.class, () -> aborting.execute(() -> { }));
+        assertEquals(1, aborting.getRejectedCount());
+
+        EventTaskExecutor callerRuns = bounded(EventTaskExecutor.RejectionPolicy.CALLER_RUNS);
+        saturate(callerRuns);
+        AtomicReference<Thread> runner = new AtomicReference<>();
+        callerRuns.execute(() -> runner.set(Thread.currentThread()));
+        assertSame(Thread.currentThread(), runner.get());
+        assertEquals(1, callerRuns.getRejectedCount());
+        assertEquals(1, callerRuns.getCompletedCount());
+    }
+
+    @Test
+    void bounded_ShouldCountFailedTasks() throws Exception {
+        // Тест исключения, вылетевшего из задачи мимо мультикастера
+        EventTaskExecutor executor = bounded(EventTaskExecutor.RejectionPolicy.ABORT);
+
+        executor.execute(() -> {
+            throw new IllegalStateException("Listener failed");
+        });
+
+        awaitValue(1, executor::getFailedCount);
+        assertEquals(0, executor.getCompletedCount());
+    }
+
+    @Test
+    void virtual_ShouldLimitConcurrencyOnVirtualThreads() throws Exception {
+        // Тест виртуального режима: не больше maxConcurrency задач одновременно
+        EventTaskExecutor executor = EventTaskExecutor.virtual(
+                2, EventTaskExecutor.RejectionPolicy.ABORT, Duration.ofSeconds(5));
+        executors.add(executor);
+        CountDownLatch started = new CountDownLatch(2);
+        AtomicReference<Thread> runner = new AtomicReference<>();
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                runner.set(Thread.currentThread());
+                started.countDown();
+                awaitRelease();
+            });
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+        assertEquals(2, executor.getActiveCount());
+        assertEquals(1, executor.getRejectedCount());
+        assertTrue(runner.get().isVirtual());
+
+        release.countDown();
+        awaitValue(2, executor::getCompletedCount);
+    }
+
+    @Test
+    void listenerFailure_ShouldReachFailedCounterThroughMulticasterErrorHandler() throws Exception {
+        // Тест полной цепочки: исключение слушателя перехватывает мультикастер, а метрика его всё равно видит
+        double failedBefore = meterRegistry.get("app.events.executor.failed").functionCounter().count();
+        FailingListener listener = new FailingListener();
+        applicationEventMulticaster.addApplicationListener(listener);
+        try {
+            applicationEventMulticaster.multicastEvent(new PayloadApplicationEvent<>(this, "fail"));
+
+            assertTrue(listener.called.await(5, TimeUnit.SECONDS));
+            awaitValue((long) failedBefore + 1, applicationEventExecutor::getFailedCount);
+            assertEquals(failedBefore + 1, meterRegistry.get("app.events.executor.failed").functionCounter().count());
+        } finally {
+            applicationEventMulticaster.removeApplicationListener(listener);
+        }
+    }
+
+    @Test
+    void listenerFailure_ShouldBeCountedAsFailedNotCompleted() throws Exception {
+        // Тест на отдельном мультикастере с той же связкой, что в ApplicationConfiguration
+        EventTaskExecutor executor = bounded(EventTaskExecutor.RejectionPolicy.ABORT);
+        SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+        multicaster.setTaskExecutor(executor);
+        multicaster.setErrorHandler(executor);
+        multicaster.addApplicationListener(new FailingListener());
+
+        multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "fail"));
+
+        awaitValue(1, executor::getFailedCount);
+        assertEquals(0, executor.getCompletedCount());
+    }
+
+    @Test
+    void listenerFailure_ShouldPropagateFromSynchronousListener() {
+        // Тест слушателя, который мультикастер вызывает в потоке публикации: ошибка не глотается
+        EventTaskExecutor executor = bounded(EventTaskExecutor.RejectionPolicy.ABORT);
+        SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+        multicaster.setTaskExecutor(executor);
+        multicaster.setErrorHandler(executor);
+        multicaster.addApplicationListener(new FailingListener() {
+            @Override
+            public boolean supportsAsyncExecution() {
+                return false;
+            }
+        });
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "fail")));
+
+        assertEquals("Listener failed on fail", error.getMessage());
+        assertEquals(0, executor.getFailedCount());
+    }
+
+    @Test
+    void listenerTimer_ShouldRecordEveryTaskIncludingCallerRuns() throws Exception {
+        // Тест таймера задержки: записываются и задачи пула, и выполненные в потоке вызывающего
+        EventTaskExecutor executor = bounded(EventTaskExecutor.RejectionPolicy.CALLER_RUNS);
+        Timer timer = Timer.builder("test.listener.latency").register(new SimpleMeterRegistry());
+        executor.setListenerTimer(timer);
+
+        saturate(executor);
+        executor.execute(() -> { });
+        release.countDown();
+        // Время пишется в finally задачи, уже после счётчика completed
+        awaitValue(3, timer::count);
+        assertEquals(3, executor.getCompletedCount());
+    }
+
+    @Test
+    void listenerTimer_ShouldBePublishedWithPercentiles() {
+        // Тест привязки в MetricsConfiguration: вместо средней за всё время - таймер с перцентилями
+        Timer timer = meterRegistry.get("app.events.executor.latency").timer();
+
+        assertNotNull(timer);
+        assertTrue(timer.takeSnapshot().percentileValues().length > 0);
+    }
+
+    private EventTaskExecutor bounded(EventTaskExecutor.RejectionPolicy policy) {
+        EventTaskExecutor executor = EventTaskExecutor.bounded(1, 1, policy, Duration.ofSeconds(5));
+        executors.add(executor);
+        return executor;
+    }
+
+    // Занимает единственный поток и единственное место в очереди
+    private CountDownLatch saturate(EventTaskExecutor executor) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(this::awaitRelease);
+        return started;
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitValue(long expected, LongSupplier actual) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (actual.getAsLong() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, actual.getAsLong());
+    }
+
+    private static class FailingListener implements ApplicationListener<PayloadApplicationEvent<String>> {
+
+        private final CountDownLatch called = new CountDownLatch(1);
+
+        @Override
+        public void onApplicationEvent(PayloadApplicationEvent<String> event) {
+            called.countDown();
+            throw new IllegalStateException("Listener failed on " + event.getPayload());
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package com.example.angella.eventsapi.configuration;
+
+import com.example.angella.eventsapi.ServiceIntegrationTest;
+import com.example.angella.eventsapi.entity.Event;
+import com.example.angella.eventsapi.entity.Location;
+import com.example.angella.eventsapi.entity.User;
+import com.example.angella.eventsapi.security.AppUserDetails;
+import com.example.angella.eventsapi.service.EventService;
+import com.example.angella.eventsapi.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Рассылка в комнату через всю цепочку STOMP: кадры клиентов идут через SubProtocolWebSocketHandler
+ * и пул clientInboundChannel, сообщения - через brokerChannel и простой брокер, ответы - через
+ * clientOutboundChannel в сокеты. Подменён только сам сокет: один из клиентов перестаёт его читать.
+ */
+@TestPropertySource(properties = {
+        "app.websocket.transport.send-buffer-size-limit=64KB",
+        // Медленный клиент висит, пока рассылка доходит до всех подписчиков; сторож проверяется отдельно
+        "app.websocket.transport.send-time-limit=60s"
+})
+class SlowConsumerWebSocketHandlerIT extends ServiceIntegrationTest {
+
+    // ./gradlew test -PslowConsumer.subscribers=5000
+    private static final int SUBSCRIBERS = Integer.getInteger("slowConsumer.subscribers", 1000);
+    private static final int PAYLOAD_SIZE = 4 * 1024;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Autowired
+    private SlowConsumerWebSocketHandler subProtocolWebSocketHandler;
+    @Autowired
+    private SimpleBrokerMessageHandler simpleBrokerMessageHandler;
+    @Autowired
+    private SimpMessagingTemplate brokerMessagingTemplate;
+    @Autowired
+    private WebSocketMetrics webSocketMetrics;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private EventService eventService;
+
+    // Запись в "медленный" сокет висит, пока тест не отпустит защёлку
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<ClientSession> sessions = new ArrayList<>();
+
+    private User participant;
+    private String chatTopic;
+
+    @BeforeEach
+    void setUp() {
+        participant = new User();
+        participant.setUsername("slowconsumer");
+        participant.setEmail("slowconsumer@example.com");
+        participant.setPassword("password");
+        participant = userService.registerUser(participant);
+        chatTopic = "/topic/chat/" + eventService.create(buildEvent(), participant.getId()).getId();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        release.countDown();
+        for (ClientSession session : sessions) {
+            subProtocolWebSocketHandler.afterConnectionClosed(session, CloseStatus.NORMAL);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void broadcast_ShouldReachAllSubscribersWhileOneConsumerIsStalled() throws Exception {
+        // Тест рассылки на SUBSCRIBERS подписчиков, один из которых не читает сокет: остальные получают всё,
+        // у медленного отбрасываются только кадры сверх буфера, каждый из них посчитан,
+        // а о пропущенном хвосте клиент узнаёт из RECEIPT message-gap
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            open("subscriber-" + i);
+        }
+        ClientSession slow = sessions.get(0);
+        awaitSubscriptions(SUBSCRIBERS);
+
+        int bufferLimit = subProtocolWebSocketHandler.getSendBufferSizeLimit();
+        int messages = bufferLimit / PAYLOAD_SIZE + 10;
+        long droppedBefore = webSocketMetrics.getDroppedFrames();
+        long closedBefore = webSocketMetrics.getSlowConsumerDisconnects();
+
+        CountDownLatch writeStarted = slow.stall(release);
+        for (int m = 0; m < messages; m++) {
+            brokerMessagingTemplate.convertAndSend(chatTopic, m + ":" + "x".repeat(PAYLOAD_SIZE));
+        }
+
+        assertTrue(writeStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        for (ClientSession fast : sessions.subList(1, SUBSCRIBERS)) {
+            awaitCondition(() -> fast.received.size() == messages, fast.getId() + " did not receive all messages");
+            assertEquals(sequence(messages), fast.received);
+            assertEquals(sequence(1, messages), fast.sequenceNumbers);
+        }
+
+        long dropped = webSocketMetrics.getDroppedFrames() - droppedBefore;
+        assertTrue(dropped > 0);
+        assertTrue(dropped < messages);
+
+        // Медленный клиент дочитывает хвост: всё, что не отброшено, приходит по порядку
+        release.countDown();
+        awaitCondition(() -> slow.received.size() + dropped == messages, "stalled subscriber lost buffered frames");
+        assertEquals(sequence(slow.received.size()), slow.received);
+        assertEquals(sequence(1, slow.received.size()), slow.sequenceNumbers);
+        String gap = slow.nextControlFrame();
+        assertTrue(gap.startsWith("RECEIPT\n"), gap);
+        assertTrue(gap.contains("\nreceipt-id:message-gap\n"), gap);
+        assertTrue(gap.contains("\ndropped:" + dropped + "\n"), gap);
+        assertTrue(gap.contains("\nmessage-seq:" + messages + "\n"), gap);
+        assertTrue(slow.isOpen());
+        assertEquals(closedBefore, webSocketMetrics.getSlowConsumerDisconnects());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void stalledWrite_ShouldBeClosedByWatchdogWithoutNewFrames() throws Exception {
+        // Тест сторожа: единственный кадр завис в записи, новых кадров нет, а сессия всё равно закрывается
+        int sendTimeLimit = subProtocolWebSocketHandler.getSendTimeLimit();
+        subProtocolWebSocketHandler.setSendTimeLimit(300);
+        try {
+            ClientSession session = open("stalled");
+            awaitSubscriptions(1);
+            long closedBefore = webSocketMetrics.getSlowConsumerDisconnects();
+
+            CountDownLatch writeStarted = session.stall(release);
+            brokerMessagingTemplate.convertAndSend(chatTopic, "0:stalled");
+            assertTrue(writeStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+            awaitCondition(() -> !session.isOpen(), "stalled session was not closed");
+            assertEquals(closedBefore + 1, webSocketMetrics.getSlowConsumerDisconnects());
+        } finally {
+            subProtocolWebSocketHandler.setSendTimeLimit(sendTimeLimit);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void singleLargeFrame_ShouldReachIdleSessionAboveBufferLimit() throws Exception {
+        // Тест кадра больше лимита буфера: в свободную сессию он уходит, а не отбрасывается
+        ClientSession session = open("large-frame");
+        awaitSubscriptions(1);
+        long droppedBefore = webSocketMetrics.getDroppedFrames();
+
+        int payloadSize = subProtocolWebSocketHandler.getSendBufferSizeLimit() + PAYLOAD_SIZE;
+        brokerMessagingTemplate.convertAndSend(chatTopic, "0:" + "x".repeat(payloadSize));
+
+        awaitCondition(() -> session.received.size() == 1, "large frame was not delivered");
+        assertEquals(droppedBefore, webSocketMetrics.getDroppedFrames());
+    }
+
+    private ClientSession open(String sessionId) throws Exception {
+        AppUserDetails details = new AppUserDetails(participant);
+        ClientSession session = new ClientSession(sessionId,
+                new UsernamePasswordAuthenticationToken(details, null, details.getAuthorities()));
+        sessions.add(session);
+
+        subProtocolWebSocketHandler.afterConnectionEstablished(session);
+        subProtocolWebSocketHandler.handleMessage(session,
+                new TextMessage("CONNECT\naccept-version:1.2\nheart-beat:0,0\n\n\0"));
+        assertTrue(session.nextControlFrame().startsWith("CONNECTED\n"));
+
+        subProtocolWebSocketHandler.handleMessage(session,
+                new TextMessage("SUBSCRIBE\nid:sub-0\ndestination:" + chatTopic + "\n\n\0"));
+        return session;
+    }
+
+    // Подписки регистрируются в брокере асинхронно, на пуле clientInboundChannel
+    private void awaitSubscriptions(int expected) throws InterruptedException {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(chatTopic);
+        Message<byte[]> probe = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        awaitCondition(() -> simpleBrokerMessageHandler.getSubscriptionRegistry().findSubscriptions(probe).size() == expected,
+                "subscriptions were not registered");
+        for (ClientSession session : sessions) {
+            assertNull(session.controlFrames.peek(), () -> session.getId() + " received " + session.controlFrames.peek());
+        }
+    }
+
+    private static void awaitCondition(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, message);
+            Thread.sleep(10);
+        }
+    }
+
+    private static List<Integer> sequence(int size) {
+        return sequence(0, size);
+    }
+
+    private static List<Integer> sequence(int from, int size) {
+        List<Integer> sequence = new ArrayList<>();
+        for (int i = from; i < from + size; i++) {
+            sequence.add(i);
+        }
+        return sequence;
+    }
+
+    private static Event buildEvent() {
+        Location location = new Location();
+        location.setCity("Slow City");
+        location.setStreet("Slow Street");
+
+        Event event = new Event();
+        event.setName("Slow Consumer Event");
+        event.setDescription("Broadcast with a stalled subscriber");
+        event.setStartTime(Instant.now().plus(1, ChronoUnit.DAYS));
+        event.setEndTime(Instant.now().plus(1, ChronoUnit.DAYS).plus(2, ChronoUnit.HOURS));
+        event.setLocation(location);
+        return event;
+    }
+
+    /**
+     * Клиентский сокет: номера полученных сообщений MESSAGE, их message-seq и остальные кадры по отдельности.
+     * После {@link #stall} запись висит на защёлке, как у клиента, который перестал читать.
+     */
+    private static class ClientSession implements WebSocketSession {
+
+        private final String id;
+        private final Principal principal;
+        private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+        private final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        private final List<Integer> sequenceNumbers = Collections.synchronizedList(new ArrayList<>());
+        private final BlockingQueue<String> controlFrames = new LinkedBlockingQueue<>();
+        private volatile CountDownLatch stall;
+        private volatile CountDownLatch writeStarted;
+        private volatile boolean open = true;
+        private int textMessageSizeLimit;
+        private int binaryMessageSizeLimit;
+
+        ClientSession(String id, Principal principal) {
+            this.id = id;
+            this.principal = principal;
+        }
+
+        CountDownLatch stall(CountDownLatch release) {
+            writeStarted = new CountDownLatch(1);
+            stall = release;
+            return writeStarted;
+        }
+
+        String nextControlFrame() throws InterruptedException {
+            String frame = controlFrames.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertNotNull(frame, () -> id + " did not receive a frame");
+            return frame;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            CountDownLatch release = stall;
+            if (release != null) {
+                writeStarted.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            String frame = ((TextMessage) message).getPayload();
+            if (frame.startsWith("MESSAGE\n")) {
+                String headers = frame.substring(0, frame.indexOf("\n\n"));
+                String body = frame.substring(headers.length() + 2);
+                received.add(Integer.valueOf(body.substring(0, body.indexOf(':'))));
+                String sequence = headers.substring(headers.indexOf("\nmessage-seq:") + "\nmessage-seq:".length());
+                sequenceNumbers.add(Integer.valueOf(sequence.substring(0, sequence.indexOf('\n'))));
+            } else {
+                controlFrames.add(frame);
+            }
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public URI getUri() {
+            return URI.create("ws://localhost/ws");
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return new HttpHeaders();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return principal;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return "v12.stomp";
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+            this.textMessageSizeLimit = messageSizeLimit;
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return textMessageSizeLimit;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+            this.binaryMessageSizeLimit = messageSizeLimit;
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return binaryMessageSizeLimit;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+
+        @Override
+        public void close(CloseStatus status) {
+            open = false;
+        }
+    }
+}
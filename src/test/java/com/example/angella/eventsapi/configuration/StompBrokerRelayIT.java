@@ -0,0 +1,260 @@
+package com.example.angella.eventsapi.configuration;
+
+import com.example.angella.eventsapi.EventsApiApplication;
+import com.example.angella.eventsapi.entity.Event;
+import com.example.angella.eventsapi.entity.Location;
+import com.example.angella.eventsapi.entity.User;
+import com.example.angella.eventsapi.exception.AccessDeniedException;
+import com.example.angella.eventsapi.security.AppUserDetails;
+import com.example.angella.eventsapi.service.EventService;
+import com.example.angella.eventsapi.service.UserService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.util.MimeTypeUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Два узла приложения с общим брокером: узел A поднимает встроенный Artemis (EMBEDDED),
+ * узел B подключается к нему как к внешнему брокеру (RELAY). Сообщение чата, отправленное
+ * на одном узле, доходит до подписчика на другом.
+ * <p>
+ * Клиентские сессии имитируются кадрами в clientInboundChannel, ответы брокера
+ * читаются из clientOutboundChannel, WebSocket-клиент не нужен.
+ */
+@Testcontainers
+class StompBrokerRelayIT {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.1")
+            .withDatabaseName("testdb")
+            .withUsername("testuser")
+            .withPassword("testpass");
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() throws IOException, InterruptedException {
+        int brokerPort = freePort();
+        nodeA = startNode("app.websocket.broker.mode=EMBEDDED", "app.websocket.broker.embedded-port=" + brokerPort);
+        nodeB = startNode("app.websocket.broker.mode=RELAY", "app.websocket.broker.relay-port=" + brokerPort);
+        awaitBrokerAvailable(nodeA);
+        awaitBrokerAvailable(nodeB);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        // Сначала узел B: иначе он будет переподключаться к остановленному брокеру
+        if (nodeB != null) nodeB.close();
+        if (nodeA != null) nodeA.close();
+    }
+
+    @Test
+    void chatMessage_ShouldReachSubscribersOnBothNodes() throws InterruptedException {
+        User user = new User();
+        user.setUsername("relayuser");
+        user.setEmail("relay@example.com");
+        user.setPassword("password");
+        user = nodeA.getBean(UserService.class).registerUser(user);
+        Event event = nodeA.getBean(EventService.class).create(buildEvent(), user.getId());
+        String chatTopic = "/topic/chat/" + event.getId();
+
+        StompSession sessionA = new StompSession(nodeA, "session-a", user);
+        StompSession sessionB = new StompSession(nodeB, "session-b", user);
+        sessionA.connect();
+        sessionB.connect();
+        sessionA.subscribe(chatTopic);
+        sessionB.subscribe(chatTopic);
+
+        sessionA.send("/app/chat/" + event.getId() + "/send", "{\"content\":\"Привет с узла A\"}");
+        assertTrue(sessionB.nextMessagePayload().contains("Привет с узла A"));
+        assertTrue(sessionA.nextMessagePayload().contains("Привет с узла A"));
+
+        sessionB.send("/app/chat/" + event.getId() + "/send", "{\"content\":\"Ответ с узла B\"}");
+        assertTrue(sessionA.nextMessagePayload().contains("Ответ с узла B"));
+        assertTrue(sessionB.nextMessagePayload().contains("Ответ с узла B"));
+    }
+
+    @Test
+    void subscribe_ShouldDenyBrokerWildcardsAndServiceTopicsOnBothNodes() throws InterruptedException {
+        // Тест белого списка подписок: # у RabbitMQ и Artemis развернулся бы во все комнаты,
+        // служебные топики relay-режима клиенту тоже не нужны
+        User user = new User();
+        user.setUsername("relaydenied");
+        user.setEmail("relaydenied@example.com");
+        user.setPassword("password");
+        user = nodeA.getBean(UserService.class).registerUser(user);
+        Event event = nodeA.getBean(EventService.class).create(buildEvent(), user.getId());
+
+        StompSession sessionA = new StompSession(nodeA, "denied-a", user);
+        StompSession sessionB = new StompSession(nodeB, "denied-b", user);
+        sessionA.connect();
+        sessionB.connect();
+
+        for (StompSession session : List.of(sessionA, sessionB)) {
+            for (String destination : List.of("/topic/#", "/topic/>", "/topic/chat.#", "/topic/chat/#",
+                    "/topic/simp-user-registry", "/topic/unresolved-user-destination")) {
+                session.assertSubscribeDenied(destination);
+            }
+            // Собственный чат участника по-прежнему доступен
+            session.subscribe("/topic/chat/" + event.getId());
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode(String... properties) {
+        return new SpringApplicationBuilder(EventsApiApplication.class)
+                .profiles("test")
+                .properties("spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "server.port=0")
+                .properties(properties)
+                .run();
+    }
+
+    private static void awaitBrokerAvailable(ConfigurableApplicationContext node) throws InterruptedException {
+        StompBrokerRelayMessageHandler relay = node.getBean(StompBrokerRelayMessageHandler.class);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!relay.isBrokerAvailable()) {
+            assertTrue(System.nanoTime() < deadline, "STOMP broker is not available");
+            Thread.sleep(50);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Event buildEvent() {
+        Location location = new Location();
+        location.setCity("Relay City");
+        location.setStreet("Relay Street");
+
+        Event event = new Event();
+        event.setName("Relay Event");
+        event.setDescription("Chat across application nodes");
+        event.setStartTime(Instant.now().plus(1, ChronoUnit.DAYS));
+        event.setEndTime(Instant.now().plus(1, ChronoUnit.DAYS).plus(2, ChronoUnit.HOURS));
+        event.setLocation(location);
+        return event;
+    }
+
+    /**
+     * Клиентская STOMP-сессия на одном узле: кадры уходят в clientInboundChannel,
+     * кадры этой сессии из clientOutboundChannel складываются в очередь.
+     */
+    private static class StompSession {
+
+        private final MessageChannel inbound;
+        private final String sessionId;
+        private final UsernamePasswordAuthenticationToken user;
+        private final Map<String, Object> attributes = new HashMap<>();
+        private final BlockingQueue<Message<?>> received = new LinkedBlockingQueue<>();
+
+        StompSession(ConfigurableApplicationContext node, String sessionId, User user) {
+            this.inbound = node.getBean("clientInboundChannel", MessageChannel.class);
+            this.sessionId = sessionId;
+            AppUserDetails details = new AppUserDetails(user);
+            this.user = new UsernamePasswordAuthenticationToken(details, null, details.getAuthorities());
+            node.getBean("clientOutboundChannel", SubscribableChannel.class).subscribe(message -> {
+                if (sessionId.equals(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()))) {
+                    received.add(message);
+                }
+            });
+        }
+
+        void connect() throws InterruptedException {
+            StompHeaderAccessor accessor = headers(StompCommand.CONNECT);
+            accessor.setAcceptVersion("1.2");
+            inbound.send(frame(accessor, new byte[0]));
+            await(StompCommand.CONNECTED);
+        }
+
+        void subscribe(String destination) throws InterruptedException {
+            StompHeaderAccessor accessor = headers(StompCommand.SUBSCRIBE);
+            accessor.setSubscriptionId("sub-" + destination);
+            accessor.setDestination(destination);
+            // Подписка зарегистрирована в брокере, когда пришёл RECEIPT
+            accessor.setReceipt("receipt-" + destination);
+            inbound.send(frame(accessor, new byte[0]));
+            await(StompCommand.RECEIPT);
+        }
+
+        void assertSubscribeDenied(String destination) {
+            StompHeaderAccessor accessor = headers(StompCommand.SUBSCRIBE);
+            accessor.setSubscriptionId("denied-" + destination);
+            accessor.setDestination(destination);
+            // Перехватчик входящего канала отклоняет кадр до брокера, в STOMP это ERROR клиенту
+            MessageDeliveryException ex = assertThrows(MessageDeliveryException.class,
+                    () -> inbound.send(frame(accessor, new byte[0])), destination);
+            assertInstanceOf(AccessDeniedException.class, ex.getCause(), destination);
+        }
+
+        void send(String destination, String json) {
+            StompHeaderAccessor accessor = headers(StompCommand.SEND);
+            accessor.setDestination(destination);
+            accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            inbound.send(frame(accessor, json.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        String nextMessagePayload() throws InterruptedException {
+            return new String((byte[]) await(StompCommand.MESSAGE).getPayload(), StandardCharsets.UTF_8);
+        }
+
+        private Message<?> await(StompCommand command) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (true) {
+                Message<?> message = received.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                assertNotNull(message, () -> sessionId + " did not receive " + command);
+                StompCommand actual = StompHeaderAccessor.wrap(message).getCommand();
+                assertNotEquals(StompCommand.ERROR, actual, () -> sessionId + " received ERROR: " + message);
+                if (actual == command) return message;
+            }
+        }
+
+        private StompHeaderAccessor headers(StompCommand command) {
+            StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+            accessor.setSessionId(sessionId);
+            accessor.setSessionAttributes(attributes);
+            accessor.setUser(user);
+            return accessor;
+        }
+
+        private static Message<byte[]> frame(StompHeaderAccessor accessor, byte[] payload) {
+            return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+        }
+    }
+}
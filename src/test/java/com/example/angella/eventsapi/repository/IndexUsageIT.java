@@ -0,0 +1,136 @@
+package com.example.angella.eventsapi.repository;
+
+import com.example.angella.eventsapi.ServiceIntegrationTest;
+import com.example.angella.eventsapi.configuration.QueryCounter;
+import com.example.angella.eventsapi.model.EventFilterModel;
+import com.example.angella.eventsapi.repository.specification.EventSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static com.example.angella.eventsapi.QueryCountAssertions.recordQueries;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Планы горячих запросов: репозиторий вызывается по-настоящему, SQL, который сгенерировал Hibernate,
+ * перехватывается {@link QueryCounter} и разбирается через EXPLAIN (GENERIC_PLAN) с параметрами $1, $2...
+ */
+class IndexUsageIT extends ServiceIntegrationTest {
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ChatMessageRepository chatMessageRepository;
+    @Autowired private ImageRepository imageRepository;
+    @Autowired private CommentRepository commentRepository;
+    @Autowired private TaskRepository taskRepository;
+    @Autowired private ChecklistItemRepository checklistItemRepository;
+    @Autowired private EventRepository eventRepository;
+
+    @FunctionalInterface
+    interface HotQuery {
+        void run(IndexUsageIT repositories);
+    }
+
+    @BeforeEach
+    void disableSequentialScans() {
+        // На пустых таблицах планировщик всегда выбирает seq scan,
+        // поэтому запрещаем его в рамках тестовой транзакции
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+    }
+
+    static Stream<Arguments> hotQueries() {
+        return Stream.of(
+                // Без сортировки подходит любой из двух индексов, начинающихся с event_id
+                hotQuery("ChatMessageRepository.findAllByEventId", "chat_message",
+                        Set.of("idx_chat_message_event_id_created_at", "idx_chat_message_event_id_id"),
+                        it -> it.chatMessageRepository.findAllByEventId(1L, PageRequest.of(0, 20))),
+                hotQuery("ChatMessageRepository.findByEventIdAndIdLessThanOrderByIdDesc", "chat_message",
+                        "idx_chat_message_event_id_id",
+                        it -> it.chatMessageRepository.findByEventIdAndIdLessThanOrderByIdDesc(1L, 1000L, PageRequest.of(0, 51))),
+                hotQuery("ImageRepository.findByEventId", "image", "idx_image_event_id",
+                        it -> it.imageRepository.findByEventId(1L)),
+                hotQuery("ImageRepository.findByChatMessageId", "image", "idx_image_chat_message_id",
+                        it -> it.imageRepository.findByChatMessageId(1L)),
+                hotQuery("ImageRepository.findByUserId", "image", "idx_image_user_id",
+                        it -> it.imageRepository.findByUserId(1L)),
+                hotQuery("CommentRepository.findAllByEventId", "comment", "idx_comment_event_id",
+                        it -> it.commentRepository.findAllByEventId(1L, Pageable.unpaged())),
+                hotQuery("TaskRepository.findAllByEventId", "task", "idx_task_event_id",
+                        it -> it.taskRepository.findAllByEventId(1L)),
+                hotQuery("ChecklistItemRepository.findAllByEventId", "checklist_item", "idx_checklist_item_event_id",
+                        it -> it.checklistItemRepository.findAllByEventId(1L)),
+                hotQuery("EventRepository.findAllByParticipantId", "events_participants", "idx_events_participants_user_id",
+                        it -> it.eventRepository.findAllByParticipantId(1L)),
+                hotQuery("EventSpecification by categories", "event_categories", "idx_event_categories_category_id",
+                        it -> it.eventRepository.findAll(EventSpecification.withFilter(
+                                EventFilterModel.builder().categoryIds(Set.of(1L)).build()))),
+                hotQuery("EventRepository.findUpcomingEventCards", "event", "idx_event_start_time",
+                        it -> it.eventRepository.findUpcomingEventCards(Instant.now(), PageRequest.of(0, 6)))
+        );
+    }
+
+    // Имя индекса из узла плана: Index Scan / Index Only Scan (Backward) using <имя>, Bitmap Index Scan on <имя>
+    private static final Pattern INDEX_NODE = Pattern.compile(
+            "(?:Index(?: Only)? Scan(?: Backward)? using|Bitmap Index Scan on) (\\w+)");
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void hotQueries_ShouldUseIndexScan(String repositoryMethod, String table, Set<String> expectedIndexes,
+                                       HotQuery query) {
+        QueryCounter.Recording recording = recordQueries(() -> query.run(this));
+        // Первый запрос к таблице - основной, COUNT страницы и догрузки идут после него
+        Pattern fromTable = Pattern.compile("\\b(from|join) " + table + "\\b", Pattern.CASE_INSENSITIVE);
+        String sql = recording.getStatements().keySet().stream()
+                .filter(statement -> fromTable.matcher(statement).find())
+                .findFirst()
+                .orElse(null);
+        assertNotNull(sql, () -> repositoryMethod + " did not query " + table + ", got " + recording);
+
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN (GENERIC_PLAN) " + numberParameters(sql), String.class);
+        String planText = String.join("\n", plan);
+
+        Set<String> usedIndexes = new HashSet<>();
+        Matcher indexNode = INDEX_NODE.matcher(planText);
+        while (indexNode.find()) {
+            usedIndexes.add(indexNode.group(1));
+        }
+        assertTrue(usedIndexes.stream().anyMatch(expectedIndexes::contains),
+                () -> repositoryMethod + " should use one of " + expectedIndexes + " but plan was:\n" + sql + "\n" + planText);
+        assertFalse(planText.contains("Seq Scan on " + table + " "),
+                () -> repositoryMethod + " should not scan " + table + " sequentially, plan was:\n" + sql + "\n" + planText);
+    }
+
+    private static Arguments hotQuery(String repositoryMethod, String table, String expectedIndex, HotQuery query) {
+        return hotQuery(repositoryMethod, table, Set.of(expectedIndex), query);
+    }
+
+    private static Arguments hotQuery(String repositoryMethod, String table, Set<String> expectedIndexes,
+                                      HotQuery query) {
+        return Arguments.of(repositoryMethod, table, expectedIndexes, query);
+    }
+
+    // JDBC-параметры "?" -> "$1", "$2"...: в таком виде EXPLAIN (GENERIC_PLAN) принимает запрос без значений
+    private static String numberParameters(String sql) {
+        Matcher matcher = Pattern.compile("\\?").matcher(sql);
+        StringBuilder numbered = new StringBuilder();
+        int index = 0;
+        while (matcher.find()) {
+            matcher.appendReplacement(numbered, "\\$" + ++index);
+        }
+        return matcher.appendTail(numbered).toString();
+    }
+}
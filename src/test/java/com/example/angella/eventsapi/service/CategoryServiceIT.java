@@ -0,0 +1,46 @@
+package com.example.angella.eventsapi.service;
+
+import com.example.angella.eventsapi.ServiceIntegrationTest;
+import com.example.angella.eventsapi.entity.Category;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.example.angella.eventsapi.QueryCountAssertions.assertQueryCount;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryServiceIT extends ServiceIntegrationTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Test
+    void findAll_ShouldServeRepeatedCallsFromCache() {
+        List<Category> first = categoryService.findAll();
+
+        List<Category> second = assertQueryCount(0, () -> categoryService.findAll());
+
+        assertSame(first, second);
+        assertThrows(UnsupportedOperationException.class, () -> second.add(new Category()));
+    }
+
+    @Test
+    void upsertCategories_ShouldRefreshCachedListOnlyWhenCategoryIsCreated() {
+        List<Category> before = categoryService.findAll();
+
+        Category existing = new Category();
+        existing.setName(before.get(0).getName());
+        categoryService.upsertCategories(Set.of(existing));
+        assertSame(before, categoryService.findAll());
+
+        Category created = new Category();
+        created.setName("Cached Category");
+        categoryService.upsertCategories(Set.of(created));
+
+        List<Category> after = categoryService.findAll();
+        assertEquals(before.size() + 1, after.size());
+        assertTrue(after.stream().anyMatch(category -> "Cached Category".equals(category.getName())));
+    }
+}
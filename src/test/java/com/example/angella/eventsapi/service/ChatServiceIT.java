@@ -3,18 +3,50 @@ package com.example.angella.eventsapi.service;
 import com.example.angella.eventsapi.ServiceIntegrationTest;
 import com.example.angella.eventsapi.entity.*;
 import com.example.angella.eventsapi.exception.AccessDeniedException;
+import com.example.angella.eventsapi.exception.ClientException;
+import com.example.angella.eventsapi.exception.ServerException;
+import com.example.angella.eventsapi.mapper.ChatMessageMapper;
+import com.example.angella.eventsapi.model.ChatHistorySlice;
 import com.example.angella.eventsapi.model.PageModel;
 import com.example.angella.eventsapi.repository.LocationRepository;
+import com.example.angella.eventsapi.security.AppUserDetails;
+import com.example.angella.eventsapi.security.StompAuthChannelInterceptor;
+import com.example.angella.eventsapi.web.dto.ChatMessageDto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.example.angella.eventsapi.QueryCountAssertions.assertQueryCount;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @Transactional
 class ChatServiceIT extends ServiceIntegrationTest {
@@ -28,6 +60,16 @@ class ChatServiceIT extends ServiceIntegrationTest {
     private UserService userService;
     @Autowired
     private LocationRepository locationRepository;
+    @Autowired
+    private EventAccessService eventAccessService;
+    @Autowired
+    private ChatMessageMapper chatMessageMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private StompAuthChannelInterceptor stompAuthChannelInterceptor;
     // УДАЛЕНО: private ScheduleRepository scheduleRepository;
 
     private User testUser;
@@ -229,4 +271,266 @@ class ChatServiceIT extends ServiceIntegrationTest {
 
         assertFalse(isAuthor);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getMessageHistory_ShouldPageBackwardsWithCursor() {
+        // Тест keyset-пагинации: окна от новых к старым без пропусков и повторов
+        for (int i = 1; i <= 5; i++) {
+            chatService.createMessage("Message " + i, testEvent.getId(), testUser.getId());
+        }
+
+        ChatHistorySlice first = chatService.getMessageHistory(testEvent.getId(), null, 2);
+        assertEquals(List.of("Message 5", "Message 4"), contents(first));
+        assertNotNull(first.olderCursor());
+
+        ChatHistorySlice second = chatService.getMessageHistory(testEvent.getId(), first.olderCursor().encode(), 2);
+        assertEquals(List.of("Message 3", "Message 2"), contents(second));
+
+        ChatHistorySlice last = chatService.getMessageHistory(testEvent.getId(), second.olderCursor().encode(), 2);
+        assertEquals(List.of("Message 1"), contents(last));
+        assertNull(last.olderCursor());
+
+        // Новые сообщения после первого окна
+        chatService.createMessage("Message 6", testEvent.getId(), testUser.getId());
+        ChatHistorySlice newer = chatService.getMessageHistory(testEvent.getId(), first.newerCursor().encode(), 10);
+        assertEquals(List.of("Message 6"), contents(newer));
+    }
+
+    @Test
+    void getMessageHistory_ShouldRejectMalformedCursor() {
+        // Тест проверки непрозрачного курсора
+        assertThrows(ClientException.class,
+                () -> chatService.getMessageHistory(testEvent.getId(), "not-a-cursor", 10));
+    }
+
+    private List<String> contents(ChatHistorySlice slice) {
+        return slice.messages().stream().map(ChatMessage::getContent).toList();
+    }
+
+    // Экземпляр без фонового флашера: запись выполняется только явным flush() в транзакции теста
+    private ChatIngestionService newIngestionService(int queueCapacity) {
+        return newIngestionService(jdbcTemplate, queueCapacity, ChatIngestionService.Backpressure.REJECT);
+    }
+
+    private ChatIngestionService newIngestionService(JdbcTemplate jdbc, int queueCapacity,
+                                                     ChatIngestionService.Backpressure backpressure) {
+        return new ChatIngestionService(
+                chatService, eventAccessService, chatMessageMapper, jdbc, transactionManager,
+                ChatIngestionService.Mode.ASYNC, queueCapacity, 50, Duration.ofSeconds(1),
+                backpressure, Duration.ZERO,
+                ChatIngestionService.Durability.RETRY_IN_MEMORY, 0
+        );
+    }
+
+    // JdbcTemplate, у которого пакетная вставка падает заданное число раз, остальное идёт в БД
+    private JdbcTemplate failingBatchJdbcTemplate(int failures) {
+        JdbcTemplate jdbc = spy(jdbcTemplate);
+        AtomicInteger remaining = new AtomicInteger(failures);
+        doAnswer(invocation -> {
+            if (remaining.getAndDecrement() > 0) {
+                throw new DataAccessResourceFailureException("Database is down");
+            }
+            return invocation.callRealMethod();
+        }).when(jdbc).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        return jdbc;
+    }
+
+    @Test
+    void acceptMessage_ShouldReturnDtoBeforePersistAndSaveOnFlush() {
+        // Тест write-behind: DTO возвращается до записи, после flush сообщения в БД
+        ChatIngestionService ingestionService = newIngestionService(10);
+
+        ChatMessageDto dto = ingestionService.accept(
+                testEvent.getId(), testUser.getId(), testUser.getUsername(), "Queued message", "client-1"
+        );
+        ingestionService.accept(
+                testEvent.getId(), testUser.getId(), testUser.getUsername(), "Queued message 2", "client-2"
+        );
+
+        assertNotNull(dto.getId());
+        assertEquals("client-1", dto.getClientMessageId());
+        assertEquals("chatuser", dto.getAuthor());
+        assertEquals(2, ingestionService.getQueueDepth());
+
+        ingestionService.flush();
+
+        Page<ChatMessage> messages = chatService.getMessages(testEvent.getId(), new PageModel(0, 10));
+        assertEquals(2, messages.getTotalElements());
+        // Id из рассылки совпадает с id сохранённой строки: правка и удаление работают сразу
+        assertTrue(messages.getContent().stream()
+                .anyMatch(m -> m.getId().equals(dto.getId()) && m.getContent().equals("Queued message")));
+        assertEquals(0, ingestionService.getQueueDepth());
+        assertEquals(2, ingestionService.getPersistedCount());
+    }
+
+    @Test
+    void acceptMessage_ShouldAllocateIdsFromOneSequenceBlock() {
+        // Тест пула id: три сообщения - один nextval, id идут подряд внутри блока
+        JdbcTemplate jdbc = spy(jdbcTemplate);
+        ChatIngestionService ingestionService = newIngestionService(jdbc, 10, ChatIngestionService.Backpressure.REJECT);
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            ids.add(ingestionService.accept(
+                    testEvent.getId(), testUser.getId(), testUser.getUsername(), "Message " + i, null).getId());
+        }
+
+        verify(jdbc, times(1)).queryForObject(contains("nextval"), any(RowMapper.class));
+        assertEquals(List.of(ids.get(0), ids.get(0) + 1, ids.get(0) + 2), ids);
+
+        ingestionService.flush();
+        assertEquals(3, ingestionService.getPersistedCount());
+    }
+
+    @Test
+    void acceptMessage_ShouldRejectWhenQueueIsFull() {
+        // Тест backpressure REJECT при заполненной очереди
+        ChatIngestionService ingestionService = newIngestionService(1);
+
+        ingestionService.accept(testEvent.getId(), testUser.getId(), testUser.getUsername(), "First", null);
+
+        assertThrows(ServerException.class, () -> ingestionService.accept(
+                testEvent.getId(), testUser.getId(), testUser.getUsername(), "Second", null
+        ));
+        assertEquals(1, ingestionService.getRejectedCount());
+    }
+
+    @Test
+    void acceptMessage_CallerRuns_ShouldWriteInlineWhenQueueIsFull() {
+        // Тест CALLER_RUNS: при полной очереди сообщение пишется в потоке отправителя, мимо очереди
+        ChatIngestionService ingestionService = newIngestionService(
+                jdbcTemplate, 1, ChatIngestionService.Backpressure.CALLER_RUNS);
+
+        ingestionService.accept(testEvent.getId(), testUser.getId(), testUser.getUsername(), "Queued", null);
+        ChatMessageDto inline = ingestionService.accept(
+                testEvent.getId(), testUser.getId(), testUser.getUsername(), "Inline", null);
+
+        assertEquals(1, ingestionService.getQueueDepth());
+        assertEquals(1, ingestionService.getEnqueuedCount());
+        assertEquals(1, ingestionService.getPersistedCount());
+        assertEquals(0, ingestionService.getRejectedCount());
+        assertEquals("Inline", chatService.getMessages(testEvent.getId(), new PageModel(0, 10))
+                .getContent().stream()
+                .filter(m -> m.getId().equals(inline.getId()))
+                .findFirst().orElseThrow().getContent());
+    }
+
+    @Test
+    void acceptMessage_CallerRuns_ShouldRejectWhenInlineWriteFails() {
+        // Тест CALLER_RUNS при недоступной БД: отправитель получает ошибку, а не ложное подтверждение
+        ChatIngestionService ingestionService = newIngestionService(
+                failingBatchJdbcTemplate(Integer.MAX_VALUE), 1, ChatIngestionService.Backpressure.CALLER_RUNS);
+
+        ingestionService.accept(testEvent.getId(), testUser.getId(), testUser.getUsername(), "Queued", null);
+
+        assertThrows(ServerException.class, () -> ingestionService.accept(
+                testEvent.getId(), testUser.getId(), testUser.getUsername(), "Inline", null));
+        assertEquals(1, ingestionService.getRejectedCount());
+        assertEquals(1, ingestionService.getEnqueuedCount());
+        assertEquals(0, ingestionService.getPersistedCount());
+        // Неудачная запись в потоке отправителя не занимает место в очереди
+        assertEquals(1, ingestionService.getQueueDepth());
+    }
+
+    @Test
+    void flush_ShouldRequeueBatchInOrderWhenDatabaseIsDown() {
+        // Тест RETRY_IN_MEMORY: упавший пакет возвращается в голову очереди и пишется следующим flush
+        ChatIngestionService ingestionService = newIngestionService(
+                failingBatchJdbcTemplate(1), 10, ChatIngestionService.Backpressure.REJECT);
+        for (int i = 1; i <= 3; i++) {
+            ingestionService.accept(testEvent.getId(), testUser.getId(), testUser.getUsername(), "Message " + i, null);
+        }
+
+        ingestionService.flush();
+
+        assertEquals(3, ingestionService.getQueueDepth());
+        assertEquals(0, ingestionService.getPersistedCount());
+        assertEquals(0, ingestionService.getDroppedCount());
+
+        ingestionService.flush();
+
+        assertEquals(0, ingestionService.getQueueDepth());
+        assertEquals(3, ingestionService.getPersistedCount());
+        assertEquals(List.of("Message 3", "Message 2", "Message 1"),
+                contents(chatService.getMessageHistory(testEvent.getId(), null, 10)));
+    }
+
+    @Test
+    void acceptMessage_ShouldRejectNonParticipant() {
+        // Тест проверки членства перед постановкой в очередь
+        User otherUser = new User();
+        otherUser.setUsername("otheruser4");
+        otherUser.setEmail("other4@test.com");
+        otherUser.setPassword("password");
+        User registeredOtherUser = userService.registerUser(otherUser);
+
+        assertThrows(AccessDeniedException.class, () -> newIngestionService(10).accept(
+                testEvent.getId(), registeredOtherUser.getId(), "otheruser4", "Spam", null
+        ));
+    }
+
+    @Test
+    void stompSession_ShouldResolveUserAtConnectAndAuthorizeChatSubscription() {
+        // Тест STOMP-перехватчика: id из CONNECT в атрибутах сессии, подписка на чат только для участников
+        User otherUser = new User();
+        otherUser.setUsername("otheruser5");
+        otherUser.setEmail("other5@test.com");
+        otherUser.setPassword("password");
+        User registeredOtherUser = userService.registerUser(otherUser);
+
+        Map<String, Object> session = new HashMap<>();
+        stompAuthChannelInterceptor.preSend(stompFrame(StompCommand.CONNECT, session, testUser, null), null);
+
+        assertEquals(testUser.getId(), session.get(StompAuthChannelInterceptor.USER_ID_ATTRIBUTE));
+
+        // Проверка членства кэшируется: повторная подписка (переподключение) идёт без БД
+        String chatTopic = "/topic/chat/" + testEvent.getId();
+        stompAuthChannelInterceptor.preSend(stompFrame(StompCommand.SUBSCRIBE, session, testUser, chatTopic), null);
+        assertQueryCount(0, () -> stompAuthChannelInterceptor.preSend(
+                stompFrame(StompCommand.SUBSCRIBE, session, testUser, chatTopic), null));
+
+        Map<String, Object> otherSession = new HashMap<>();
+        stompAuthChannelInterceptor.preSend(stompFrame(StompCommand.CONNECT, otherSession, registeredOtherUser, null), null);
+        assertThrows(AccessDeniedException.class, () -> stompAuthChannelInterceptor.preSend(
+                stompFrame(StompCommand.SUBSCRIBE, otherSession, registeredOtherUser, chatTopic), null));
+        assertThrows(AccessDeniedException.class, () -> stompAuthChannelInterceptor.preSend(
+                stompFrame(StompCommand.SUBSCRIBE, new HashMap<>(), null, chatTopic), null));
+
+        // Дельты задач и списка вещей закрыты так же, как чат
+        for (String feedTopic : List.of("/topic/tasks/" + testEvent.getId(), "/topic/checklist/" + testEvent.getId())) {
+            stompAuthChannelInterceptor.preSend(stompFrame(StompCommand.SUBSCRIBE, session, testUser, feedTopic), null);
+            assertThrows(AccessDeniedException.class, () -> stompAuthChannelInterceptor.preSend(
+                    stompFrame(StompCommand.SUBSCRIBE, otherSession, registeredOtherUser, feedTopic), null), feedTopic);
+        }
+    }
+
+    @Test
+    void stompSession_ShouldRejectWildcardChatSubscription() {
+        // Тест подписки шаблоном: брокер разворачивает его в чаты всех событий, участник он или нет
+        Map<String, Object> session = new HashMap<>();
+        stompAuthChannelInterceptor.preSend(stompFrame(StompCommand.CONNECT, session, testUser, null), null);
+
+        for (String destination : List.of("/topic/chat/*", "/topic/chat/**", "/topic/**", "/topic/chat/?",
+                "/topic/chat/{id}", "/topic/chat/", "/topic/chat/" + testEvent.getId() + "/x",
+                "/topic/#", "/topic/>", "/topic/chat.#", "/topic/chat." + testEvent.getId(),
+                "/topic/simp-user-registry", "/topic/unresolved-user-destination", "/queue/chat", "/app/chat")) {
+            assertThrows(AccessDeniedException.class, () -> stompAuthChannelInterceptor.preSend(
+                    stompFrame(StompCommand.SUBSCRIBE, session, testUser, destination), null), destination);
+        }
+    }
+
+    private Message<byte[]> stompFrame(StompCommand command, Map<String, Object> session, User user, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId("session-" + System.identityHashCode(session));
+        accessor.setSessionAttributes(session);
+        if (command == StompCommand.SUBSCRIBE) {
+            accessor.setSubscriptionId("sub-0");
+            accessor.setDestination(destination);
+        }
+        if (user != null) {
+            AppUserDetails details = new AppUserDetails(user);
+            accessor.setUser(new UsernamePasswordAuthenticationToken(details, null, details.getAuthorities()));
+        }
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -6,13 +6,26 @@ import com.example.angella.eventsapi.exception.AccessDeniedException;
 import com.example.angella.eventsapi.exception.EntityNotFoundException;
 import com.example.angella.eventsapi.repository.ChecklistItemRepository;
 import com.example.angella.eventsapi.repository.LocationRepository;
+import com.example.angella.eventsapi.web.dto.ChecklistItemDto;
+import com.example.angella.eventsapi.web.dto.FeedSnapshotDto;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,6 +38,9 @@ class ChecklistServiceIT extends ServiceIntegrationTest {
     @Autowired private UserService userService;
     @Autowired private ChecklistItemRepository checklistItemRepository;
     @Autowired private LocationRepository locationRepository;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired @Qualifier("brokerChannel") private SubscribableChannel brokerChannel;
 
     private User organizer;
     private User participant1;
@@ -246,6 +262,45 @@ class ChecklistServiceIT extends ServiceIntegrationTest {
         assertFalse(checklistService.isItemCreator(item.getId(), participant1.getId()));
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void checklistChanges_ShouldBePublishedAsVersionedDeltasAfterCommit() throws Exception {
+        // Тест дельт списка вещей: версии идут подряд, рассылка только после настоящего коммита
+        List<Message<?>> published = new ArrayList<>();
+        MessageHandler handler = published::add;
+        brokerChannel.subscribe(handler);
+        try {
+            ChecklistItem item = new TransactionTemplate(transactionManager).execute(status -> {
+                ChecklistItem created = checklistService.createItem(
+                        "Tent", null, 1, testEvent.getId(), organizer.getId(), null
+                );
+                checklistService.toggleItemCompletion(created.getId(), participant1.getId());
+                // До коммита клиенты ничего не получают
+                assertTrue(published.isEmpty());
+                return created;
+            });
+
+            FeedSnapshotDto<ChecklistItemDto> snapshot = checklistService.getChecklistSnapshot(testEvent.getId());
+            assertEquals(2L, snapshot.getVersion());
+            assertEquals(1, snapshot.getItems().size());
+            assertTrue(snapshot.getItems().get(0).isCompleted());
+
+            assertEquals(2, published.size());
+            assertEquals("/topic/checklist/" + testEvent.getId(),
+                    SimpMessageHeaderAccessor.getDestination(published.get(1).getHeaders()));
+            JsonNode created = objectMapper.readTree((byte[]) published.get(0).getPayload());
+            JsonNode toggled = objectMapper.readTree((byte[]) published.get(1).getPayload());
+            assertEquals("CREATED", created.get("type").asText());
+            assertEquals(1L, created.get("version").asLong());
+            assertEquals("TOGGLED", toggled.get("type").asText());
+            assertEquals(2L, toggled.get("version").asLong());
+            assertEquals(item.getId(), toggled.get("id").asLong());
+            assertTrue(toggled.get("item").get("completed").asBoolean());
+        } finally {
+            brokerChannel.unsubscribe(handler);
+        }
+    }
+
     // Вспомогательные методы
     private User createUser(String username, String email) {
         User user = new User();
@@ -0,0 +1,103 @@
+package com.example.angella.eventsapi.service;
+
+import com.example.angella.eventsapi.ServiceIntegrationTest;
+import com.example.angella.eventsapi.entity.Category;
+import com.example.angella.eventsapi.entity.Event;
+import com.example.angella.eventsapi.entity.Location;
+import com.example.angella.eventsapi.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static com.example.angella.eventsapi.QueryCountAssertions.assertQueryCount;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CityDirectoryServiceIT extends ServiceIntegrationTest {
+
+    @Autowired
+    private CityDirectoryService cityDirectoryService;
+    @Autowired
+    private EventService eventService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CategoryService categoryService;
+
+    private User creator;
+    private Set<Category> categories;
+
+    @BeforeEach
+    void setUp() {
+        creator = new User();
+        creator.setUsername("citycreator");
+        creator.setEmail("citycreator@example.com");
+        creator.setPassword("password");
+        creator = userService.registerUser(creator);
+
+        Category category = new Category();
+        category.setName("City Category");
+        categories = categoryService.upsertCategories(Set.of(category));
+
+        createEvents("Москва", 3);
+        createEvents("Новосибирск", 2);
+        createEvents("Нижний Новгород", 1);
+        createEvents("Великий Новгород", 1);
+    }
+
+    @Test
+    void search_ShouldRankNamePrefixThenWordPrefixThenPopularity() {
+        assertEquals(List.of("Новосибирск", "Великий Новгород", "Нижний Новгород"),
+                cityDirectoryService.search("нов", null));
+        assertEquals(List.of("Новосибирск"), cityDirectoryService.search("Нов", 1));
+        assertEquals(List.of("Москва", "Новосибирск"), cityDirectoryService.search("  ", 2));
+        assertEquals(List.of(), cityDirectoryService.search("казань", null));
+    }
+
+    @Test
+    void getAllCities_ShouldListCitiesAlphabeticallyFromDirectory() {
+        List<String> cities = cityDirectoryService.getAllCities();
+
+        assertEquals(List.of("Великий Новгород", "Москва", "Нижний Новгород", "Новосибирск"), cities);
+        assertSame(cities, assertQueryCount(0, () -> cityDirectoryService.getAllCities()));
+    }
+
+    @Test
+    void search_ShouldAnswerWarmRequestsWithoutQueries() {
+        cityDirectoryService.search("мос", null);
+
+        assertEquals(List.of("Москва"), assertQueryCount(0, () -> cityDirectoryService.search("мос", null)));
+        assertEquals(List.of("Москва"), assertQueryCount(0, () -> cityDirectoryService.search("моск", null)));
+    }
+
+    @Test
+    void search_ShouldReloadAfterEventLocationsChange() {
+        assertEquals(List.of(), cityDirectoryService.search("новок", null));
+
+        createEvents("Новокузнецк", 1);
+
+        assertEquals(List.of("Новокузнецк"), cityDirectoryService.search("новок", null));
+    }
+
+    private void createEvents(String city, int count) {
+        for (int i = 0; i < count; i++) {
+            Event event = new Event();
+            event.setName("City Event " + city + " " + i);
+            event.setDescription("City event description");
+            event.setStartTime(Instant.now().plusSeconds(3600));
+            event.setEndTime(Instant.now().plusSeconds(7200));
+            event.setCategories(categories);
+
+            Location location = new Location();
+            location.setCity(city);
+            location.setStreet("Street " + i);
+            event.setLocation(location);
+
+            eventService.create(event, creator.getId());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.angella.eventsapi.service;
+
+import com.example.angella.eventsapi.ServiceIntegrationTest;
+import com.example.angella.eventsapi.entity.Category;
+import com.example.angella.eventsapi.entity.Event;
+import com.example.angella.eventsapi.entity.Location;
+import com.example.angella.eventsapi.entity.User;
+import com.example.angella.eventsapi.exception.EntityNotFoundException;
+import com.example.angella.eventsapi.mapper.EventMapper;
+import com.example.angella.eventsapi.model.PageModel;
+import com.example.angella.eventsapi.web.dto.CategoryDto;
+import com.example.angella.eventsapi.web.dto.EventDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.example.angella.eventsapi.QueryCountAssertions.assertQueryCount;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventReadServiceIT extends ServiceIntegrationTest {
+
+    @Autowired
+    private EventReadService eventReadService;
+    @Autowired
+    private EventService eventService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private EventMapper eventMapper;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User creator;
+    private Set<Category> categories;
+
+    @BeforeEach
+    void setUp() {
+        creator = new User();
+        creator.setUsername("readcreator");
+        creator.setEmail("readcreator@example.com");
+        creator.setPassword("password");
+        creator.setFirstName("Read");
+        creator.setLastName("Creator");
+        creator = userService.registerUser(creator);
+
+        Category music = new Category();
+        music.setName("Read Music");
+        Category sport = new Category();
+        sport.setName("Read Sport");
+        categories = categoryService.upsertCategories(Set.of(music, sport));
+    }
+
+    @Test
+    void findPage_ShouldMatchEntityMappingWithoutManagedEntities() {
+        for (int i = 1; i <= 3; i++) {
+            createEvent("Read Event " + i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<EventDto> expected = eventMapper.toDtoList(eventService.findAll()).stream()
+                .sorted(Comparator.comparing(EventDto::getId))
+                .toList();
+        entityManager.clear();
+
+        // COUNT, события, категории и роли создателей - независимо от размера страницы
+        Page<EventDto> page = assertQueryCount(4, () -> eventReadService.findPage(new PageModel(0, 10)));
+
+        assertEquals(expected, page.getContent());
+        assertEquals(3, page.getTotalElements());
+        assertEquals(2, page.getContent().get(0).getCategories().size());
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void findPage_ShouldCapPageSize() {
+        createEvent("Read Capped");
+        entityManager.flush();
+
+        Page<EventDto> page = eventReadService.findPage(new PageModel(0, 100_000));
+
+        assertEquals(100, page.getSize());
+        assertEquals(1, page.getTotalElements());
+    }
+
+    @Test
+    void writeExport_ShouldWriteOneJsonLinePerEvent() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            ids.add(createEvent("Read Export " + i).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        eventReadService.writeExport(output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(3, lines.size());
+        List<EventDto> exported = new ArrayList<>();
+        for (String line : lines) {
+            exported.add(objectMapper.readValue(line, EventDto.class));
+        }
+        assertEquals(ids, exported.stream().map(EventDto::getId).toList());
+        assertEquals(eventReadService.getById(ids.get(0)), exported.get(0));
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void getById_ShouldBuildDtoFromProjections() {
+        Event event = createEvent("Read Single");
+        entityManager.flush();
+        entityManager.clear();
+
+        EventDto dto = eventReadService.getById(event.getId());
+
+        assertEquals("Read Single", dto.getName());
+        assertEquals("Read City", dto.getLocation().getCity());
+        assertEquals("readcreator", dto.getCreator().getUsername());
+        assertEquals(Set.of("ROLE_USER"), dto.getCreator().getRoles());
+        assertEquals(Set.of("Read Music", "Read Sport"),
+                dto.getCategories().stream().map(CategoryDto::getName).collect(Collectors.toSet()));
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void getById_ShouldThrowForMissingEvent() {
+        assertThrows(EntityNotFoundException.class, () -> eventReadService.getById(Long.MAX_VALUE));
+    }
+
+    private Event createEvent(String name) {
+        Event event = new Event();
+        event.setName(name);
+        event.setDescription("Read model description");
+        event.setStartTime(Instant.now().plusSeconds(3600));
+        event.setEndTime(Instant.now().plusSeconds(7200));
+        event.setCategories(categories);
+
+        Location location = new Location();
+        location.setCity("Read City");
+        location.setStreet("Read Street");
+        event.setLocation(location);
+
+        return eventService.create(event, creator.getId());
+    }
+}
@@ -1,16 +1,30 @@
 package com.example.angella.eventsapi.service;
 
 import com.example.angella.eventsapi.ServiceIntegrationTest;
+import com.example.angella.eventsapi.configuration.QueryCounter;
 import com.example.angella.eventsapi.entity.*;
 import com.example.angella.eventsapi.exception.AccessDeniedException;
+import com.example.angella.eventsapi.model.EventFilterModel;
+import com.example.angella.eventsapi.model.PageModel;
+import com.example.angella.eventsapi.web.dto.EventCardDto;
 import com.example.angella.eventsapi.web.dto.UpdateEventRequest;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
 
+import static com.example.angella.eventsapi.QueryCountAssertions.assertQueryCount;
+import static com.example.angella.eventsapi.QueryCountAssertions.assertSameQueryCount;
+import static com.example.angella.eventsapi.QueryCountAssertions.assertTablesNotQueried;
+import static com.example.angella.eventsapi.QueryCountAssertions.recordQueries;
 import static org.junit.jupiter.api.Assertions.*;
 
 class EventServiceIT extends ServiceIntegrationTest {
@@ -21,6 +35,12 @@ class EventServiceIT extends ServiceIntegrationTest {
     private UserService userService;
     @Autowired
     private CategoryService categoryService;
+    @Autowired
+    private EventAccessService eventAccessService;
+    @Autowired
+    private CommentService commentService;
+    @Autowired
+    private EntityManager entityManager;
 
     private User testUser;
     private Category testCategory;
@@ -92,6 +112,27 @@ class EventServiceIT extends ServiceIntegrationTest {
         assertTrue(eventService.hasParticipant(event.getId(), participant.getId()));
     }
 
+    @Test
+    void hasParticipant_ShouldBeServedFromCacheAndRefreshedOnMembershipChange() {
+        Event event = createTestEvent();
+        User participant = createTestUser("cachedparticipant");
+
+        // Отказ не кэшируется: повторная проверка снова идёт в БД
+        assertFalse(eventService.hasParticipant(event.getId(), participant.getId()));
+        long hitsBefore = eventAccessService.getParticipantCacheStats().hitCount();
+        assertFalse(eventService.hasParticipant(event.getId(), participant.getId()));
+        assertEquals(hitsBefore, eventAccessService.getParticipantCacheStats().hitCount());
+
+        // Положительный ответ кэшируется, удаление участника его сбрасывает
+        eventService.addParticipant(event.getId(), participant.getId());
+        assertTrue(eventService.hasParticipant(event.getId(), participant.getId()));
+        assertTrue(eventService.hasParticipant(event.getId(), participant.getId()));
+        assertEquals(hitsBefore + 1, eventAccessService.getParticipantCacheStats().hitCount());
+
+        eventService.removeParticipant(event.getId(), participant.getId());
+        assertFalse(eventService.hasParticipant(event.getId(), participant.getId()));
+    }
+
     @Test
     void updateEvent_ShouldThrowWhenNotCreator() {
         // Создание тестового события
@@ -123,6 +164,245 @@ class EventServiceIT extends ServiceIntegrationTest {
         assertEquals("Detailed event description with schedule information", savedEvent.getDescription());
     }
 
+    @Test
+    void searchUpcomingEvents_ShouldFilterByNameAndSkipPastEvents() {
+        // Будущее событие, подходящее под поиск
+        Event matching = buildTestEvent();
+        matching.setName("Summer Jazz Night");
+        eventService.create(matching, testUser.getId());
+
+        // Прошедшее событие с тем же названием
+        Event past = buildTestEvent();
+        past.setName("Winter Jazz Night");
+        past.setStartTime(Instant.now().minusSeconds(7200));
+        past.setEndTime(Instant.now().minusSeconds(3600));
+        eventService.create(past, testUser.getId());
+
+        // Будущее событие, не подходящее под поиск
+        createTestEvent();
+
+        EventFilterModel filterModel = EventFilterModel.builder()
+                .page(new PageModel(0, 10))
+                .search("jazz")
+                .build();
+
+        Page<Event> page = eventService.searchUpcomingEvents(filterModel);
+
+        assertEquals(1, page.getTotalElements());
+        assertEquals("Summer Jazz Night", page.getContent().get(0).getName());
+    }
+
+    @Test
+    void searchUpcomingEvents_ShouldMatchCityIgnoringCaseWithoutChangingFilter() {
+        createTestEvent();
+
+        Event otherCity = buildTestEvent();
+        otherCity.getLocation().setCity("Other City");
+        eventService.create(otherCity, testUser.getId());
+
+        EventFilterModel filterModel = EventFilterModel.builder()
+                .page(new PageModel(0, 10))
+                .city("test CITY")
+                .build();
+
+        Page<Event> page = eventService.searchUpcomingEvents(filterModel);
+
+        assertEquals(1, page.getTotalElements());
+        assertEquals("Test City", page.getContent().get(0).getLocation().getCity());
+        // Фильтр вызывающего остается как был
+        assertNull(filterModel.getUpcomingOnly());
+    }
+
+    @Test
+    void searchUpcomingEvents_ShouldMatchWordFormsAndRankNameAboveDescription() {
+        Event inDescription = buildTestEvent();
+        inDescription.setName("Вечер в парке");
+        inDescription.setDescription("Большой джазовый концерт под открытым небом");
+        eventService.create(inDescription, testUser.getId());
+
+        Event inName = buildTestEvent();
+        inName.setName("Рок-концерты выходного дня");
+        inName.setStartTime(Instant.now().plusSeconds(7200));
+        inName.setEndTime(Instant.now().plusSeconds(10800));
+        eventService.create(inName, testUser.getId());
+
+        createTestEvent();
+
+        // Другая словоформа, только в описании у одного из событий
+        Page<Event> page = eventService.searchUpcomingEvents(EventFilterModel.builder()
+                .page(new PageModel(0, 10))
+                .search("концертов")
+                .categoryIds(Set.of(testCategory.getId()))
+                .build());
+
+        assertEquals(2, page.getTotalElements());
+        assertEquals(List.of("Рок-концерты выходного дня", "Вечер в парке"),
+                page.getContent().stream().map(Event::getName).toList());
+    }
+
+    @Test
+    void filter_SearchShouldUseEnglishStemmingAndPrefixes() {
+        Event running = buildTestEvent();
+        running.setName("Morning running club");
+        eventService.create(running, testUser.getId());
+        createTestEvent();
+
+        assertEquals(1, eventService.filter(searchFor("runs")).getTotalElements());
+        assertEquals(1, eventService.filter(searchFor("morn clu")).getTotalElements());
+        // Операторы tsquery во вводе пользователя не ломают запрос
+        assertEquals(1, eventService.filter(searchFor("running & | !(")).getTotalElements());
+        assertEquals(2, eventService.filter(searchFor("   ")).getTotalElements());
+    }
+
+    @Test
+    void findUpcomingEvents_ShouldReturnNearestFutureEventCards() {
+        // Семь будущих событий и одно прошедшее
+        for (int i = 1; i <= 7; i++) {
+            Event event = buildTestEvent();
+            event.setName("Event " + i);
+            event.setStartTime(Instant.now().plusSeconds(3600L * i));
+            event.setEndTime(Instant.now().plusSeconds(3600L * i + 1800));
+            eventService.create(event, testUser.getId());
+        }
+        Event past = buildTestEvent();
+        past.setName("Past Event");
+        past.setStartTime(Instant.now().minusSeconds(7200));
+        past.setEndTime(Instant.now().minusSeconds(3600));
+        eventService.create(past, testUser.getId());
+
+        List<EventCardDto> cards = eventService.findUpcomingEvents();
+
+        assertEquals(6, cards.size());
+        assertEquals("Event 1", cards.get(0).getName());
+        assertEquals("TestCategory", cards.get(0).getCategoryName());
+        assertEquals(1L, cards.get(0).getParticipantsCount());
+        assertEquals("Test City", cards.get(0).getCity());
+    }
+
+    @Test
+    void findFeaturedEvents_ShouldUseSingleQuery() {
+        for (int i = 1; i <= 3; i++) {
+            createTestEvent();
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // Карточки собираются одной проекцией вместе с категорией, участниками и изображением
+        List<EventCardDto> cards = assertQueryCount(1, () -> eventService.findFeaturedEvents());
+
+        assertEquals(3, cards.size());
+    }
+
+    @Test
+    void getById_QueryCountShouldNotDependOnParticipants() {
+        Event small = createTestEvent();
+        Event large = createTestEvent();
+        for (int i = 1; i <= 10; i++) {
+            eventService.addParticipant(large.getId(), createTestUser("budget" + i).getId());
+        }
+        entityManager.flush();
+
+        assertSameQueryCount(
+                () -> {
+                    entityManager.clear();
+                    eventService.getById(small.getId());
+                },
+                () -> {
+                    entityManager.clear();
+                    eventService.getById(large.getId());
+                });
+    }
+
+    @Test
+    void filter_QueryCountShouldNotDependOnPageSize() {
+        createNamedEvents("Budget Small", 2);
+        createNamedEvents("Budget Large", 8);
+        entityManager.flush();
+
+        assertSameQueryCount(
+                () -> {
+                    entityManager.clear();
+                    assertEquals(2, eventService.filter(filterByName("Budget Small")).getNumberOfElements());
+                },
+                () -> {
+                    entityManager.clear();
+                    assertEquals(8, eventService.filter(filterByName("Budget Large")).getNumberOfElements());
+                });
+    }
+
+    @Test
+    void filter_ShouldPageInDatabase() {
+        // Тест постраничного фильтра: страница режется в SQL, а не в памяти после join категорий
+        createNamedEvents("Paged Event", 3);
+        entityManager.flush();
+        entityManager.clear();
+        EventFilterModel filterModel = EventFilterModel.builder()
+                .page(new PageModel(1, 2))
+                .name("Paged Event")
+                .build();
+
+        AtomicReference<Page<Event>> page = new AtomicReference<>();
+        QueryCounter.Recording recording = recordQueries(() -> page.set(eventService.filter(filterModel)));
+
+        assertEquals(1, page.get().getNumberOfElements());
+        assertEquals(3, page.get().getTotalElements());
+        assertTrue(Hibernate.isInitialized(page.get().getContent().get(0).getCategories()));
+        String pageSql = recording.getStatements().keySet().stream()
+                .filter(sql -> sql.toLowerCase().contains("from event ") && !sql.toLowerCase().contains("count("))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No page query in " + recording));
+        assertTrue(Pattern.compile("\\b(limit|fetch first)\\b", Pattern.CASE_INSENSITIVE).matcher(pageSql).find(),
+                () -> "Page query has no LIMIT: " + pageSql);
+        assertTrue(Pattern.compile("\\boffset\\b", Pattern.CASE_INSENSITIVE).matcher(pageSql).find(),
+                () -> "Page query has no OFFSET: " + pageSql);
+        assertFalse(pageSql.toLowerCase().contains("event_categories"),
+                () -> "Page query joins categories: " + pageSql);
+    }
+
+    @Test
+    void listUseCases_ShouldNotTouchCommentsChatMessagesOrTasks() {
+        // create() добавляет приветственное сообщение, задачу и пункт чек-листа
+        Event event = createTestEvent();
+        Comment comment = new Comment();
+        comment.setText("Budget comment");
+        commentService.save(comment, testUser.getId(), event.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        EventFilterModel filterModel = EventFilterModel.builder().page(new PageModel(0, 10)).build();
+
+        assertTablesNotQueried(() -> {
+            assertEquals(1, eventService.filter(filterModel).getNumberOfElements());
+            assertEquals(1, eventService.findAll().size());
+            assertEquals(1, eventService.findAllForAdmin().size());
+            assertEquals(1, eventService.findAllUserEvents(testUser.getId()).size());
+            assertEquals(1, eventService.findUserEventsWithImages(testUser.getId()).size());
+            eventService.getById(event.getId());
+        }, "chat_message", "comment", "task");
+    }
+
+    private void createNamedEvents(String name, int count) {
+        for (int i = 0; i < count; i++) {
+            Event event = buildTestEvent();
+            event.setName(name);
+            eventService.create(event, testUser.getId());
+        }
+    }
+
+    private EventFilterModel searchFor(String search) {
+        return EventFilterModel.builder()
+                .page(new PageModel(0, 10))
+                .search(search)
+                .build();
+    }
+
+    private EventFilterModel filterByName(String name) {
+        return EventFilterModel.builder()
+                .page(new PageModel(0, 10))
+                .name(name)
+                .build();
+    }
+
     // Вспомогательный метод для создания тестового события (уже сохраненного в БД)
     private Event createTestEvent() {
         Event event = buildTestEvent();
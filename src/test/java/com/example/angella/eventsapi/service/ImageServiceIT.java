@@ -5,6 +5,8 @@ import com.example.angella.eventsapi.entity.*;
 import com.example.angella.eventsapi.exception.AccessDeniedException;
 import com.example.angella.eventsapi.exception.EntityNotFoundException;
 import com.example.angella.eventsapi.repository.LocationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +20,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -29,6 +32,7 @@ class ImageServiceIT extends ServiceIntegrationTest {
     @Autowired private EventService eventService;
     @Autowired private ChatService chatService;
     @Autowired private LocationRepository locationRepository;
+    @Autowired private MeterRegistry meterRegistry;
 
     private User user1;
     private User user2;
@@ -108,6 +112,35 @@ class ImageServiceIT extends ServiceIntegrationTest {
         assertEquals("test.jpg", eventImages.get(0).getOriginalFilename());
     }
 
+    @Test
+    void getEventImages_ForSeveralEvents_ShouldGroupByEventAndPickMainImage() {
+        // Arrange
+        Event secondEvent = new Event();
+        secondEvent.setName("Second Event");
+        secondEvent.setDescription("Second Event Description");
+        secondEvent.setStartTime(Instant.now().plusSeconds(3600));
+        secondEvent.setEndTime(Instant.now().plusSeconds(7200));
+        secondEvent.setLocation(locationRepository.save(new Location("Second City", "Second Street", null)));
+        secondEvent.setCreator(user1);
+        secondEvent = eventService.create(secondEvent, user1.getId());
+
+        imageService.uploadEventImage(testImageJpg, testEvent.getId(), user1.getId());
+        imageService.uploadEventImage(testImagePng, testEvent.getId(), user1.getId());
+        imageService.uploadEventImage(testImageGif, secondEvent.getId(), user1.getId());
+
+        List<Long> eventIds = List.of(testEvent.getId(), secondEvent.getId());
+
+        // Act
+        Map<Long, List<Image>> images = imageService.getEventImages(eventIds);
+        Map<Long, Image> mainImages = imageService.getMainEventImages(eventIds);
+
+        // Assert
+        assertEquals(2, images.get(testEvent.getId()).size());
+        assertEquals(1, images.get(secondEvent.getId()).size());
+        assertEquals("test.jpg", mainImages.get(testEvent.getId()).getOriginalFilename());
+        assertEquals("test.gif", mainImages.get(secondEvent.getId()).getOriginalFilename());
+    }
+
     @Test
     void uploadEventImage_ByNonParticipant_ShouldThrowAccessDenied() {
         // Arrange
@@ -255,6 +288,24 @@ class ImageServiceIT extends ServiceIntegrationTest {
         assertEquals("default-avatar.png", defaultAvatar.getFilename());
     }
 
+    @Test
+    void uploadEventImage_ShouldRecordUploadedBytesAndServiceTimer() {
+        // Arrange - счётчики общие для контекста, сравниваем с исходными значениями
+        Counter uploadBytes = meterRegistry.counter("app.images.upload", "target", "event");
+        double bytesBefore = uploadBytes.count();
+
+        // Act
+        imageService.uploadEventImage(testImageJpg, testEvent.getId(), user1.getId());
+
+        // Assert
+        assertEquals(bytesBefore + 1024, uploadBytes.count());
+        assertTrue(meterRegistry.get("app.service")
+                .tag("class", "ImageService")
+                .tag("method", "uploadEventImage")
+                .tag("exception", "none")
+                .timer().count() > 0);
+    }
+
     @Test
     void multipleImageUploads_ShouldNotConflict() throws IOException {
         // Arrange
@@ -0,0 +1,93 @@
+package com.example.angella.eventsapi.service;
+
+import com.example.angella.eventsapi.ServiceIntegrationTest;
+import com.example.angella.eventsapi.entity.Event;
+import com.example.angella.eventsapi.entity.Location;
+import com.example.angella.eventsapi.entity.User;
+import com.example.angella.eventsapi.repository.LocationRepository;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Transactional
+class PdfReportServiceIT extends ServiceIntegrationTest {
+
+    @Autowired private PdfReportService pdfReportService;
+    @Autowired private StatisticsService statisticsService;
+    @Autowired private EventService eventService;
+    @Autowired private UserService userService;
+    @Autowired private LocationRepository locationRepository;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setUsername("reportuser");
+        testUser.setEmail("report@example.com");
+        testUser.setPassword("password");
+        testUser = userService.registerUser(testUser);
+    }
+
+    @Test
+    void writeStatisticsReport_WithEventDetails_ShouldPageThroughAllEvents() throws IOException {
+        // Тест потоковой записи отчета: событий больше, чем помещается в одну страницу выборки
+        Location location = locationRepository.save(new Location("Report City", "Report Street", null));
+        for (int i = 0; i < 210; i++) {
+            Event event = new Event();
+            event.setName("Report Event " + i);
+            event.setDescription("Event for PDF report");
+            event.setStartTime(Instant.now().plus(i, ChronoUnit.HOURS));
+            event.setEndTime(Instant.now().plus(i + 1, ChronoUnit.HOURS));
+            event.setLocation(location);
+            eventService.create(event, testUser.getId());
+        }
+
+        Map<String, Object> stats = statisticsService.getDetailedStatistics();
+        ByteArrayOutputStream withoutDetails = new ByteArrayOutputStream();
+        ByteArrayOutputStream withDetails = new ByteArrayOutputStream();
+
+        pdfReportService.writeStatisticsReport(stats, false, withoutDetails);
+        pdfReportService.writeStatisticsReport(stats, true, withDetails);
+
+        // Разбираем готовый PDF: в таблице должны оказаться все 210 строк, а не только первая выборка
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(withDetails.toByteArray())))) {
+            assertTrue(document.getNumberOfPages() > 1);
+
+            StringBuilder text = new StringBuilder();
+            for (int page = 1; page <= document.getNumberOfPages(); page++) {
+                text.append(PdfTextExtractor.getTextFromPage(document.getPage(page))).append('\n');
+            }
+
+            Set<Integer> renderedRows = new TreeSet<>();
+            Matcher matcher = Pattern.compile("Report Event (\\d+)").matcher(text);
+            while (matcher.find()) {
+                renderedRows.add(Integer.valueOf(matcher.group(1)));
+            }
+            assertEquals(IntStream.range(0, 210).boxed().collect(Collectors.toSet()), renderedRows);
+        }
+
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(withoutDetails.toByteArray())))) {
+            assertFalse(PdfTextExtractor.getTextFromPage(document.getLastPage()).contains("Report Event"));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.angella.eventsapi.service;
+
+import com.example.angella.eventsapi.ServiceIntegrationTest;
+import com.example.angella.eventsapi.entity.*;
+import com.example.angella.eventsapi.model.StatisticsSnapshot;
+import com.example.angella.eventsapi.repository.LocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Transactional
+class StatisticsServiceIT extends ServiceIntegrationTest {
+
+    @Autowired private StatisticsService statisticsService;
+    @Autowired private EventService eventService;
+    @Autowired private UserService userService;
+    @Autowired private ChatService chatService;
+    @Autowired private CategoryService categoryService;
+    @Autowired private LocationRepository locationRepository;
+
+    private User creator;
+    private User participant;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        creator = registerUser("statscreator", "statscreator@example.com");
+        participant = registerUser("statsparticipant", "statsparticipant@example.com");
+
+        category = new Category();
+        category.setName("StatsCategory");
+        category = categoryService.upsertCategories(Set.of(category)).iterator().next();
+    }
+
+    private User registerUser(String username, String email) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setPassword("password");
+        return userService.registerUser(user);
+    }
+
+    private Event createEvent(String name, Instant startTime, String city) {
+        Event event = new Event();
+        event.setName(name);
+        event.setDescription("Statistics test event");
+        event.setStartTime(startTime);
+        event.setEndTime(startTime.plus(1, ChronoUnit.HOURS));
+        event.setLocation(locationRepository.save(new Location(city, "Stats Street", null)));
+        event.setCategories(Set.of(category));
+        return eventService.create(event, creator.getId());
+    }
+
+    @Test
+    void refreshSnapshot_ShouldAggregateAllCounters() {
+        // Тест подсчёта метрик агрегатными запросами
+        createEvent("Past Event", Instant.now().minus(2, ChronoUnit.DAYS), "Stats City 1");
+        Event upcoming = createEvent("Upcoming Event", Instant.now().plus(2, ChronoUnit.DAYS), "Stats City 2");
+        eventService.addParticipant(upcoming.getId(), participant.getId());
+        chatService.createMessage("Hello", upcoming.getId(), participant.getId());
+
+        StatisticsSnapshot snapshot = statisticsService.refreshSnapshot();
+
+        assertEquals(2, snapshot.getTotalUsers());
+        assertEquals(2, snapshot.getTotalEvents());
+        assertEquals(1, snapshot.getUpcomingEvents());
+        assertEquals(3, snapshot.getTotalParticipations());
+        assertEquals(1, snapshot.getAverageParticipantsPerEvent());
+        assertEquals(1, snapshot.getTotalChatMessages());
+        assertEquals(1, snapshot.getEventsWithChats());
+        assertEquals("StatsCategory", snapshot.getPopularCategories().get(0).name());
+        assertEquals(2, snapshot.getPopularCategories().get(0).eventCount());
+    }
+
+    @Test
+    void getSnapshot_ShouldReuseSnapshotWithinRefreshInterval() {
+        // Тест кэширования снимка: повторное чтение не пересчитывает метрики
+        StatisticsSnapshot first = statisticsService.refreshSnapshot();
+        createEvent("Later Event", Instant.now().plus(1, ChronoUnit.DAYS), "Stats City 3");
+
+        assertSame(first, statisticsService.getSnapshot());
+
+        Map<String, Object> stats = statisticsService.getAdminStatistics();
+        assertEquals(first.getTotalEvents(), stats.get("totalEvents"));
+        assertEquals(first.getTotalEvents() + 1, statisticsService.refreshSnapshot().getTotalEvents());
+    }
+}
@@ -4,13 +4,38 @@ import com.example.angella.eventsapi.ServiceIntegrationTest;
 import com.example.angella.eventsapi.entity.*;
 import com.example.angella.eventsapi.exception.AccessDeniedException;
 import com.example.angella.eventsapi.repository.LocationRepository;
+import com.example.angella.eventsapi.security.AppUserDetails;
+import com.example.angella.eventsapi.web.controller.TaskController;
+import com.example.angella.eventsapi.web.dto.FeedSnapshotDto;
+import com.example.angella.eventsapi.web.dto.TaskDto;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -23,6 +48,10 @@ class TaskServiceIT extends ServiceIntegrationTest {
     @Autowired private UserService userService;
     @Autowired private LocationRepository locationRepository;
     @Autowired private CategoryService categoryService;
+    @Autowired private TaskController taskController;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired @Qualifier("brokerChannel") private SubscribableChannel brokerChannel;
 
     private User testUser;
     private Event testEvent;
@@ -41,6 +70,12 @@ class TaskServiceIT extends ServiceIntegrationTest {
         testEvent = eventService.create(testEvent, testUser.getId());
     }
 
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
     private Event buildTestEvent() {
         // Создание объекта события с обязательными полями
         Event event = new Event();
@@ -222,6 +257,112 @@ class TaskServiceIT extends ServiceIntegrationTest {
         assertFalse(isCreator);
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void taskChanges_ShouldBePublishedOnlyAfterCommit() throws Exception {
+        // Тест дельт задач с настоящим коммитом: откат ничего не рассылает и не расходует версию
+        List<Message<?>> published = new ArrayList<>();
+        MessageHandler handler = published::add;
+        brokerChannel.subscribe(handler);
+        try {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.executeWithoutResult(status -> {
+                taskService.createTask("Rolled back", testEvent.getId(), testUser.getId(), null);
+                status.setRollbackOnly();
+            });
+            assertTrue(published.isEmpty());
+
+            Task task = transaction.execute(status -> {
+                Task created = taskService.createTask("Committed", testEvent.getId(), testUser.getId(), null);
+                taskService.updateTask(created.getId(), "Committed and updated", null, null, testUser.getId());
+                // До коммита клиенты ничего не получают
+                assertTrue(published.isEmpty());
+                return created;
+            });
+            taskService.deleteTask(task.getId(), testUser.getId());
+
+            assertEquals(3, published.size());
+            List<JsonNode> changes = new ArrayList<>();
+            for (Message<?> message : published) {
+                assertEquals("/topic/tasks/" + testEvent.getId(),
+                        SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+                changes.add(payload(message));
+            }
+            assertEquals(List.of("CREATED", "UPDATED", "DELETED"),
+                    changes.stream().map(change -> change.get("type").asText()).toList());
+            assertEquals(List.of(1L, 2L, 3L),
+                    changes.stream().map(change -> change.get("version").asLong()).toList());
+            assertEquals("Committed and updated", changes.get(1).get("item").get("description").asText());
+            assertEquals(task.getId(), changes.get(2).get("id").asLong());
+            assertTrue(changes.get(2).get("item").isNull());
+
+            FeedSnapshotDto<TaskDto> snapshot = taskService.getTaskSnapshot(testEvent.getId());
+            assertEquals(3L, snapshot.getVersion());
+            assertTrue(snapshot.getItems().isEmpty());
+        } finally {
+            brokerChannel.unsubscribe(handler);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void toggleEndpoint_ShouldFlipCompletionAndPublishToggledDelta() throws Exception {
+        // Тест PATCH /api/v1/task/{taskId}/toggle и снимка: только участники, дельта после коммита
+        Task task = taskService.createTask("Toggle me", testEvent.getId(), testUser.getId(), null);
+        User participant = createTestUser("toggler");
+        eventService.addParticipant(testEvent.getId(), participant.getId());
+        User outsider = createTestUser("outsider");
+
+        List<Message<?>> published = new ArrayList<>();
+        MessageHandler handler = published::add;
+        brokerChannel.subscribe(handler);
+        try {
+            TaskDto toggled = taskController.toggleTask(authenticate(participant), task.getId()).getBody();
+            assertNotNull(toggled);
+            assertTrue(toggled.isCompleted());
+
+            assertEquals(1, published.size());
+            JsonNode change = payload(published.get(0));
+            assertEquals("TOGGLED", change.get("type").asText());
+            assertEquals(2L, change.get("version").asLong());
+            assertTrue(change.get("item").get("completed").asBoolean());
+
+            AppUserDetails outsiderDetails = authenticate(outsider);
+            assertThrows(AccessDeniedException.class, () -> taskController.toggleTask(outsiderDetails, task.getId()));
+            assertEquals(1, published.size());
+        } finally {
+            brokerChannel.unsubscribe(handler);
+        }
+
+        // Снимок закрыт @Access: id события берётся из пути запроса
+        bindRequest(testEvent.getId());
+        authenticate(participant);
+        FeedSnapshotDto<TaskDto> snapshot = taskController.getTaskSnapshot(testEvent.getId()).getBody();
+        assertNotNull(snapshot);
+        assertEquals(2L, snapshot.getVersion());
+        assertTrue(snapshot.getItems().get(0).isCompleted());
+
+        authenticate(outsider);
+        assertThrows(AccessDeniedException.class, () -> taskController.getTaskSnapshot(testEvent.getId()));
+    }
+
+    private JsonNode payload(Message<?> message) throws IOException {
+        return objectMapper.readTree((byte[]) message.getPayload());
+    }
+
+    private AppUserDetails authenticate(User user) {
+        AppUserDetails details = new AppUserDetails(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(details, null, details.getAuthorities()));
+        return details;
+    }
+
+    private void bindRequest(Long eventId) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("eventId", eventId.toString()));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
     // Вспомогательный метод для создания тестового пользователя
     private User createTestUser(String username) {
         User user = new User();
@@ -5,12 +5,17 @@ import com.example.angella.eventsapi.entity.Role;
 import com.example.angella.eventsapi.entity.User;
 import com.example.angella.eventsapi.exception.EntityNotFoundException;
 import com.example.angella.eventsapi.exception.RegisterUserException;
+import com.example.angella.eventsapi.security.UserDetailsServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.test.context.support.WithMockUser;
 
 import java.util.Set;
 
+import static com.example.angella.eventsapi.QueryCountAssertions.assertQueryCount;
 import static org.junit.jupiter.api.Assertions.*;
 
 class UserServiceIT extends ServiceIntegrationTest {
@@ -18,6 +23,9 @@ class UserServiceIT extends ServiceIntegrationTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
     private User testUser;
 
     @BeforeEach
@@ -124,4 +132,18 @@ class UserServiceIT extends ServiceIntegrationTest {
         // Проверяем, что пользователю назначена только роль ROLE_USER
         assertEquals(Set.of(Role.ROLE_USER), savedUser.getRoles());
     }
-}
\ No newline at end of file
+
+    // Тест проверяет, что принципал берётся из кэша, а смена ролей сбрасывает запись
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void addAdminRole_ShouldEvictCachedPrincipal() {
+        UserDetails cached = userDetailsService.loadUserByUsername("testuser");
+        assertSame(cached, assertQueryCount(0, () -> userDetailsService.loadUserByUsername("testuser")));
+
+        userService.addAdminRole(testUser.getId());
+
+        UserDetails reloaded = userDetailsService.loadUserByUsername("testuser");
+        assertNotSame(cached, reloaded);
+        assertTrue(reloaded.getAuthorities().contains(new SimpleGrantedAuthority(Role.ROLE_ADMIN.name())));
+    }
+}